@@ -0,0 +1,176 @@
+package com.pseudochaos.xpom;
+
+import javax.xml.namespace.NamespaceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Base class of mappers generated at compile time by the xpom-processor module. A generated mapper is plain code
+ * assigning converted values to fields one by one, so neither fields nor annotations of the class are looked up by
+ * reflection when the mapper is created or used. Only a field whose value is absent or can't be converted is looked
+ * up, to be passed to its exception handling strategy.
+ * <p>
+ * {@link XPomFactory} prefers a generated mapper of a class if there is one, see {@link #nameOf}.
+ *
+ * @param <T> type of mapped objects
+ */
+public abstract class CompiledMapper<T> {
+
+    static final String SUFFIX = "_XPomMapper";
+
+    private final Class<T> type;
+    private final Configuration<T> configuration;
+    private final EnumMatching enumMatching;
+    private final NamespaceContext namespaceContext;
+    private final List<XPath> scalars = new ArrayList<>();
+    private final List<XPath> collections = new ArrayList<>();
+    private final Map<String, XField> fields = new ConcurrentHashMap<>(); // Looked up on failures only
+
+    /**
+     * @param namespaces prefixes followed by their uris, as declared by {@code @NamespaceContext} on the class
+     */
+    protected CompiledMapper(Class<T> type, String... namespaces) {
+        this.type = type;
+        this.configuration = new Configuration<>(type);
+        this.enumMatching = configuration.getEnumMatching();
+        this.namespaceContext = new XNamespaceContext(namespaces);
+    }
+
+    /**
+     * @return XPath of a field which isn't a collection or an array
+     */
+    protected final XPath scalar(String expression) {
+        XPath xPath = new XPath(expression, namespaceContext);
+        scalars.add(xPath);
+        return xPath;
+    }
+
+    /**
+     * @return XPath of a field which is a collection or an array
+     */
+    protected final XPath collection(String expression) {
+        XPath xPath = new XPath(expression, namespaceContext);
+        collections.add(xPath);
+        return xPath;
+    }
+
+    /**
+     * Creates an instance and populates its fields from the parsed document.
+     */
+    protected abstract <D> T map(ValueExtractor<D> extractor, D document);
+
+    protected final void valueNotPresent(String field, Object instance) {
+        configuration.handleValueNotPresent(field(field), instance);
+    }
+
+    protected final void conversionFailed(String field, Exception e) {
+        configuration.handleConversionException(field(field), e);
+    }
+
+    private XField field(String name) {
+        return fields.computeIfAbsent(name, key -> {
+            try {
+                return new XField(type.getDeclaredField(key), namespaceContext);
+            } catch (NoSuchFieldException e) {
+                throw new XPomException(format("Generated mapper of %s is out of date, no field %s", type, key), e);
+            }
+        });
+    }
+
+    /**
+     * @return the constant matching the value the way reflective mappers of the class match it
+     */
+    protected final <E extends Enum<E>> E toEnum(Class<E> type, String value) {
+        return EnumTable.of(type).convert(value, enumMatching);
+    }
+
+    /**
+     * Decode numbers as {@link Byte#decode} and its siblings do, parse them as {@link Double#parseDouble} and others
+     * do, but from characters in place and without boxing, see {@link ValueExtractor#extractText}.
+     */
+    protected static byte decodeByte(CharSequence value) {
+        return Numbers.decodeByte(value);
+    }
+
+    protected static short decodeShort(CharSequence value) {
+        return Numbers.decodeShort(value);
+    }
+
+    protected static int decodeInt(CharSequence value) {
+        return Numbers.decodeInt(value);
+    }
+
+    protected static long decodeLong(CharSequence value) {
+        return Numbers.decodeLong(value);
+    }
+
+    protected static float parseFloat(CharSequence value) {
+        return Numbers.parseFloat(value);
+    }
+
+    protected static double parseDouble(CharSequence value) {
+        return Numbers.parseDouble(value);
+    }
+
+    protected static boolean parseBoolean(CharSequence value) {
+        return Numbers.parseBoolean(value);
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    NamespaceContext getNamespaceContext() {
+        return namespaceContext;
+    }
+
+    List<XPath> getScalars() {
+        return Collections.unmodifiableList(scalars);
+    }
+
+    List<XPath> getCollections() {
+        return Collections.unmodifiableList(collections);
+    }
+
+    /**
+     * @return binary name of the mapper generated for the class: the name of the class with nested class names
+     * joined by {@code _}, followed by {@code _XPomMapper}, e.g. {@code com.acme.Outer_Order_XPomMapper}
+     */
+    static String nameOf(Class<?> type) {
+        String name = type.getName();
+        int simpleName = name.lastIndexOf('.') + 1;
+        return name.substring(0, simpleName) + name.substring(simpleName).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * @return mapper generated for the class, empty if there is none
+     */
+    static <T> Optional<CompiledMapper<T>> find(Class<T> type) {
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(nameOf(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return Optional.empty();
+        }
+        if (!CompiledMapper.class.isAssignableFrom(mapperClass)) {
+            return Optional.empty();
+        }
+        try {
+            java.lang.reflect.Constructor<?> constructor = mapperClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            CompiledMapper<?> mapper = (CompiledMapper<?>) constructor.newInstance();
+            if (mapper.getType() != type) {
+                return Optional.empty();
+            }
+            return Optional.of((CompiledMapper<T>) mapper);
+        } catch (ReflectiveOperationException e) {
+            throw new XPomException("Failed to instantiate generated mapper " + mapperClass, e);
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.pseudochaos.xpom;
 
+import com.pseudochaos.xpom.jfr.Flight;
+
 import static com.pseudochaos.ObjectUtils.firstNonNull;
 import static com.pseudochaos.ObjectUtils.newInstanceOf;
 
 public class Configuration<T> {
 
     private final Class<T> clazz;
+    private final ExceptionHandlingStrategy classExceptionHandling;
     private ConverterResolver converterResolver;
 
     public Configuration(Class<T> clazz) {
         this.clazz = clazz;
-        this.converterResolver = new HierarchicalConverterResolver();
+        this.classExceptionHandling =
+                clazz.isAnnotationPresent(com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy.class) ?
+                clazz.getDeclaredAnnotation(com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy.class).value() : null;
+        this.converterResolver = new HierarchicalConverterResolver(getEnumMatching());
     }
 
+    /**
+     * Creates a converter of the field, mappers call it once per field when they are built.
+     */
     public Converter<Object, ?> resolveConverter(XField field) {
         if (field.getConverter().isPresent()) {
             return newInstanceOf(field.getConverter().get());
@@ -20,16 +29,71 @@ public class Configuration<T> {
         return (Converter<Object, ?>) converterResolver.resolve(field.getJavaField());
     }
 
+    /**
+     * Field and class level strategies are looked up once, the JVM level one is read on every call, so changing it
+     * on {@link XPomFactory} applies to existing mappers as well.
+     */
     public ExceptionHandlingStrategy getExceptionHandlingStrategy(XField field) {
+        // Called for every absent value, so without firstNonNull and its stream
+        if (field.getExceptionHandlingStrategy() != null) {
+            return field.getExceptionHandlingStrategy();
+        }
+        return classExceptionHandling != null ? classExceptionHandling : XPomFactory.getExceptionHandlingStrategy();
+    }
+
+    ExceptionHandlingStrategy getClassExceptionHandlingStrategy() {
+        return classExceptionHandling;
+    }
+
+    void handleValueNotPresent(XField field, Object instance) {
+        ExceptionHandlingStrategy strategy = getExceptionHandlingStrategy(field);
+        XPomFactory.getTracer().valueNotPresent(field, strategy);
+        XPomFactory.getMetrics().valueNotPresent(field, strategy);
+        Flight.exceptionHandling(field, strategy, null);
+        strategy.handleValueNotPresent(field, instance);
+    }
+
+    void handleConversionException(XField field, Exception e) {
+        ExceptionHandlingStrategy strategy = getExceptionHandlingStrategy(field);
+        XPomFactory.getTracer().conversionFailed(field, e, strategy);
+        XPomFactory.getMetrics().conversionFailed(field, strategy);
+        Flight.exceptionHandling(field, strategy, e);
+        strategy.handleConversionException(e, field);
+    }
+
+    public ExtractionStrategy getExtractionStrategy() {
         return firstNonNull(
-                field.getExceptionHandlingStrategy(),
-                getClassExceptionHandlingStrategy(),
-                XPomFactory.getExceptionHandlingStrategy()
+                getClassExtractionStrategy(),
+                XPomFactory.getExtractionStrategy()
         );
     }
 
-    ExceptionHandlingStrategy getClassExceptionHandlingStrategy() {
-        return clazz.isAnnotationPresent(com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy.class) ?
-                clazz.getDeclaredAnnotation(com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy.class).value() : null;
+    public Mapping getMapping() {
+        return firstNonNull(
+                getClassMapping(),
+                XPomFactory.getMapping()
+        );
+    }
+
+    public EnumMatching getEnumMatching() {
+        return firstNonNull(
+                getClassEnumMatching(),
+                XPomFactory.getEnumMatching()
+        );
+    }
+
+    EnumMatching getClassEnumMatching() {
+        return clazz.isAnnotationPresent(com.pseudochaos.xpom.annotation.EnumMatchingMode.class) ?
+                clazz.getDeclaredAnnotation(com.pseudochaos.xpom.annotation.EnumMatchingMode.class).value() : null;
+    }
+
+    Mapping getClassMapping() {
+        return clazz.isAnnotationPresent(com.pseudochaos.xpom.annotation.MappingMode.class) ?
+                clazz.getDeclaredAnnotation(com.pseudochaos.xpom.annotation.MappingMode.class).value() : null;
+    }
+
+    ExtractionStrategy getClassExtractionStrategy() {
+        return clazz.isAnnotationPresent(com.pseudochaos.xpom.annotation.ExtractionStrategy.class) ?
+                clazz.getDeclaredAnnotation(com.pseudochaos.xpom.annotation.ExtractionStrategy.class).value() : null;
     }
 }
@@ -3,4 +3,90 @@ package com.pseudochaos.xpom;
 @FunctionalInterface
 public interface Converter<S, T> {
     T convert(S source);
+
+    /**
+     * Converters specialized for primitive types, they populate primitive fields and arrays without boxing values.
+     * Values are given as characters, which may be a view over the buffer of the parser, so they can be parsed
+     * without creating a {@code String} (the view mustn't be kept). {@link #convert} boxes, it's used where a wrapper
+     * is needed anyway.
+     */
+    @FunctionalInterface
+    interface OfByte extends Converter<String, Byte> {
+        byte convertToByte(CharSequence source);
+
+        @Override
+        default Byte convert(String source) {
+            return convertToByte(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfShort extends Converter<String, Short> {
+        short convertToShort(CharSequence source);
+
+        @Override
+        default Short convert(String source) {
+            return convertToShort(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfInt extends Converter<String, Integer> {
+        int convertToInt(CharSequence source);
+
+        @Override
+        default Integer convert(String source) {
+            return convertToInt(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfLong extends Converter<String, Long> {
+        long convertToLong(CharSequence source);
+
+        @Override
+        default Long convert(String source) {
+            return convertToLong(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfFloat extends Converter<String, Float> {
+        float convertToFloat(CharSequence source);
+
+        @Override
+        default Float convert(String source) {
+            return convertToFloat(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfDouble extends Converter<String, Double> {
+        double convertToDouble(CharSequence source);
+
+        @Override
+        default Double convert(String source) {
+            return convertToDouble(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfBoolean extends Converter<String, Boolean> {
+        boolean convertToBoolean(CharSequence source);
+
+        @Override
+        default Boolean convert(String source) {
+            return convertToBoolean(source);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfChar extends Converter<String, Character> {
+        char convertToChar(CharSequence source);
+
+        @Override
+        default Character convert(String source) {
+            return convertToChar(source);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.pseudochaos.xpom;
+
+/**
+ * How values of enum fields are matched against constants: their string representations and aliases declared by
+ * {@link com.pseudochaos.xpom.annotation.EnumValue}.
+ */
+public enum EnumMatching {
+    EXACT,
+    CASE_INSENSITIVE
+}
@@ -0,0 +1,126 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.EnumValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Constants of an enum indexed by their string representations and aliases declared by {@link EnumValue}. Built once
+ * per enum type and shared by all fields, arrays and collections of the type. Lookups don't allocate: values are
+ * hashed in place, case-insensitively if needed, and a miss returns null.
+ */
+final class EnumTable<E extends Enum<E>> {
+
+    private static final ClassValue<EnumTable<?>> tables = new ClassValue<EnumTable<?>>() {
+        @Override
+        protected EnumTable<?> computeValue(Class<?> type) {
+            return new EnumTable(type);
+        }
+    };
+
+    private final Class<E> type;
+    private final Map<String, E> exact = new HashMap<>();
+    // Open addressing by case-insensitive hash, null constants mark values matching different constants
+    private final String[] keys;
+    private final Object[] constants;
+    private final int mask;
+
+    private EnumTable(Class<E> type) {
+        this.type = type;
+        Map<String, E> values = new HashMap<>();
+        for (E constant : type.getEnumConstants()) {
+            add(values, constant.toString(), constant);
+            EnumValue aliases = aliasesOf(constant);
+            if (aliases != null) {
+                for (String alias : aliases.value()) {
+                    add(values, alias, constant);
+                }
+            }
+        }
+        exact.putAll(values);
+
+        int size = Integer.highestOneBit(Math.max(values.size(), 1) * 2) * 2;
+        this.keys = new String[size];
+        this.constants = new Object[size];
+        this.mask = size - 1;
+        values.forEach(this::addIgnoringCase);
+    }
+
+    private void add(Map<String, E> values, String value, E constant) {
+        E previous = values.put(value, constant);
+        if (previous != null && previous != constant) {
+            throw new XPomException(format("Value '%s' matches both %s and %s of %s", value, previous, constant, type));
+        }
+    }
+
+    private void addIgnoringCase(String value, E constant) {
+        int index = hashIgnoringCase(value) & mask;
+        while (keys[index] != null) {
+            if (keys[index].equalsIgnoreCase(value)) {
+                if (constants[index] != constant) {
+                    constants[index] = null; // Ambiguous, matched exactly only
+                }
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = value;
+        constants[index] = constant;
+    }
+
+    private EnumValue aliasesOf(E constant) {
+        try {
+            return type.getField(constant.name()).getAnnotation(EnumValue.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static <E extends Enum<E>> EnumTable<E> of(Class<E> type) {
+        return (EnumTable<E>) tables.get(type);
+    }
+
+    /**
+     * @return constant matching the value, null if there is none
+     */
+    E find(String value, EnumMatching matching) {
+        E constant = exact.get(value);
+        if (constant != null || matching == EnumMatching.EXACT) {
+            return constant;
+        }
+        int index = hashIgnoringCase(value) & mask;
+        for (String key = keys[index]; key != null; key = keys[index = (index + 1) & mask]) {
+            if (key.equalsIgnoreCase(value)) {
+                return (E) constants[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @throws XPomException without a stack trace if no constant matches the value, it's handled by exception
+     * handling strategies as any other conversion failure
+     */
+    E convert(String value, EnumMatching matching) {
+        E constant = find(value, matching);
+        if (constant == null) {
+            throw new XPomException(format("No enum constant of %s matches the value '%s'", type.getName(), value),
+                    null, false, false);
+        }
+        return constant;
+    }
+
+    /**
+     * @return hash equal for strings equal ignoring case, as {@link String#equalsIgnoreCase} compares characters
+     */
+    private static int hashIgnoringCase(String value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
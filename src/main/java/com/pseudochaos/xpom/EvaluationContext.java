@@ -0,0 +1,18 @@
+package com.pseudochaos.xpom;
+
+/**
+ * Node XPaths of a mapper are evaluated against.
+ */
+public enum EvaluationContext {
+    /**
+     * The document node, relative XPaths start with the root element: {@code order/customer}.
+     */
+    DOCUMENT,
+
+    /**
+     * The root element, as for records of a larger document (see {@link XPom#stream}), where relative XPaths start
+     * with children of the record: {@code customer}. Absolute XPaths are evaluated as if the record were a document
+     * on its own.
+     */
+    ROOT_ELEMENT
+}
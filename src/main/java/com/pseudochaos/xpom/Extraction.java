@@ -0,0 +1,39 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.jaxp.JaxpValueExtractor;
+import com.pseudochaos.xpom.streaming.StreamingValueExtractor;
+
+import java.util.Collection;
+
+public enum Extraction implements ExtractionStrategy {
+    /**
+     * Parse the whole document into DOM and evaluate every XPath against it. Supports XPath 1.0 completely.
+     */
+    DOM {
+        @Override
+        public ValueExtractor<?> createExtractor(Collection<XPath> scalars, Collection<XPath> collections,
+                                                 Collection<XPath> nested, EvaluationContext context) {
+            return new JaxpValueExtractor(context);
+        }
+    },
+
+    /**
+     * Evaluate all XPaths of a class in a single pass over xml events without building DOM. Only simple location
+     * paths like {@code /a/b[2]/c}, {@code /a/b/@attr} and {@code /a/b/text()} are streamable, any other
+     * expression is evaluated by {@link #DOM} extraction.
+     * <p>
+     * Reading stops as soon as every non-collection field has got its value and no collection field can match
+     * anything else, so a malformed tail of a document isn't noticed. Files are mapped into memory rather than read,
+     * so heap usage doesn't depend on the size of a file.
+     * <p>
+     * Relative XPaths of records (see {@link XPom#stream}) are streamable as well: {@code customer} is matched as
+     * <code>/*&#47;customer</code>. Nested fields are evaluated against DOM.
+     */
+    STREAMING {
+        @Override
+        public ValueExtractor<?> createExtractor(Collection<XPath> scalars, Collection<XPath> collections,
+                                                 Collection<XPath> nested, EvaluationContext context) {
+            return new StreamingValueExtractor(scalars, collections, nested, context);
+        }
+    }
+}
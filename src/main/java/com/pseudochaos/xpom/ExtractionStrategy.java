@@ -0,0 +1,29 @@
+package com.pseudochaos.xpom;
+
+import java.util.Collection;
+
+import static java.util.stream.Collectors.toList;
+
+public interface ExtractionStrategy {
+
+    default ValueExtractor<?> createExtractor(Collection<XField> fields) {
+        return createExtractor(fields, EvaluationContext.DOCUMENT);
+    }
+
+    default ValueExtractor<?> createExtractor(Collection<XField> fields, EvaluationContext context) {
+        return createExtractor(
+                fields.stream().filter(field -> !field.isNested() && !field.isCollection()).map(XField::getXPath).collect(toList()),
+                fields.stream().filter(field -> !field.isNested() && field.isCollection()).map(XField::getXPath).collect(toList()),
+                fields.stream().filter(XField::isNested).map(XField::getXPath).collect(toList()),
+                context
+        );
+    }
+
+    /**
+     * @param scalars XPaths of which only the first matching node is of interest
+     * @param collections XPaths of which all matching nodes are of interest
+     * @param nested XPaths of nested fields, see {@link ValueExtractor#extractNodes}
+     */
+    ValueExtractor<?> createExtractor(Collection<XPath> scalars, Collection<XPath> collections, Collection<XPath> nested,
+                                      EvaluationContext context);
+}
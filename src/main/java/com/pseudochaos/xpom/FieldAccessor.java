@@ -0,0 +1,85 @@
+package com.pseudochaos.xpom;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads and writes a field through method handles resolved once per mapper, so neither access checks nor
+ * reflective dispatch are repeated for every document. Primitive fields can be written without boxing.
+ */
+final class FieldAccessor {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;          // (Object) Object
+    private final MethodHandle setter;          // (Object, Object) void, unboxes values of primitive fields
+    private final MethodHandle primitiveSetter; // (Object, primitive) void, null for fields of reference types
+
+    FieldAccessor(Field field) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            throw new XPomException("Annotated field can't be final: " + field);
+        }
+        this.field = field;
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle rawSetter = lookup.unreflectSetter(field);
+            MethodHandle rawGetter = lookup.unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) { // Ignore the instance, as Field.set does
+                rawSetter = MethodHandles.dropArguments(rawSetter, 0, Object.class);
+                rawGetter = MethodHandles.dropArguments(rawGetter, 0, Object.class);
+            }
+            this.getter = rawGetter.asType(GETTER);
+            this.setter = rawSetter.asType(SETTER);
+            this.primitiveSetter = field.getType().isPrimitive() ?
+                    rawSetter.asType(MethodType.methodType(void.class, Object.class, field.getType())) : null;
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new XPomException("Failed to access the field " + field, e);
+        }
+    }
+
+    /**
+     * @return setter of the type {@code (Object, Object) void}, which unboxes values of primitive fields
+     */
+    MethodHandle getSetter() {
+        return setter;
+    }
+
+    /**
+     * @return setter of the type {@code (Object, primitive) void}, null for fields of reference types
+     */
+    MethodHandle getPrimitiveSetter() {
+        return primitiveSetter;
+    }
+
+    Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw failure("get a value of", e);
+        }
+    }
+
+    void set(Object instance, Object value) {
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw failure("set a value to", e);
+        }
+    }
+
+    private RuntimeException failure(String action, Throwable e) {
+        if (e instanceof XPomException) {
+            return (XPomException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new XPomException("Failed to " + action + " the field " + field, e);
+    }
+}
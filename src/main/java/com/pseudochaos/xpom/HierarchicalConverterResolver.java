@@ -5,32 +5,52 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
-import java.util.stream.IntStream;
-
-import static java.util.Arrays.stream;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves converters by the type of a field. Converters of a type are created once and cached, so resolving them
+ * again, e.g. for an element type of a collection, doesn't create new ones.
+ */
 class HierarchicalConverterResolver implements ConverterResolver {
 
-    private Map<Class<?>, Converter<?, ?>> registry = new HashMap<>();
+    private final EnumMatching enumMatching;
+    private final Map<Class<?>, Converter<?, ?>> registry = new HashMap<>(); // Not modified once constructed
+    private final ConcurrentMap<Class<?>, Converter<?, ?>> cache = new ConcurrentHashMap<>(); // Arrays and enums
 
     public HierarchicalConverterResolver() {
-        // Primitives
-        registry.put(Byte.TYPE, f -> Byte.decode((String) f));
-        registry.put(Byte.class, f -> Byte.decode((String) f));
-        registry.put(Short.TYPE, f -> Short.decode((String) f));
-        registry.put(Short.class, f -> Short.decode((String) f));
-        registry.put(Integer.TYPE, f -> Integer.decode((String) f));
-        registry.put(Integer.class, f -> Integer.decode((String) f));
-        registry.put(Long.TYPE, f -> Long.decode((String) f));
-        registry.put(Long.class, f -> Long.decode((String) f));
-        registry.put(Float.TYPE, f -> Float.valueOf((String) f));
-        registry.put(Float.class, f -> Float.valueOf((String) f));
-        registry.put(Double.TYPE, f -> Double.valueOf((String) f));
-        registry.put(Double.class, f -> Double.valueOf((String) f));
-        registry.put(Boolean.TYPE, f -> Boolean.parseBoolean((String) f));
-        registry.put(Boolean.class, f -> Boolean.parseBoolean((String) f));
-        registry.put(Character.TYPE, f -> ((String) f).charAt(0));
-        registry.put(Character.class, f -> ((String) f).charAt(0));
+        this(EnumMatching.EXACT);
+    }
+
+    public HierarchicalConverterResolver(EnumMatching enumMatching) {
+        this.enumMatching = enumMatching;
+        // Primitives, specialized converters populate primitive fields and arrays without boxing and parse values
+        // straight from the buffer of the parser if the extractor supports it
+        Converter.OfByte byteConverter = Numbers::decodeByte;
+        Converter.OfShort shortConverter = Numbers::decodeShort;
+        Converter.OfInt intConverter = Numbers::decodeInt;
+        Converter.OfLong longConverter = Numbers::decodeLong;
+        Converter.OfFloat floatConverter = Numbers::parseFloat;
+        Converter.OfDouble doubleConverter = Numbers::parseDouble;
+        Converter.OfBoolean booleanConverter = Numbers::parseBoolean;
+        Converter.OfChar charConverter = f -> f.charAt(0);
+        registry.put(Byte.TYPE, byteConverter);
+        registry.put(Byte.class, byteConverter);
+        registry.put(Short.TYPE, shortConverter);
+        registry.put(Short.class, shortConverter);
+        registry.put(Integer.TYPE, intConverter);
+        registry.put(Integer.class, intConverter);
+        registry.put(Long.TYPE, longConverter);
+        registry.put(Long.class, longConverter);
+        registry.put(Float.TYPE, floatConverter);
+        registry.put(Float.class, floatConverter);
+        registry.put(Double.TYPE, doubleConverter);
+        registry.put(Double.class, doubleConverter);
+        registry.put(Boolean.TYPE, booleanConverter);
+        registry.put(Boolean.class, booleanConverter);
+        registry.put(Character.TYPE, charConverter);
+        registry.put(Character.class, charConverter);
         // Simple Data Objects
         registry.put(String.class, f -> f);
 
@@ -47,56 +67,67 @@ class HierarchicalConverterResolver implements ConverterResolver {
 
     @Override
     public Converter<?, ?> resolve(Class<?> type) {
-        Converter<?, ?> result;
         if (Collection.class.isAssignableFrom(type)) {
             throw new XPomException("Can't be here!");
-        } else if (type.isArray()) {
-            result = arrayConverter(type, this);
-        } else if (type.isEnum()) {
-            result = enumConverter(type);
-        } else {
-            result = registry.get(type);
         }
-        return Objects.requireNonNull(result, "Failed to find a suitable converter for the type: " + type);
+        Converter<?, ?> converter = registry.get(type);
+        if (converter == null && (type.isArray() || type.isEnum())) {
+            converter = cache.get(type);
+            if (converter == null) {
+                // Not computeIfAbsent, an array converter resolves the converter of its component type recursively
+                Converter<?, ?> created = type.isArray() ? arrayConverter(type) : enumConverter(type);
+                converter = cache.putIfAbsent(type, created);
+                converter = converter != null ? converter : created;
+            }
+        }
+        return Objects.requireNonNull(converter, "Failed to find a suitable converter for the type: " + type);
     }
 
     private Converter<?, ?> enumConverter(Class<?> type) {
-        return value -> stream(type.getEnumConstants())
-                .filter(c -> c.toString().equals(value))
-                .findFirst()
-                // TODO: How to handle non-matching values
-                .orElseThrow(() -> new XPomException("No enum constant value found"));
+        EnumTable<?> table = EnumTable.of((Class) type);
+        return value -> table.convert((String) value, enumMatching);
     }
 
-    private Converter<String[], ?> arrayConverter(Class<?> type, ConverterResolver resolver) {
-        return values -> {
-            Class<?> componentType = type.getComponentType();
-            Object array = Array.newInstance(componentType, values.length);
-            Converter<String, ?> converter = (Converter<String, ?>) resolver.resolve(componentType);
-            IntStream.range(0, values.length).forEach(index -> Array.set(array, index, converter.convert(values[index])));
+    private Converter<?, ?> arrayConverter(Class<?> type) {
+        Class<?> componentType = type.getComponentType();
+        Converter<String, ?> converter = (Converter<String, ?>) resolve(componentType);
+        if (componentType.isPrimitive()) {
+            return Primitives.arrayConverter(componentType, converter);
+        }
+        return (Converter<String[], Object[]>) values -> {
+            Object[] array = (Object[]) Array.newInstance(componentType, values.length);
+            for (int index = 0; index < values.length; index++) {
+                array[index] = converter.convert(values[index]);
+            }
             return array;
         };
     }
 
+    /**
+     * Element converter and collection type are resolved once, when the converter is created.
+     */
     static class CollectionConverter implements Converter<String[], Object> {
 
         private final Field field;
-        private final ConverterResolver resolver;
+        private final Supplier<Collection> collection;
+        private final Converter<String, ?> converter;
 
         public CollectionConverter(Field field, ConverterResolver resolver) {
             this.field = field;
-            this.resolver = resolver;
+            this.collection = getCollectionSupplier();
+            this.converter = resolveConverterForCollectionItem(resolver);
         }
 
         @Override
         public Object convert(String[] rawItems) {
-            Collection collection = getCollection();
-            Converter<String, ?> converter = resolveConverterForCollectionItem();
-            stream(rawItems).forEach(item -> collection.add(converter.convert(item)));
-            return collection;
+            Collection result = collection.get();
+            for (String item : rawItems) {
+                result.add(converter.convert(item));
+            }
+            return result;
         }
 
-        private Converter<String, ?> resolveConverterForCollectionItem() {
+        private Converter<String, ?> resolveConverterForCollectionItem(ConverterResolver resolver) {
             Class<?> elementType;
             if (field.getGenericType() instanceof ParameterizedType) {
                 elementType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
@@ -106,15 +137,15 @@ class HierarchicalConverterResolver implements ConverterResolver {
             return (Converter<String, ?>) resolver.resolve(elementType);
         }
 
-        private Collection getCollection() {
+        private Supplier<Collection> getCollectionSupplier() {
             Class<?> type = field.getType();
             if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
                 if (List.class.isAssignableFrom(type)) {
-                    return new ArrayList<>();
+                    return ArrayList::new;
                 }
                 // TODO: Add more Collection subtypes here
             }
-            return null;
+            return () -> null;
         }
     }
 }
@@ -0,0 +1,174 @@
+package com.pseudochaos.xpom;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps measurements in memory, per mapped class and per field, to be read by the application, e.g. exported to its
+ * monitoring system:
+ * <pre>
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * XPomFactory.setMetrics(metrics);
+ * ...
+ * metrics.getMapperMetrics(Order.class).getDocumentsPerSecond();
+ * </pre>
+ * Mapped classes and their fields are kept until {@link #reset}.
+ */
+public class InMemoryMetrics implements Metrics {
+
+    private final ConcurrentMap<Class<?>, MapperMetrics> mappers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<XField, FieldMetrics> fields = new ConcurrentHashMap<>();
+
+    @Override
+    public void documentMapped(Class<?> type, long length, long nanos) {
+        MapperMetrics metrics = mappers.get(type); // Doesn't lock unlike computeIfAbsent on Java 8
+        (metrics != null ? metrics : mappers.computeIfAbsent(type, key -> new MapperMetrics())).documentMapped(length, nanos);
+    }
+
+    @Override
+    public void valueExtracted(XField field, long nanos) {
+        fieldMetrics(field).extraction.record(nanos);
+    }
+
+    @Override
+    public void valueConverted(XField field, long nanos) {
+        fieldMetrics(field).conversion.record(nanos);
+    }
+
+    @Override
+    public void valueNotPresent(XField field, ExceptionHandlingStrategy strategy) {
+        fieldMetrics(field).notPresent.computeIfAbsent(strategy, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void conversionFailed(XField field, ExceptionHandlingStrategy strategy) {
+        fieldMetrics(field).conversionFailures.computeIfAbsent(strategy, key -> new LongAdder()).increment();
+    }
+
+    private FieldMetrics fieldMetrics(XField field) {
+        FieldMetrics metrics = fields.get(field);
+        return metrics != null ? metrics : fields.computeIfAbsent(field, key -> new FieldMetrics());
+    }
+
+    /**
+     * @return metrics of the class, empty if no document has been mapped to it
+     */
+    public MapperMetrics getMapperMetrics(Class<?> type) {
+        MapperMetrics metrics = mappers.get(type);
+        return metrics != null ? metrics : new MapperMetrics();
+    }
+
+    /**
+     * @return metrics of the field, empty if no value of the field has been mapped
+     */
+    public FieldMetrics getFieldMetrics(XField field) {
+        FieldMetrics metrics = fields.get(field);
+        return metrics != null ? metrics : new FieldMetrics();
+    }
+
+    public Map<Class<?>, MapperMetrics> getMappers() {
+        return Collections.unmodifiableMap(mappers);
+    }
+
+    public Map<XField, FieldMetrics> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Forgets all measurements along with mapped classes and fields.
+     */
+    public void reset() {
+        mappers.clear();
+        fields.clear();
+    }
+
+    public static final class MapperMetrics {
+
+        private final long created = System.nanoTime();
+        private final LatencyHistogram documents = new LatencyHistogram();
+        private final LongAdder length = new LongAdder();
+
+        private void documentMapped(long length, long nanos) {
+            documents.record(nanos);
+            if (length > 0) {
+                this.length.add(length);
+            }
+        }
+
+        /**
+         * @return times of parsing and mapping documents
+         */
+        public LatencyHistogram getDocuments() {
+            return documents;
+        }
+
+        /**
+         * @return total length of read input, in chars and bytes as documents have been given
+         */
+        public long getLength() {
+            return length.sum();
+        }
+
+        /**
+         * @return documents mapped per second since the first one
+         */
+        public double getDocumentsPerSecond() {
+            long elapsed = System.nanoTime() - created;
+            return elapsed <= 0 ? 0 : documents.getCount() * 1e9 / elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return "MapperMetrics{documents=" + documents + ", length=" + getLength() + '}';
+        }
+    }
+
+    public static final class FieldMetrics {
+
+        private final LatencyHistogram extraction = new LatencyHistogram();
+        private final LatencyHistogram conversion = new LatencyHistogram();
+        private final ConcurrentMap<ExceptionHandlingStrategy, LongAdder> notPresent = new ConcurrentHashMap<>();
+        private final ConcurrentMap<ExceptionHandlingStrategy, LongAdder> conversionFailures = new ConcurrentHashMap<>();
+
+        public LatencyHistogram getExtraction() {
+            return extraction;
+        }
+
+        public LatencyHistogram getConversion() {
+            return conversion;
+        }
+
+        public long getValuesNotPresent() {
+            return notPresent.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        /**
+         * @return absent values handled by the strategy, e.g. {@link ExceptionHandling#USE_DEFAULT}
+         */
+        public long getValuesNotPresent(ExceptionHandlingStrategy strategy) {
+            LongAdder count = notPresent.get(strategy);
+            return count == null ? 0 : count.sum();
+        }
+
+        public long getConversionFailures() {
+            return conversionFailures.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        /**
+         * @return conversion failures handled by the strategy, e.g. {@link ExceptionHandling#FAIL}
+         */
+        public long getConversionFailures(ExceptionHandlingStrategy strategy) {
+            LongAdder count = conversionFailures.get(strategy);
+            return count == null ? 0 : count.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "FieldMetrics{extraction=" + extraction + ", conversion=" + conversion + ", valuesNotPresent=" +
+                    getValuesNotPresent() + ", conversionFailures=" + getConversionFailures() + '}';
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.pseudochaos.xpom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations in nanoseconds counted in buckets by powers of two, so percentiles are accurate within a factor of two.
+ * Recording doesn't allocate or lock, it's safe to record from many threads.
+ */
+public final class LatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(duration) - (duration == 0 ? 0 : 1));
+        count.increment();
+        total.add(duration);
+        if (duration > max.get()) {
+            max.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @return average duration, 0 if nothing has been recorded
+     */
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    /**
+     * @param quantile from 0 to 1, e.g. 0.99
+     * @return upper bound of durations of the quantile, 0 if nothing has been recorded
+     */
+    public long getPercentileNanos(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be from 0 to 1: " + quantile);
+        }
+        double rank = quantile * getCount();
+        long counted = 0;
+        for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+            counted += buckets.get(bucket);
+            if (counted > 0 && counted >= rank) {
+                return Math.min(bucket >= Long.SIZE - 2 ? Long.MAX_VALUE : (2L << bucket) - 1, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount() + ", mean=" + (long) getMeanNanos() + "ns, p99=" +
+                getPercentileNanos(0.99) + "ns, max=" + getMaxNanos() + "ns}";
+    }
+}
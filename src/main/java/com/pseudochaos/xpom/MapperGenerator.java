@@ -0,0 +1,131 @@
+package com.pseudochaos.xpom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Generates code populating every field of a class in a straight line, see {@link Mapping#GENERATED}. The code is
+ * composed of method handles, which the JVM spins into bytecode of its own and inlines as a whole: there are no
+ * loops over fields, lambdas or converter lookups left, only calls to the extractor, the converter and the setter
+ * of each field. Generated code has the type {@code (Object instance, ValueExtractor extractor, Object document) void}.
+ */
+final class MapperGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperGenerator.class);
+
+    private static final MethodHandle EXTRACT_SCALAR;
+    private static final MethodHandle EXTRACT_COLLECTION;
+    private static final MethodHandle EXTRACT_TEXT;
+    private static final MethodHandle EXTRACT_TEXTS;
+    private static final MethodHandle IS_PRESENT;
+    private static final MethodHandle GET;
+    private static final MethodHandle CONVERT;
+    private static final MethodHandle NON_NULL;
+    private static final MethodHandle VALUE_NOT_PRESENT;
+    private static final MethodHandle CONVERSION_FAILED;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodType extract = methodType(Optional.class, Object.class, XPath.class);
+            EXTRACT_SCALAR = lookup.findVirtual(ValueExtractor.class, "extractScalar", extract);
+            EXTRACT_COLLECTION = lookup.findVirtual(ValueExtractor.class, "extractCollection", extract);
+            EXTRACT_TEXT = lookup.findVirtual(ValueExtractor.class, "extractText", extract);
+            EXTRACT_TEXTS = lookup.findVirtual(ValueExtractor.class, "extractTexts", extract);
+            IS_PRESENT = lookup.findVirtual(Optional.class, "isPresent", methodType(boolean.class));
+            GET = lookup.findVirtual(Optional.class, "get", methodType(Object.class));
+            CONVERT = lookup.findVirtual(Converter.class, "convert", methodType(Object.class, Object.class));
+            NON_NULL = lookup.findStatic(Objects.class, "nonNull", methodType(boolean.class, Object.class));
+            VALUE_NOT_PRESENT = lookup.findStatic(MapperGenerator.class, "valueNotPresent",
+                    methodType(void.class, Configuration.class, XField.class, Object.class));
+            CONVERSION_FAILED = lookup.findStatic(MapperGenerator.class, "conversionFailed",
+                    methodType(void.class, Configuration.class, XField.class, Exception.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MapperGenerator() {
+    }
+
+    /**
+     * @return generated code, empty if some field can't be populated by generated code
+     */
+    static Optional<MethodHandle> generate(Collection<XField> fields, Map<XField, Converter<Object, ?>> converters,
+                                           Configuration<?> configuration) {
+        MethodHandle code = MethodHandles.dropArguments(noop(), 0, Object.class, ValueExtractor.class, Object.class);
+        for (XField field : fields) {
+            if (field.isNested()) {
+                logger.debug("Nested field {} can't be populated by generated code", field);
+                return Optional.empty();
+            }
+            try {
+                code = MethodHandles.foldArguments(code, generate(field, converters.get(field), configuration));
+            } catch (RuntimeException e) {
+                logger.debug("Failed to generate code for the field {}", field, e);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(code);
+    }
+
+    /**
+     * Generates {@code (instance, extractor, document) -> value = extract(document); if present: convert and set,
+     * otherwise: handle the absence}.
+     */
+    private static MethodHandle generate(XField field, Converter<Object, ?> converter, Configuration<?> configuration) {
+        // (Object instance, Object raw) void, values of primitive fields aren't boxed if the converter is specialized
+        MethodHandle convert = Primitives.writer(field, converter);
+        if (convert == null) {
+            // (Object instance, Object value) void, null values aren't set
+            MethodHandle store = MethodHandles.guardWithTest(
+                    MethodHandles.dropArguments(NON_NULL, 0, Object.class),
+                    field.getAccessor().getSetter(),
+                    MethodHandles.dropArguments(noop(), 0, Object.class, Object.class));
+            convert = MethodHandles.filterArguments(store, 1, CONVERT.bindTo(converter));
+        }
+        MethodHandle convertAndStore = MethodHandles.catchException(
+                convert,
+                Exception.class,
+                MethodHandles.dropArguments(MethodHandles.insertArguments(CONVERSION_FAILED, 0, configuration, field),
+                        1, Object.class, Object.class));
+        // (Object instance, Optional value) void
+        MethodHandle present = MethodHandles.filterArguments(convertAndStore, 1, GET);
+        MethodHandle absent = MethodHandles.dropArguments(
+                MethodHandles.insertArguments(VALUE_NOT_PRESENT, 0, configuration, field), 1, Optional.class);
+        MethodHandle populate = MethodHandles.guardWithTest(
+                MethodHandles.dropArguments(IS_PRESENT, 0, Object.class), present, absent);
+        // (Object instance, ValueExtractor extractor, Object document) void
+        MethodHandle extract = MethodHandles.insertArguments(extractorOf(field, converter), 2, field.getXPath());
+        return MethodHandles.collectArguments(populate, 1, extract);
+    }
+
+    private static MethodHandle extractorOf(XField field, Converter<Object, ?> converter) {
+        if (Primitives.parsesText(field, converter)) {
+            return field.isCollection() ? EXTRACT_TEXTS : EXTRACT_TEXT;
+        }
+        return field.isCollection() ? EXTRACT_COLLECTION : EXTRACT_SCALAR;
+    }
+
+    private static MethodHandle noop() {
+        return MethodHandles.constant(Void.class, null).asType(methodType(void.class));
+    }
+
+    private static void valueNotPresent(Configuration<?> configuration, XField field, Object instance) {
+        configuration.handleValueNotPresent(field, instance);
+    }
+
+    private static void conversionFailed(Configuration<?> configuration, XField field, Exception e) {
+        configuration.handleConversionException(field, e);
+    }
+}
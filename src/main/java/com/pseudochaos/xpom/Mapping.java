@@ -0,0 +1,26 @@
+package com.pseudochaos.xpom;
+
+/**
+ * How a mapper populates fields of an instance.
+ */
+public enum Mapping {
+    /**
+     * Walk annotated fields one by one for each document, extracting, converting and storing their values through
+     * converters resolved once, when the mapper is created.
+     */
+    REFLECTIVE,
+
+    /**
+     * Generate code populating every field in a straight line: extract the value of field i, convert it, store it
+     * into field i. Converters are resolved once, when the code is generated. Classes which can't be mapped by
+     * generated code (e.g. with nested fields) fall back to {@link #REFLECTIVE} mapping, see
+     * {@link XPom#getMapping()}.
+     */
+    GENERATED,
+
+    /**
+     * Use the mapper generated for the class at compile time by the xpom-processor module, see
+     * {@link CompiledMapper}. Such a mapper is preferred whenever it's present, regardless of the configured mode.
+     */
+    COMPILED
+}
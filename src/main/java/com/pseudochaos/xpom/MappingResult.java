@@ -0,0 +1,33 @@
+package com.pseudochaos.xpom;
+
+/**
+ * Mapped object along with statistics of the mapping.
+ */
+public final class MappingResult<T> {
+
+    private final T value;
+    private final long skippedLength;
+
+    MappingResult(T value, long skippedLength) {
+        this.value = value;
+        this.skippedLength = skippedLength;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return length of the tail of the input which hasn't been read at all because every field had been resolved
+     * before it: in chars for strings and readers, in bytes for binary input. It's -1 if the tail of a stream or a
+     * reader has been left unread, as its length is unknown then
+     */
+    public long getSkippedLength() {
+        return skippedLength;
+    }
+
+    @Override
+    public String toString() {
+        return "MappingResult{value=" + value + ", skippedLength=" + skippedLength + '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.pseudochaos.xpom;
+
+/**
+ * Receives measurements of mapping documents and their fields, e.g. to find out which mappings are worth optimizing,
+ * see {@link XPomFactory#setMetrics} and {@link InMemoryMetrics}. Metrics are called for every field of every
+ * document, so they should be cheap. Nothing is measured while metrics are {@link #NONE}, which is the default.
+ * <p>
+ * Times of extracting and converting values are measured for mappers populating fields reflectively only, generated
+ * code and mappers generated at compile time report documents, absent values and conversion failures.
+ */
+public interface Metrics {
+
+    /**
+     * Ignores all measurements, mappers don't even take them.
+     */
+    Metrics NONE = new Metrics() {
+    };
+
+    /**
+     * A document has been parsed and mapped to an instance of the type.
+     *
+     * @param length length of the input which has been read: in chars for strings and readers, in bytes for binary
+     *               input, -1 if it isn't known
+     */
+    default void documentMapped(Class<?> type, long length, long nanos) {
+    }
+
+    /**
+     * A value of the field has been looked up in a document, whether it has been found or not.
+     */
+    default void valueExtracted(XField field, long nanos) {
+    }
+
+    /**
+     * A value of the field has been converted and set, or the conversion has failed and been handled.
+     */
+    default void valueConverted(XField field, long nanos) {
+    }
+
+    /**
+     * A document doesn't contain a value of the field, the strategy is about to handle it.
+     */
+    default void valueNotPresent(XField field, ExceptionHandlingStrategy strategy) {
+    }
+
+    /**
+     * A value of the field can't be converted, the strategy is about to handle it.
+     */
+    default void conversionFailed(XField field, ExceptionHandlingStrategy strategy) {
+    }
+}
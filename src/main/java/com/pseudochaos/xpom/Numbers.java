@@ -0,0 +1,217 @@
+package com.pseudochaos.xpom;
+
+/**
+ * Parses primitives from characters in place, without wrappers, substrings or a {@code String} of the value, so
+ * values can be parsed straight from a parser's buffer. Semantics are those of the JDK methods:
+ * <ul>
+ * <li>integral numbers are decoded as {@link Integer#decode} and its siblings do: sign, then {@code 0x}, {@code 0X},
+ * {@code #} or {@code 0} radix prefix, then digits</li>
+ * <li>floating point numbers are parsed as {@link Double#parseDouble} does. Plain decimals which can be converted
+ * exactly are parsed in place, anything else (many digits, large exponents, whitespace, hex, NaN) by the JDK</li>
+ * <li>booleans are parsed as {@link Boolean#parseBoolean} does</li>
+ * </ul>
+ */
+final class Numbers {
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private static final long DOUBLE_EXACT_MANTISSA = 1L << 53;
+    private static final long FLOAT_EXACT_MANTISSA = 1L << 24;
+
+    private Numbers() {
+    }
+
+    static byte decodeByte(CharSequence value) {
+        return (byte) decode(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    static short decodeShort(CharSequence value) {
+        return (short) decode(value, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    static int decodeInt(CharSequence value) {
+        return (int) decode(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    static long decodeLong(CharSequence value) {
+        return decode(value, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    static boolean parseBoolean(CharSequence value) {
+        return value.length() == 4
+                && Character.toLowerCase(value.charAt(0)) == 't'
+                && Character.toLowerCase(value.charAt(1)) == 'r'
+                && Character.toLowerCase(value.charAt(2)) == 'u'
+                && Character.toLowerCase(value.charAt(3)) == 'e';
+    }
+
+    static double parseDouble(CharSequence value) {
+        Decimal decimal = new Decimal();
+        if (decimal.parse(value) && decimal.mantissa < DOUBLE_EXACT_MANTISSA) {
+            if (decimal.mantissa == 0) {
+                return decimal.negative ? -0.0 : 0.0;
+            }
+            // Both the mantissa and the power of ten are exact, so a single operation rounds correctly
+            int exponent = decimal.exponent;
+            if (exponent >= 0 && exponent < DOUBLE_POWERS_OF_TEN.length) {
+                double result = decimal.mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+                return decimal.negative ? -result : result;
+            } else if (exponent < 0 && -exponent < DOUBLE_POWERS_OF_TEN.length) {
+                double result = decimal.mantissa / DOUBLE_POWERS_OF_TEN[-exponent];
+                return decimal.negative ? -result : result;
+            }
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    static float parseFloat(CharSequence value) {
+        Decimal decimal = new Decimal();
+        if (decimal.parse(value) && decimal.mantissa < FLOAT_EXACT_MANTISSA) {
+            if (decimal.mantissa == 0) {
+                return decimal.negative ? -0.0f : 0.0f;
+            }
+            int exponent = decimal.exponent;
+            if (exponent >= 0 && exponent < FLOAT_POWERS_OF_TEN.length) {
+                float result = decimal.mantissa * FLOAT_POWERS_OF_TEN[exponent];
+                return decimal.negative ? -result : result;
+            } else if (exponent < 0 && -exponent < FLOAT_POWERS_OF_TEN.length) {
+                float result = decimal.mantissa / FLOAT_POWERS_OF_TEN[-exponent];
+                return decimal.negative ? -result : result;
+            }
+        }
+        return Float.parseFloat(value.toString());
+    }
+
+    /**
+     * @throws NumberFormatException if the value isn't a number in the range
+     */
+    private static long decode(CharSequence value, long min, long max) {
+        int length = value.length();
+        if (length == 0) {
+            throw new NumberFormatException("Zero length string");
+        }
+        int index = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-') {
+            negative = true;
+            index++;
+        } else if (first == '+') {
+            index++;
+        }
+        int radix = 10;
+        if (startsWith(value, index, '0') && (startsWith(value, index + 1, 'x') || startsWith(value, index + 1, 'X'))) {
+            radix = 16;
+            index += 2;
+        } else if (startsWith(value, index, '#')) {
+            radix = 16;
+            index++;
+        } else if (startsWith(value, index, '0') && length > index + 1) {
+            radix = 8;
+            index++;
+        }
+        if (startsWith(value, index, '-') || startsWith(value, index, '+')) {
+            throw new NumberFormatException("Sign character in wrong position");
+        }
+        if (index == length) {
+            throw invalid(value);
+        }
+        // Accumulated negatively, as the negative range is the larger one
+        long limit = negative ? min : -max;
+        long multiplicationLimit = limit / radix;
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = Character.digit(value.charAt(index), radix);
+            if (digit < 0 || result < multiplicationLimit) {
+                throw invalid(value);
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                throw invalid(value);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static boolean startsWith(CharSequence value, int index, char c) {
+        return index < value.length() && value.charAt(index) == c;
+    }
+
+    private static NumberFormatException invalid(CharSequence value) {
+        return new NumberFormatException("For input string: \"" + value + "\"");
+    }
+
+    /**
+     * Plain decimal {@code [sign] digits [. digits] [(e|E) [sign] digits] [f|F|d|D]} as mantissa times a power of
+     * ten. Escape analysis keeps it off the heap.
+     */
+    private static final class Decimal {
+
+        boolean negative;
+        long mantissa;
+        int exponent;
+
+        /**
+         * @return {@code false} if the value isn't a plain decimal or its mantissa isn't exact as a double
+         */
+        boolean parse(CharSequence value) {
+            int length = value.length();
+            int index = 0;
+            if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+                negative = value.charAt(0) == '-';
+                index++;
+            }
+            int digits = 0;
+            for (; index < length && isDigit(value.charAt(index)); index++, digits++) {
+                if (!append(value.charAt(index))) return false;
+            }
+            if (index < length && value.charAt(index) == '.') {
+                for (index++; index < length && isDigit(value.charAt(index)); index++, digits++) {
+                    if (!append(value.charAt(index))) return false;
+                    exponent--;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (index < length && (value.charAt(index) == 'e' || value.charAt(index) == 'E')) {
+                index++;
+                boolean negativeExponent = false;
+                if (index < length && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+                    negativeExponent = value.charAt(index) == '-';
+                    index++;
+                }
+                int start = index;
+                int explicit = 0;
+                for (; index < length && isDigit(value.charAt(index)); index++) {
+                    if (explicit > 1000) return false;
+                    explicit = explicit * 10 + (value.charAt(index) - '0');
+                }
+                if (index == start) {
+                    return false;
+                }
+                exponent += negativeExponent ? -explicit : explicit;
+            }
+            if (index < length && "fFdD".indexOf(value.charAt(index)) >= 0) {
+                index++;
+            }
+            return index == length;
+        }
+
+        private boolean append(char digit) {
+            if (mantissa >= DOUBLE_EXACT_MANTISSA) {
+                return false;
+            }
+            mantissa = mantissa * 10 + (digit - '0');
+            return true;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.pseudochaos.xpom;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Populates primitive fields and arrays without boxing values, if their converters are specialized for the primitive
+ * type, like {@link Converter.OfInt}. Converters of other types box values and are used as any other converter.
+ */
+final class Primitives {
+
+    private static final Map<Class<?>, Class<?>> specializations = new HashMap<>();
+
+    static {
+        specializations.put(byte.class, Converter.OfByte.class);
+        specializations.put(short.class, Converter.OfShort.class);
+        specializations.put(int.class, Converter.OfInt.class);
+        specializations.put(long.class, Converter.OfLong.class);
+        specializations.put(float.class, Converter.OfFloat.class);
+        specializations.put(double.class, Converter.OfDouble.class);
+        specializations.put(boolean.class, Converter.OfBoolean.class);
+        specializations.put(char.class, Converter.OfChar.class);
+    }
+
+    private Primitives() {
+    }
+
+    /**
+     * @return whether the converter converts values to the primitive type without boxing them
+     */
+    static boolean isSpecialized(Class<?> type, Converter<?, ?> converter) {
+        Class<?> specialization = specializations.get(type);
+        return specialization != null && specialization.isInstance(converter);
+    }
+
+    /**
+     * @return code of the type {@code (Object instance, Object value) void}, which converts the value by the converter
+     * and sets it to the primitive field, null if the converter isn't specialized for the type of the field
+     */
+    static MethodHandle writer(XField field, Converter<?, ?> converter) {
+        Class<?> type = field.getJavaField().getType();
+        if (!isSpecialized(type, converter)) {
+            return null;
+        }
+        try {
+            String name = type.getName();
+            MethodHandle convert = MethodHandles.publicLookup()
+                    .findVirtual(specializations.get(type), "convertTo" + Character.toUpperCase(name.charAt(0)) +
+                            name.substring(1), methodType(type, CharSequence.class))
+                    .bindTo(converter)
+                    .asType(methodType(type, Object.class));
+            return MethodHandles.filterArguments(field.getAccessor().getPrimitiveSetter(), 1, convert);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Converter of values to an array of a primitive type, which parses them in place if they are given as views
+     * over the buffer of the parser, see {@link ValueExtractor#extractTexts}.
+     */
+    @FunctionalInterface
+    interface ArrayConverter extends Converter<CharSequence[], Object> {
+    }
+
+    /**
+     * @return whether the converter of the field parses values given as characters, so the field can be populated
+     * without creating strings of its values
+     */
+    static boolean parsesText(XField field, Converter<?, ?> converter) {
+        return field.isCollection() ? converter instanceof ArrayConverter :
+                isSpecialized(field.getJavaField().getType(), converter);
+    }
+
+    /**
+     * @return converter of values to an array of the primitive type
+     */
+    static ArrayConverter arrayConverter(Class<?> componentType, Converter<String, ?> converter) {
+        if (converter instanceof Converter.OfByte && componentType == byte.class) {
+            Converter.OfByte specialized = (Converter.OfByte) converter;
+            return values -> {
+                byte[] array = new byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToByte(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfShort && componentType == short.class) {
+            Converter.OfShort specialized = (Converter.OfShort) converter;
+            return values -> {
+                short[] array = new short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToShort(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfInt && componentType == int.class) {
+            Converter.OfInt specialized = (Converter.OfInt) converter;
+            return values -> {
+                int[] array = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToInt(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfLong && componentType == long.class) {
+            Converter.OfLong specialized = (Converter.OfLong) converter;
+            return values -> {
+                long[] array = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToLong(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfFloat && componentType == float.class) {
+            Converter.OfFloat specialized = (Converter.OfFloat) converter;
+            return values -> {
+                float[] array = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToFloat(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfDouble && componentType == double.class) {
+            Converter.OfDouble specialized = (Converter.OfDouble) converter;
+            return values -> {
+                double[] array = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToDouble(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfBoolean && componentType == boolean.class) {
+            Converter.OfBoolean specialized = (Converter.OfBoolean) converter;
+            return values -> {
+                boolean[] array = new boolean[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToBoolean(values[i]);
+                }
+                return array;
+            };
+        } else if (converter instanceof Converter.OfChar && componentType == char.class) {
+            Converter.OfChar specialized = (Converter.OfChar) converter;
+            return values -> {
+                char[] array = new char[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    array[i] = specialized.convertToChar(values[i]);
+                }
+                return array;
+            };
+        }
+        return values -> {
+            Object array = Array.newInstance(componentType, values.length);
+            for (int i = 0; i < values.length; i++) {
+                Array.set(array, i, converter.convert(values[i].toString()));
+            }
+            return array;
+        };
+    }
+}
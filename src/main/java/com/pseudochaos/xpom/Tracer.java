@@ -0,0 +1,66 @@
+package com.pseudochaos.xpom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/**
+ * Receives events of mapping individual fields, e.g. to find out why a field hasn't got a value. Tracers are called
+ * for every field of every document, so they should be cheap, see {@link XPomFactory#setTracer}.
+ */
+public interface Tracer {
+
+    /**
+     * Logs events at debug level of the {@code com.pseudochaos.xpom.XPom} logger, if it's enabled.
+     */
+    Tracer LOGGING = new Tracer() {
+
+        private final Logger logger = LoggerFactory.getLogger(XPom.class);
+
+        @Override
+        public void valueExtracted(XField field, Optional<?> value) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} = {}", field, value.isPresent() ? value.get() : "NONE");
+            }
+        }
+
+        @Override
+        public void valueNotPresent(XField field, ExceptionHandlingStrategy strategy) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("No value for {}, using {} exception handling strategy", field, strategy);
+            }
+        }
+
+        @Override
+        public void conversionFailed(XField field, Exception e, ExceptionHandlingStrategy strategy) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Failed to convert a value for {}, using {} exception handling strategy", field, strategy, e);
+            }
+        }
+    };
+
+    /**
+     * Ignores all events.
+     */
+    Tracer NONE = new Tracer() {
+    };
+
+    /**
+     * A value of the field has been extracted from a document, not converted yet. Not reported by generated mappers.
+     */
+    default void valueExtracted(XField field, Optional<?> value) {
+    }
+
+    /**
+     * A document doesn't contain a value of the field, the strategy is about to handle it.
+     */
+    default void valueNotPresent(XField field, ExceptionHandlingStrategy strategy) {
+    }
+
+    /**
+     * A value of the field can't be converted, the strategy is about to handle it.
+     */
+    default void conversionFailed(XField field, Exception e, ExceptionHandlingStrategy strategy) {
+    }
+}
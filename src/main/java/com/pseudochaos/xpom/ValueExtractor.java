@@ -1,11 +1,65 @@
 package com.pseudochaos.xpom;
 
+import org.w3c.dom.Node;
+
+import java.util.List;
 import java.util.Optional;
 
-public interface ValueExtractor {
+/**
+ * Extracts raw values from an xml document.
+ *
+ * @param <D> type of the parsed document (or any other context) XPaths are evaluated against
+ */
+public interface ValueExtractor<D> {
+
+    /**
+     * Parses the given xml once, so the result can be used for evaluation of any number of XPaths.
+     */
+    D parse(XmlInput input);
+
+    default D parse(String xml) {
+        return parse(XmlInput.of(xml));
+    }
+
+    Optional<String> extractScalar(D document, XPath xPath);
+
+    Optional<String[]> extractCollection(D document, XPath xPath);
+
+    /**
+     * @return the same value as {@link #extractScalar}, as characters which may be a view over the buffer of the
+     * extractor, so no {@code String} is created if the value is parsed in place, see {@link Converter.OfInt}. The view
+     * is valid as long as the document is.
+     */
+    default Optional<CharSequence> extractText(D document, XPath xPath) {
+        return (Optional<CharSequence>) (Optional<? extends CharSequence>) extractScalar(document, xPath);
+    }
+
+    /**
+     * @return the same values as {@link #extractCollection}, as characters, see {@link #extractText}
+     */
+    default Optional<CharSequence[]> extractTexts(D document, XPath xPath) {
+        return (Optional<CharSequence[]>) (Optional<? extends CharSequence[]>) extractCollection(document, xPath);
+    }
+
+    /**
+     * @return nodes matched by the XPath in document order, XPaths of nested fields are evaluated against them
+     */
+    Optional<List<Node>> extractNodes(D document, XPath xPath);
+
+    /**
+     * @return length of the input which has been left unread by {@link #parse}, in chars or bytes depending on the
+     * input, -1 if it's unknown as the input is a stream
+     */
+    default long getSkippedLength(D document) {
+        return 0;
+    }
 
-    Optional<String> extractScalar(String xml, XPath xPath);
+    default Optional<String> extractScalar(String xml, XPath xPath) {
+        return extractScalar(parse(xml), xPath);
+    }
 
-    Optional<String[]> extractCollection(String xml, XPath xPath);
+    default Optional<String[]> extractCollection(String xml, XPath xPath) {
+        return extractCollection(parse(xml), xPath);
+    }
 
 }
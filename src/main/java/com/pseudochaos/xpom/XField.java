@@ -7,6 +7,7 @@ import com.pseudochaos.xpom.annotation.XPath;
 import javax.xml.namespace.NamespaceContext;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
@@ -15,10 +16,15 @@ public class XField {
 
     private final Field field;
     private final com.pseudochaos.xpom.XPath xPath;
+    private final FieldAccessor accessor;
+    private final ExceptionHandling exceptionHandling; // Looked up once, it's needed for every absent value
 
     public XField(Field field, NamespaceContext namespaceContext) {
         this.field = field;
         this.xPath = new com.pseudochaos.xpom.XPath(getRawXPath(), namespaceContext);
+        this.accessor = new FieldAccessor(field);
+        this.exceptionHandling = field.isAnnotationPresent(ExceptionHandlingStrategy.class) ?
+                field.getDeclaredAnnotation(ExceptionHandlingStrategy.class).value() : null;
     }
 
     public Field getJavaField() {
@@ -37,6 +43,30 @@ public class XField {
         return field.getType().isArray() || Collection.class.isAssignableFrom(field.getType());
     }
 
+    /**
+     * @return type of elements if the field is a collection or an array, type of the field otherwise
+     */
+    public Class<?> getElementType() {
+        if (field.getType().isArray()) {
+            return field.getType().getComponentType();
+        }
+        if (Collection.class.isAssignableFrom(field.getType())) {
+            return field.getGenericType() instanceof ParameterizedType ?
+                    (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0] : String.class;
+        }
+        return field.getType();
+    }
+
+    /**
+     * @return whether elements of the field are objects mapped by XPaths of their own class, which are evaluated
+     * relative to each node matched by the XPath of the field
+     */
+    public boolean isNested() {
+        Class<?> type = getElementType();
+        return !getConverter().isPresent() && !type.isPrimitive() && !type.isEnum() && !type.getName().startsWith("java.") &&
+                Arrays.stream(type.getDeclaredFields()).anyMatch(f -> f.isAnnotationPresent(XPath.class));
+    }
+
     public String getTypeString() {
         if (field.getGenericType() instanceof ParameterizedType) {
             Class<?> elementType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
@@ -61,19 +91,16 @@ public class XField {
     }
 
     public ExceptionHandling getExceptionHandlingStrategy() {
-        return field.isAnnotationPresent(ExceptionHandlingStrategy.class) ?
-            field.getDeclaredAnnotation(ExceptionHandlingStrategy.class).value() : null;
+        return exceptionHandling;
     }
 
     public boolean hasDefaultValue(Object instance) {
         Object javaDefault = Defaults.defaultValue(field.getType());
-        field.setAccessible(true);
-        try {
-            Object a = field.get(instance);
-            return !Objects.equals(a, javaDefault);
-        } catch (IllegalAccessException e) {
-            throw new XPomException("Failed to get default value assigned to the field: " + this, e);
-        }
+        return !Objects.equals(accessor.get(instance), javaDefault);
+    }
+
+    FieldAccessor getAccessor() {
+        return accessor;
     }
 
     public Optional<Class<? extends Converter>> getConverter() {
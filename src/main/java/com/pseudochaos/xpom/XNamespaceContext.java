@@ -21,21 +21,38 @@ class XNamespaceContext implements javax.xml.namespace.NamespaceContext {
      * @throws IllegalStateException if several identical prefixes defined on the class
      */
     public XNamespaceContext(Class<?> clazz) {
+        this(clazz.isAnnotationPresent(NamespaceContext.class) ?
+                stream(clazz.getAnnotation(NamespaceContext.class).value()).collect(toMap(Namespace::prefix, Namespace::uri)) :
+                Collections.emptyMap());
+    }
+
+    /**
+     * @param namespaces prefixes followed by their uris
+     */
+    XNamespaceContext(String... namespaces) {
+        this(pairs(namespaces));
+    }
+
+    private XNamespaceContext(Map<String, String> namespaces) {
         prefixToUri.put(XMLConstants.DEFAULT_NS_PREFIX, XMLConstants.NULL_NS_URI);
         prefixToUri.put(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI);
         prefixToUri.put(XMLConstants.XMLNS_ATTRIBUTE, XMLConstants.XMLNS_ATTRIBUTE_NS_URI);
-
-        if (clazz.isAnnotationPresent(NamespaceContext.class)) {
-            NamespaceContext context = clazz.getAnnotation(NamespaceContext.class);
-            prefixToUri.putAll(
-                    stream(context.value()).collect(toMap(Namespace::prefix, Namespace::uri))
-            );
-        }
+        prefixToUri.putAll(namespaces);
 
         uriToPrefixes = prefixToUri.entrySet().stream()
                 .collect(groupingBy(Map.Entry::getValue, mapping(Map.Entry::getKey, toSet())));
     }
 
+    private static Map<String, String> pairs(String... namespaces) {
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i + 1 < namespaces.length; i += 2) {
+            if (result.put(namespaces[i], namespaces[i + 1]) != null) {
+                throw new IllegalStateException("Duplicate prefix " + namespaces[i]);
+            }
+        }
+        return result;
+    }
+
     @Override
     public String getNamespaceURI(String prefix) {
         if (prefix == null) throw new IllegalArgumentException("Given prefix is Null");
@@ -65,4 +82,16 @@ class XNamespaceContext implements javax.xml.namespace.NamespaceContext {
         if (namespaceURI == null) throw new IllegalArgumentException("Given namespaceURI is Null");
         return uriToPrefixes.getOrDefault(namespaceURI, emptySet()).iterator();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof XNamespaceContext)) return false;
+        return prefixToUri.equals(((XNamespaceContext) o).prefixToUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return prefixToUri.hashCode();
+    }
 }
@@ -1,6 +1,9 @@
 package com.pseudochaos.xpom;
 
+import com.pseudochaos.xpom.jaxp.XPathCompiler;
+
 import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
 
 /**
  * Idendity objects vs value objects - Fowler???
@@ -9,10 +12,15 @@ public class XPath {
 
     private final String xPath;
     private final NamespaceContext namespaceContext;
+    private final XPathExpression expression;
 
+    /**
+     * @throws XPomException if the given xpath can't be compiled
+     */
     public XPath(String xPath, NamespaceContext namespaceContext) {
         this.xPath = xPath;
         this.namespaceContext = namespaceContext;
+        this.expression = XPathCompiler.compile(xPath, namespaceContext);
     }
 
     public String asString() {
@@ -23,4 +31,11 @@ public class XPath {
         return namespaceContext;
     }
 
+    /**
+     * @return the expression compiled once and bound to the namespace context
+     */
+    public XPathExpression getExpression() {
+        return expression;
+    }
+
 }
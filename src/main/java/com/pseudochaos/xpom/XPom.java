@@ -1,41 +1,127 @@
 package com.pseudochaos.xpom;
 
 import com.pseudochaos.xpom.jaxp.JaxpValueExtractor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.pseudochaos.xpom.jfr.Flight;
+import com.pseudochaos.xpom.streaming.LocationPath;
+import com.pseudochaos.xpom.streaming.RecordReader;
+import org.w3c.dom.Node;
 
 import javax.xml.namespace.NamespaceContext;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.pseudochaos.ObjectUtils.newInstanceOf;
-import static java.util.Arrays.stream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 public final class XPom<T> {
 
-    private static final Logger logger = LoggerFactory.getLogger(XPom.class);
+    private static final ValueExtractor<Node> NODE_EXTRACTOR = new JaxpValueExtractor();
 
     private final Class<T> clazz;
-    private final ValueExtractor extractor;
+    private final ValueExtractor<?> extractor;
+    private volatile ValueExtractor<?> recordExtractor;
     private final Configuration configuration;
     private final Set<XField> fields;
     private final NamespaceContext namespaceContext;
+    private final Map<XField, Nested<?>> nested;
+    private final Map<XField, Converter<Object, ?>> converters; // Resolved once, for every field but nested ones
+    private final Map<XField, MethodHandle> primitiveWriters; // Convert and set values of primitive fields unboxed
+    private final MethodHandle generated; // null unless fields are populated by generated code
+    private final CompiledMapper<T> compiled; // null unless there is a mapper generated at compile time
+    private volatile XPom<T> recorded; // Reflective mapper of a compiled class, built once its fields are recorded
+
+    /**
+     * @return mapper generated for the class at compile time if there is one, reflective mapper otherwise
+     */
+    static <T> XPom<T> of(Class<T> clazz) {
+        return CompiledMapper.find(clazz).map(XPom::new).orElseGet(() -> new XPom<>(clazz));
+    }
+
+    private XPom(CompiledMapper<T> compiled) {
+        this.clazz = compiled.getType();
+        this.configuration = new Configuration(clazz);
+        this.namespaceContext = compiled.getNamespaceContext();
+        this.fields = Collections.emptySet();
+        this.nested = Collections.emptyMap();
+        this.converters = Collections.emptyMap();
+        this.primitiveWriters = Collections.emptyMap();
+        this.generated = null;
+        this.compiled = compiled;
+        this.extractor = createExtractor(EvaluationContext.DOCUMENT);
+    }
 
     XPom(Class<T> clazz) {
         this.clazz = clazz;
-        this.extractor = new JaxpValueExtractor();
         this.configuration = new Configuration(clazz);
+        this.compiled = null;
 
         this.namespaceContext = new XNamespaceContext(clazz);
-        this.fields = stream(clazz.getDeclaredFields())
+        this.fields = Arrays.stream(clazz.getDeclaredFields())
                 .filter(annotatedFields())
                 .map(field -> new XField(field, namespaceContext))
                 .collect(toSet());
+        this.nested = fields.stream()
+                .filter(XField::isNested)
+                .collect(toMap(identity(), Nested::new));
+        this.converters = fields.stream()
+                .filter(field -> !field.isNested())
+                .collect(toMap(identity(), this::resolveConverter));
+        this.primitiveWriters = new HashMap<>();
+        converters.forEach((field, converter) -> {
+            MethodHandle writer = Primitives.writer(field, converter);
+            if (writer != null) {
+                primitiveWriters.put(field, writer);
+            }
+        });
+        this.extractor = createExtractor(EvaluationContext.DOCUMENT);
+        this.generated = configuration.getMapping() == Mapping.GENERATED ?
+                MapperGenerator.generate(fields, converters, configuration).orElse(null) : null;
+    }
+
+    /**
+     * @return converter of the field; if it can't be resolved, a converter failing the same way, so the failure is
+     * reported by the exception handling strategy of the field once there is a value to convert
+     */
+    private Converter<Object, ?> resolveConverter(XField field) {
+        try {
+            return configuration.resolveConverter(field);
+        } catch (RuntimeException e) {
+            return value -> {
+                throw e;
+            };
+        }
+    }
+
+    private ValueExtractor<?> createExtractor(EvaluationContext context) {
+        ExtractionStrategy strategy = configuration.getExtractionStrategy();
+        if (compiled != null) {
+            return strategy.createExtractor(compiled.getScalars(), compiled.getCollections(), Collections.emptyList(), context);
+        }
+        return strategy.createExtractor(fields, context);
     }
 
     private Predicate<Field> annotatedFields() {
@@ -43,38 +129,265 @@ public final class XPom<T> {
     }
 
     public T using(String xml) {
-        T instance = newInstanceOf(clazz);
-        fields.stream().forEach(populateValue(instance, xml));
-        return instance;
+        return map(XmlInput.of(xml)).getValue();
+    }
+
+    /**
+     * Reads the stream as far as needed to map every field, the stream isn't closed.
+     */
+    public T using(InputStream stream) {
+        return map(XmlInput.of(stream)).getValue();
+    }
+
+    /**
+     * Reads the reader as far as needed to map every field, the reader isn't closed.
+     */
+    public T using(Reader reader) {
+        return map(XmlInput.of(reader)).getValue();
+    }
+
+    public T using(byte[] bytes, int offset, int length) {
+        return map(XmlInput.of(bytes, offset, length)).getValue();
+    }
+
+    /**
+     * Reads bytes from the position to the limit of the buffer, the position isn't changed.
+     */
+    public T using(ByteBuffer buffer) {
+        return map(XmlInput.of(buffer)).getValue();
+    }
+
+    public T using(Path path) {
+        return map(XmlInput.of(path)).getValue();
     }
 
-    private Consumer<XField> populateValue(T instance, String xml) {
-        return field -> {
-            logger.debug("Using {} exception handling strategy", configuration.getExceptionHandlingStrategy(field));
-            Optional<?> rawValue = extractValueFrom(xml, field);
-            if (rawValue.isPresent()) {
-                rawValue.map(convert(field)).ifPresent(set(field, instance));
-            } else {
-                handleValueNotPresent(field, instance);
+    /**
+     * Same as {@link #using(String)}, but also reports how much of the xml has been left unread. Streaming
+     * extraction stops reading as soon as every field is resolved, see {@link Extraction#STREAMING}.
+     */
+    public MappingResult<T> map(String xml) {
+        return map(XmlInput.of(xml));
+    }
+
+    public MappingResult<T> map(XmlInput input) {
+        return map(extractor, input);
+    }
+
+    /**
+     * Maps each element matched by the record path to an instance, lazily: the document is read only as far as
+     * the next record, and only one record is kept in memory at a time. XPaths of fields are evaluated relative to
+     * each record, e.g. {@code customer} or {@code @id} for records {@code /orders/order}, see
+     * {@link EvaluationContext#ROOT_ELEMENT}.
+     * <p>
+     * The stream should be closed if it isn't consumed completely, so the file of the input gets closed.
+     *
+     * @param recordPath simple location path of elements like {@code /orders/order} or {@code /a/b[2]/c}
+     * @throws XPomException if the record path isn't a simple location path of elements
+     */
+    public Stream<T> stream(XmlInput input, String recordPath) {
+        RecordReader records = openRecords(input, recordPath);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(records(records),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(records::close);
+    }
+
+    /**
+     * Reads the stream as far as records are consumed, the stream isn't closed.
+     */
+    public Stream<T> stream(InputStream stream, String recordPath) {
+        return stream(XmlInput.of(stream), recordPath);
+    }
+
+    public Stream<T> stream(Path path, String recordPath) {
+        return stream(XmlInput.of(path), recordPath);
+    }
+
+    /**
+     * Same as {@link #stream(XmlInput, String)}, the file of the input is closed once the last record is read.
+     */
+    public Iterator<T> iterator(XmlInput input, String recordPath) {
+        return records(openRecords(input, recordPath));
+    }
+
+    private RecordReader openRecords(XmlInput input, String recordPath) {
+        Optional<LocationPath> path = LocationPath.parse(recordPath, namespaceContext);
+        if (!path.isPresent() || path.get().getTarget() != LocationPath.Target.ELEMENT) {
+            throw new XPomException("Record path must be a simple location path of elements like /a/b: " + recordPath);
+        }
+        return new RecordReader(input, path.get());
+    }
+
+    private Iterator<T> records(RecordReader records) {
+        ValueExtractor<?> extractor = getRecordExtractor();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (records.hasNext()) {
+                        return true;
+                    }
+                } catch (RuntimeException e) {
+                    records.close();
+                    throw e;
+                }
+                records.close();
+                return false;
+            }
+
+            @Override
+            public T next() {
+                return map(extractor, XmlInput.of(records.next())).getValue();
             }
         };
     }
 
-    private Optional<?> extractValueFrom(String xml, XField field) {
+    private ValueExtractor<?> getRecordExtractor() {
+        ValueExtractor<?> result = recordExtractor;
+        if (result == null) { // Benign race, extractors are stateless
+            result = createExtractor(EvaluationContext.ROOT_ELEMENT);
+            recordExtractor = result;
+        }
+        return result;
+    }
+
+    private <D> MappingResult<T> map(ValueExtractor<D> extractor, XmlInput input) {
+        if (compiled != null && Flight.isRecordingFields()) {
+            XPom<T> reflective = getRecorded();
+            ValueExtractor<?> reflectiveExtractor = extractor == this.extractor ?
+                    reflective.extractor : reflective.getRecordExtractor();
+            return reflective.map(reflectiveExtractor, input);
+        }
+        Metrics metrics = XPomFactory.getMetrics();
+        long start = metrics != Metrics.NONE ? System.nanoTime() : 0;
+        Object parse = Flight.beginParse();
+        D document = extractor.parse(input);
+        if (parse != null) {
+            Flight.commitParse(parse, clazz, String.valueOf(configuration.getExtractionStrategy()), input.getLength(),
+                    extractor.getSkippedLength(document));
+        }
+        T instance = populate(extractor, document);
+        long skippedLength = extractor.getSkippedLength(document);
+        if (metrics != Metrics.NONE) {
+            long length = input.getLength();
+            metrics.documentMapped(clazz, length < 0 || skippedLength < 0 ? -1 : length - skippedLength,
+                    System.nanoTime() - start);
+        }
+        return new MappingResult<>(instance, skippedLength);
+    }
+
+    /**
+     * Maps a node of a parsed document, XPaths of the class are evaluated relative to it.
+     */
+    private T map(Node node) {
+        if (compiled != null && Flight.isRecordingFields()) {
+            return getRecorded().map(node);
+        }
+        return populate(NODE_EXTRACTOR, node);
+    }
+
+    /**
+     * Generated code, either at runtime or at compile time, has no room for events of fields, so fields are populated
+     * one by one while Flight Recorder records them, see {@link Flight}.
+     */
+    private XPom<T> getRecorded() {
+        XPom<T> result = recorded;
+        if (result == null) { // Benign race, mappers are stateless
+            result = new XPom<>(clazz);
+            recorded = result;
+        }
+        return result;
+    }
+
+    private <D> T populate(ValueExtractor<D> extractor, D document) {
+        if (compiled != null) {
+            return compiled.map(extractor, document);
+        }
+        T instance = newInstanceOf(clazz);
+        if (generated != null && !Flight.isRecordingFields()) {
+            populateGenerated(instance, extractor, document);
+        } else {
+            fields.stream().forEach(populateValue(instance, extractor, document, XPomFactory.getMetrics()));
+        }
+        return instance;
+    }
+
+    private void populateGenerated(T instance, ValueExtractor<?> extractor, Object document) {
+        try {
+            generated.invokeExact((Object) instance, extractor, document);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new XPomException("Failed to map " + clazz, e);
+        }
+    }
+
+    /**
+     * @return how fields are populated: {@link Mapping#COMPILED} if there is a mapper generated at compile time,
+     * {@link Mapping#REFLECTIVE} if generated code has been requested but the class can't be mapped by it
+     */
+    public Mapping getMapping() {
+        if (compiled != null) {
+            return Mapping.COMPILED;
+        }
+        return generated != null ? Mapping.GENERATED : Mapping.REFLECTIVE;
+    }
+
+    private <D> Consumer<XField> populateValue(T instance, ValueExtractor<D> extractor, D document, Metrics metrics) {
+        if (metrics != Metrics.NONE || Flight.isRecordingFields()) {
+            return field -> {
+                Object evaluate = Flight.beginEvaluate();
+                long start = System.nanoTime();
+                Optional<?> rawValue = extractValueFrom(extractor, document, field);
+                long extracted = System.nanoTime();
+                Flight.commitEvaluate(evaluate, field, rawValue);
+                metrics.valueExtracted(field, extracted - start);
+                if (!rawValue.isPresent() || nested.containsKey(field)) {
+                    populateValue(instance, field, rawValue);
+                    return;
+                }
+                Object convert = Flight.beginConvert();
+                populateValue(instance, field, rawValue);
+                Flight.commitConvert(convert, field, rawValue.get());
+                metrics.valueConverted(field, System.nanoTime() - extracted);
+            };
+        }
+        return field -> populateValue(instance, field, extractValueFrom(extractor, document, field));
+    }
+
+    private void populateValue(T instance, XField field, Optional<?> rawValue) {
+        if (!rawValue.isPresent()) {
+            handleValueNotPresent(field, instance);
+        } else if (nested.containsKey(field)) {
+            // Nested objects are mapped by their own mapper, which handles its exceptions itself
+            set(field, instance).accept(nested.get(field).map((List<Node>) rawValue.get()));
+        } else if (primitiveWriters.containsKey(field)) {
+            writePrimitive(field, instance, rawValue.get());
+        } else {
+            rawValue.map(convert(field)).ifPresent(set(field, instance));
+        }
+    }
+
+    private <D> Optional<?> extractValueFrom(ValueExtractor<D> extractor, D document, XField field) {
         Optional<?> result;
-        if (field.isCollection()) {
-            result = extractor.extractCollection(xml, field.getXPath());
+        if (nested.containsKey(field)) {
+            result = extractor.extractNodes(document, field.getXPath());
+        } else if (Primitives.parsesText(field, converters.get(field))) {
+            // Parsed from characters the document keeps anyway, no strings are created for values
+            result = field.isCollection() ?
+                    extractor.extractTexts(document, field.getXPath()) : extractor.extractText(document, field.getXPath());
+        } else if (field.isCollection()) {
+            result = extractor.extractCollection(document, field.getXPath());
         } else {
-            result = extractor.extractScalar(xml, field.getXPath());
+            result = extractor.extractScalar(document, field.getXPath());
         }
-        logger.debug("{} = {}", field, result.isPresent() ? result.get() : "NONE");
+        XPomFactory.getTracer().valueExtracted(field, result);
         return result;
     }
 
     private Function<Object, Object> convert(XField field) {
         return rawValue -> {
             try {
-                return configuration.resolveConverter(field).convert(rawValue);
+                return converters.get(field).convert(rawValue);
             } catch (Exception e) {
                 handleConversionException(field, e);
                 return null; // Will be converted to Optional.empty() by map() function
@@ -82,27 +395,77 @@ public final class XPom<T> {
         };
     }
 
+    private void writePrimitive(XField field, T instance, Object rawValue) {
+        try {
+            primitiveWriters.get(field).invokeExact((Object) instance, rawValue);
+        } catch (Exception e) {
+            handleConversionException(field, e);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new XPomException("Failed to map " + field, e);
+        }
+    }
+
     private void handleConversionException(XField field, Exception e) {
-        configuration.getExceptionHandlingStrategy(field).handleConversionException(e, field);
+        configuration.handleConversionException(field, e);
     }
 
-    private Consumer<Object> set(XField xField, T instance) {
-        return value -> {
-            Field field = xField.getJavaField();
-            field.setAccessible(true);
-            try {
-                field.set(instance, value);
-            } catch (IllegalAccessException e) {
-                throw new XPomException("Failed to set a value to the field " + xField, e);
-            }
-        };
+    private Consumer<Object> set(XField field, T instance) {
+        FieldAccessor accessor = field.getAccessor();
+        return value -> accessor.set(instance, value);
     }
 
     private void handleValueNotPresent(XField field, T instance) {
-        configuration.getExceptionHandlingStrategy(field).handleValueNotPresent(field, instance);
+        configuration.handleValueNotPresent(field, instance);
     }
 
     public NamespaceContext getNamespaceContext() {
         return namespaceContext;
     }
+
+    /**
+     * Maps nodes matched by a nested field to objects, an array or a list of them.
+     */
+    private static final class Nested<E> {
+
+        private final XField field;
+        private final Class<E> type;
+        private volatile XPom<E> mapper; // Built on first use, as a class may contain fields of its own type
+
+        Nested(XField field) {
+            Class<?> fieldType = field.getJavaField().getType();
+            if (Collection.class.isAssignableFrom(fieldType) && !fieldType.isAssignableFrom(ArrayList.class)) {
+                throw new XPomException("Nested objects can be collected into a List only: " + field);
+            }
+            this.field = field;
+            this.type = (Class<E>) field.getElementType();
+        }
+
+        Object map(List<Node> nodes) {
+            XPom<E> mapper = getMapper();
+            if (field.getJavaField().getType().isArray()) {
+                Object array = Array.newInstance(type, nodes.size());
+                for (int i = 0; i < nodes.size(); i++) {
+                    Array.set(array, i, mapper.map(nodes.get(i)));
+                }
+                return array;
+            }
+            if (field.isCollection()) {
+                List<E> list = new ArrayList<>(nodes.size());
+                nodes.forEach(node -> list.add(mapper.map(node)));
+                return list;
+            }
+            return mapper.map(nodes.get(0));
+        }
+
+        private XPom<E> getMapper() {
+            XPom<E> result = mapper;
+            if (result == null) { // Benign race, the factory hands out a single mapper of a class
+                result = XPomFactory.create(type);
+                mapper = result;
+            }
+            return result;
+        }
+    }
 }
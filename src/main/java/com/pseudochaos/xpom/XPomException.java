@@ -16,4 +16,8 @@ public class XPomException extends RuntimeException {
     public XPomException(Throwable cause) {
         super(cause);
     }
+
+    protected XPomException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
@@ -1,19 +1,29 @@
 package com.pseudochaos.xpom;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 public class XPomFactory {
 
-    private static Map<Class, XPom> mappers = new HashMap<>();
-    private static ExceptionHandling strategy = ExceptionHandling.FAIL;
+    // Kept by classes themselves, so mappers of unloaded classes are collected along with them
+    private static final ClassValue<Registration<?>> mappers = new ClassValue<Registration<?>>() {
+        @Override
+        protected Registration<?> computeValue(Class<?> clazz) {
+            return new Registration<>(clazz);
+        }
+    };
+    private static volatile ExceptionHandling strategy = ExceptionHandling.FAIL; // Read by mappers on every absent value
+    private static volatile Extraction extraction = Extraction.DOM;
+    private static volatile Mapping mapping = Mapping.REFLECTIVE;
+    private static volatile EnumMatching enumMatching = EnumMatching.EXACT;
+    private static volatile Tracer tracer = Tracer.LOGGING;
+    private static volatile Metrics metrics = Metrics.NONE;
 
+    /**
+     * @return mapper generated for the class at compile time if there is one (see {@link CompiledMapper}),
+     * reflective mapper otherwise
+     */
     public static <T> XPom<T> create(Class<T> clazz) {
-        if (!mappers.containsKey(clazz)) {
-            mappers.put(clazz, new XPom(clazz));
-        }
-        return mappers.get(clazz);
+        return ((Registration<T>) mappers.get(clazz)).get();
     }
 
     public static void setExceptionHandlingStrategy(ExceptionHandling strategy) {
@@ -23,4 +33,86 @@ public class XPomFactory {
     public static ExceptionHandling getExceptionHandlingStrategy() {
         return strategy;
     }
+
+    /**
+     * Changes the default extraction strategy for mappers created afterwards.
+     */
+    public static void setExtractionStrategy(Extraction extraction) {
+        XPomFactory.extraction = Objects.requireNonNull(extraction, "Default JVM level extraction strategy can't be null");
+    }
+
+    public static Extraction getExtractionStrategy() {
+        return extraction;
+    }
+
+    /**
+     * Changes the default mapping mode for mappers created afterwards.
+     */
+    public static void setMapping(Mapping mapping) {
+        XPomFactory.mapping = Objects.requireNonNull(mapping, "Default JVM level mapping mode can't be null");
+    }
+
+    public static Mapping getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Changes the default enum matching mode for mappers created afterwards.
+     */
+    public static void setEnumMatching(EnumMatching enumMatching) {
+        XPomFactory.enumMatching = Objects.requireNonNull(enumMatching, "Default JVM level enum matching can't be null");
+    }
+
+    public static EnumMatching getEnumMatching() {
+        return enumMatching;
+    }
+
+    /**
+     * Changes the tracer notified about fields being mapped by all mappers, {@link Tracer#LOGGING} by default.
+     */
+    public static void setTracer(Tracer tracer) {
+        XPomFactory.tracer = Objects.requireNonNull(tracer, "Tracer can't be null, use Tracer.NONE to disable tracing");
+    }
+
+    public static Tracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Changes the metrics receiving measurements of all mappers, {@link Metrics#NONE} by default.
+     */
+    public static void setMetrics(Metrics metrics) {
+        XPomFactory.metrics = Objects.requireNonNull(metrics, "Metrics can't be null, use Metrics.NONE to disable them");
+    }
+
+    public static Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Mapper of a class created on first use. Threads racing for a mapper of the same class share one registration,
+     * so the mapper is created once while the others wait for it. If creation fails, the next call tries again.
+     */
+    private static final class Registration<T> {
+
+        private final Class<T> clazz;
+        private volatile XPom<T> mapper;
+
+        private Registration(Class<T> clazz) {
+            this.clazz = clazz;
+        }
+
+        XPom<T> get() {
+            XPom<T> result = mapper;
+            if (result == null) {
+                synchronized (this) {
+                    result = mapper;
+                    if (result == null) {
+                        mapper = result = XPom.of(clazz);
+                    }
+                }
+            }
+            return result;
+        }
+    }
 }
@@ -0,0 +1,329 @@
+package com.pseudochaos.xpom;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Xml document to be mapped: either chars (a string or a reader) or bytes (an array, a buffer, a stream or a file).
+ * Bytes are decoded according to the byte order mark or the encoding declared by the document, UTF-8 by default.
+ * <p>
+ * Streams and readers are read as far as needed, but aren't closed, that's up to the caller. Files are opened and
+ * closed by the extractor.
+ */
+public abstract class XmlInput {
+
+    private XmlInput() {
+    }
+
+    public static XmlInput of(String xml) {
+        return new StringInput(Objects.requireNonNull(xml, "Xml can't be null"));
+    }
+
+    public static XmlInput of(Reader reader) {
+        return new ReaderInput(Objects.requireNonNull(reader, "Reader can't be null"));
+    }
+
+    public static XmlInput of(InputStream stream) {
+        return new StreamInput(Objects.requireNonNull(stream, "Stream can't be null"));
+    }
+
+    public static XmlInput of(byte[] bytes, int offset, int length) {
+        return new BufferInput(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * @param buffer bytes from the position to the limit of the buffer are read, the position isn't changed
+     */
+    public static XmlInput of(ByteBuffer buffer) {
+        return new BufferInput(Objects.requireNonNull(buffer, "Buffer can't be null"));
+    }
+
+    /**
+     * Streaming extraction maps the file into memory instead of reading it, see {@link Extraction#STREAMING}.
+     */
+    public static XmlInput of(Path path) {
+        return new PathInput(Objects.requireNonNull(path, "Path can't be null"));
+    }
+
+    /**
+     * @return {@code true} if the document is given as bytes, {@code false} if as chars
+     */
+    public abstract boolean isBinary();
+
+    /**
+     * @return whether the document can be read more than once
+     */
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * @return the same document which can be read more than once, read into memory if needed
+     */
+    public XmlInput toRepeatable() throws IOException {
+        return this;
+    }
+
+    /**
+     * @return chars of the document, which should be closed once read
+     * @throws IllegalStateException if the document is binary
+     */
+    public Reader openReader() throws IOException {
+        throw new IllegalStateException("Xml is given as bytes, it's read as a stream");
+    }
+
+    /**
+     * @return bytes of the document, which should be closed once read
+     * @throws IllegalStateException if the document isn't binary
+     */
+    public InputStream openStream() throws IOException {
+        throw new IllegalStateException("Xml is given as chars, it's read by a reader");
+    }
+
+    /**
+     * @return the document if it's given as a string, {@code null} otherwise
+     */
+    public String getString() {
+        return null;
+    }
+
+    /**
+     * @return bytes of the document from the position to the limit of a new buffer if they are in memory already,
+     * {@code null} otherwise
+     */
+    public ByteBuffer getBuffer() {
+        return null;
+    }
+
+    /**
+     * @return file of the document if it's given as a path, {@code null} otherwise
+     */
+    public Path getPath() {
+        return null;
+    }
+
+    /**
+     * @return length of the document: in chars for strings, in bytes for buffers and files, -1 for streams and
+     * readers as it isn't known before they are read
+     */
+    public long getLength() {
+        return -1;
+    }
+
+    private static final class StringInput extends XmlInput {
+
+        private final String xml;
+
+        StringInput(String xml) {
+            this.xml = xml;
+        }
+
+        @Override
+        public boolean isBinary() {
+            return false;
+        }
+
+        @Override
+        public Reader openReader() {
+            return new StringReader(xml);
+        }
+
+        @Override
+        public String getString() {
+            return xml;
+        }
+
+        @Override
+        public long getLength() {
+            return xml.length();
+        }
+
+        @Override
+        public String toString() {
+            return "XmlInput{string of " + xml.length() + " chars}";
+        }
+    }
+
+    private static final class ReaderInput extends XmlInput {
+
+        private final Reader reader;
+
+        ReaderInput(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean isBinary() {
+            return false;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public XmlInput toRepeatable() throws IOException {
+            StringBuilder xml = new StringBuilder();
+            char[] chunk = new char[8192];
+            for (int read = reader.read(chunk); read >= 0; read = reader.read(chunk)) {
+                xml.append(chunk, 0, read);
+            }
+            return of(xml.toString());
+        }
+
+        @Override
+        public Reader openReader() {
+            return new FilterReader(reader) {
+                @Override
+                public void close() {
+                    // Closing is up to the caller
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "XmlInput{" + reader + "}";
+        }
+    }
+
+    private static final class StreamInput extends XmlInput {
+
+        private final InputStream stream;
+
+        StreamInput(InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean isBinary() {
+            return true;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public XmlInput toRepeatable() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            for (int read = stream.read(chunk); read >= 0; read = stream.read(chunk)) {
+                bytes.write(chunk, 0, read);
+            }
+            return of(bytes.toByteArray(), 0, bytes.size());
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new FilterInputStream(stream) {
+                @Override
+                public void close() {
+                    // Closing is up to the caller
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "XmlInput{" + stream + "}";
+        }
+    }
+
+    private static final class BufferInput extends XmlInput {
+
+        private final ByteBuffer buffer;
+
+        BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer.slice();
+        }
+
+        @Override
+        public boolean isBinary() {
+            return true;
+        }
+
+        @Override
+        public InputStream openStream() {
+            ByteBuffer content = getBuffer();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return content.hasRemaining() ? content.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    if (length == 0) return 0;
+                    if (!content.hasRemaining()) return -1;
+                    int read = Math.min(length, content.remaining());
+                    content.get(bytes, offset, read);
+                    return read;
+                }
+
+                @Override
+                public int available() {
+                    return content.remaining();
+                }
+            };
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return buffer.duplicate();
+        }
+
+        @Override
+        public long getLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public String toString() {
+            return "XmlInput{buffer of " + buffer.remaining() + " bytes}";
+        }
+    }
+
+    private static final class PathInput extends XmlInput {
+
+        private final Path path;
+
+        PathInput(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public boolean isBinary() {
+            return true;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public long getLength() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "XmlInput{" + path + "}";
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.pseudochaos.xpom.annotation;
+
+import com.pseudochaos.xpom.EnumMatching;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EnumMatchingMode {
+    EnumMatching value();
+}
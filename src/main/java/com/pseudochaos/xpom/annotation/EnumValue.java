@@ -0,0 +1,15 @@
+package com.pseudochaos.xpom.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Values an enum constant is matched by in addition to its string representation, like {@code @XmlEnumValue}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EnumValue {
+    String[] value();
+}
@@ -1,40 +1,104 @@
 package com.pseudochaos.xpom.jaxp;
 
+import com.pseudochaos.xpom.EvaluationContext;
 import com.pseudochaos.xpom.ValueExtractor;
+import com.pseudochaos.xpom.XmlInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.*;
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
-public class JaxpValueExtractor implements ValueExtractor {
+public class JaxpValueExtractor implements ValueExtractor<Node> {
 
     private static final Logger logger = LoggerFactory.getLogger(JaxpValueExtractor.class);
 
+    private static final Pool<DocumentBuilder> documentBuilders =
+            new Pool<>(Pool.DEFAULT_CAPACITY, JaxpValueExtractor::newDocumentBuilder, DocumentBuilder::reset);
+
+    private static DocumentBuilder newDocumentBuilder() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return JVM wide pool of namespace aware parsers shared by all extractors
+     */
+    public static Pool<DocumentBuilder> getDocumentBuilderPool() {
+        return documentBuilders;
+    }
+
+    private final EvaluationContext context;
+
+    public JaxpValueExtractor() {
+        this(EvaluationContext.DOCUMENT);
+    }
+
+    public JaxpValueExtractor(EvaluationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the document node or the root element, depending on the evaluation context
+     */
     @Override
-    public Optional<String> extractScalar(String xml, com.pseudochaos.xpom.XPath xPath) {
-        InputSource source = new InputSource(new StringReader(xml));
-        XPath emptyXPath = XPathFactory.newInstance().newXPath();
-        emptyXPath.setNamespaceContext(xPath.getNamespaceContext());
+    public Node parse(XmlInput input) {
+        Document document = parseDocument(input);
+        return context == EvaluationContext.ROOT_ELEMENT ? document.getDocumentElement() : document;
+    }
+
+    private static Document parseDocument(XmlInput input) {
+        DocumentBuilder builder = documentBuilders.borrow();
         try {
-            XPathExpression xPathExpression = emptyXPath.compile(xPath.asString());
-            String result = xPathExpression.evaluate(source);
+            if (input.isBinary()) {
+                try (InputStream stream = input.openStream()) {
+                    return builder.parse(new InputSource(stream));
+                }
+            }
+            try (Reader reader = input.openReader()) {
+                return builder.parse(new InputSource(reader));
+            }
+        } catch (SAXException | IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            documentBuilders.release(builder);
+        }
+    }
+
+    @Override
+    public Optional<String> extractScalar(Node document, com.pseudochaos.xpom.XPath xPath) {
+        try {
+            XPathExpression xPathExpression = xPath.getExpression();
+            String result = xPathExpression.evaluate(document);
             return result.isEmpty() ? Optional.empty() : Optional.of(result);
         } catch (XPathExpressionException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    public Optional<String[]> extractCollection(String xml, com.pseudochaos.xpom.XPath xPath) {
-        InputSource source = new InputSource(new StringReader(xml));
-        XPath emptyXPath = XPathFactory.newInstance().newXPath();
-        emptyXPath.setNamespaceContext(xPath.getNamespaceContext());
+    @Override
+    public Optional<String[]> extractCollection(Node document, com.pseudochaos.xpom.XPath xPath) {
         try {
-            XPathExpression xPathExpression = emptyXPath.compile(xPath.asString());
-            NodeList nodes = (NodeList) xPathExpression.evaluate(source, XPathConstants.NODESET);
+            XPathExpression xPathExpression = xPath.getExpression();
+            NodeList nodes = (NodeList) xPathExpression.evaluate(document, XPathConstants.NODESET);
             if (nodes.getLength() > 0) {
                 String[] maybeResult = new String[nodes.getLength()];
                 for (int i = 0; i < nodes.getLength(); i++) {
@@ -48,4 +112,21 @@ public class JaxpValueExtractor implements ValueExtractor {
             throw new IllegalStateException(e);
         }
     }
+
+    @Override
+    public Optional<List<Node>> extractNodes(Node document, com.pseudochaos.xpom.XPath xPath) {
+        try {
+            NodeList nodes = (NodeList) xPath.getExpression().evaluate(document, XPathConstants.NODESET);
+            if (nodes.getLength() == 0) {
+                return Optional.empty();
+            }
+            List<Node> result = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                result.add(nodes.item(i));
+            }
+            return Optional.of(result);
+        } catch (XPathExpressionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.pseudochaos.xpom.jaxp;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of objects which aren't thread-safe (parsers, XPath evaluators, compiled expressions).
+ * <p>
+ * Borrowing never blocks: when the pool is empty a new object is created (a miss), and when a returned object
+ * doesn't fit into the pool it's simply dropped. So no thread ever waits on a monitor, which keeps the pool friendly
+ * to a large number of concurrent (virtual) threads, while the number of retained objects stays bounded.
+ */
+public final class Pool<T> {
+
+    public static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile int capacity;
+
+    /**
+     * @param factory creates a new object when the pool is empty
+     * @param reset   brings an object to its initial state before it's returned to the pool
+     */
+    public Pool(int capacity, Supplier<T> factory, Consumer<T> reset) {
+        this.factory = Objects.requireNonNull(factory, "Factory can't be null");
+        this.reset = Objects.requireNonNull(reset, "Reset action can't be null");
+        setCapacity(capacity);
+    }
+
+    public T borrow() {
+        T item = idle.poll();
+        if (item != null) {
+            idleCount.decrementAndGet();
+            hits.increment();
+            return item;
+        }
+        misses.increment();
+        return factory.get();
+    }
+
+    public void release(T item) {
+        reset.accept(item);
+        if (idleCount.incrementAndGet() <= capacity) {
+            idle.offer(item);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the maximum number of idle objects retained by the pool. Objects above the new capacity are dropped
+     * as soon as they're released.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Pool capacity can't be negative: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return number of objects currently available for borrowing
+     */
+    public int getSize() {
+        return idleCount.get();
+    }
+
+    /**
+     * @return number of times a pooled object was reused
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of times a new object had to be created because the pool was empty
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool[size=%d, capacity=%d, hits=%d, misses=%d]", getSize(), capacity, getHits(), getMisses());
+    }
+}
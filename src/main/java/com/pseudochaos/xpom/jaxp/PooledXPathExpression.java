@@ -0,0 +1,64 @@
+package com.pseudochaos.xpom.jaxp;
+
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+
+/**
+ * Thread-safe compiled expression. JAXP doesn't guarantee that an {@link XPathExpression} can be evaluated by several
+ * threads at the same time, so every evaluation borrows an exclusive compiled instance from a pool.
+ */
+final class PooledXPathExpression implements XPathExpression {
+
+    private final Pool<XPathExpression> compiled;
+
+    PooledXPathExpression(Pool<XPathExpression> compiled) {
+        this.compiled = compiled;
+    }
+
+    Pool<XPathExpression> getPool() {
+        return compiled;
+    }
+
+    @Override
+    public Object evaluate(Object item, QName returnType) throws XPathExpressionException {
+        XPathExpression expression = compiled.borrow();
+        try {
+            return expression.evaluate(item, returnType);
+        } finally {
+            compiled.release(expression);
+        }
+    }
+
+    @Override
+    public String evaluate(Object item) throws XPathExpressionException {
+        XPathExpression expression = compiled.borrow();
+        try {
+            return expression.evaluate(item);
+        } finally {
+            compiled.release(expression);
+        }
+    }
+
+    @Override
+    public Object evaluate(InputSource source, QName returnType) throws XPathExpressionException {
+        XPathExpression expression = compiled.borrow();
+        try {
+            return expression.evaluate(source, returnType);
+        } finally {
+            compiled.release(expression);
+        }
+    }
+
+    @Override
+    public String evaluate(InputSource source) throws XPathExpressionException {
+        XPathExpression expression = compiled.borrow();
+        try {
+            return expression.evaluate(source);
+        } finally {
+            compiled.release(expression);
+        }
+    }
+}
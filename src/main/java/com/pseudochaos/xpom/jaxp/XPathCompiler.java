@@ -0,0 +1,82 @@
+package com.pseudochaos.xpom.jaxp;
+
+import com.pseudochaos.xpom.XPomException;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFactoryConfigurationException;
+
+import static java.lang.String.format;
+
+/**
+ * Compiles XPath expressions of mappers. Nothing is cached here: every {@link com.pseudochaos.xpom.XPath} compiles its
+ * expression once, when the mapper is created, and the mapper holds it, so expressions and namespace contexts are
+ * collected along with the mapper of an unloaded class.
+ * <p>
+ * Returned expressions are thread-safe: each of them is backed by a pool of compiled instances, and new instances
+ * are compiled by {@link XPath} evaluators taken from a shared pool. The {@link XPathFactory} implementation is looked
+ * up once, when the compiler is loaded, so mappers don't depend on the context class loader of the thread which
+ * happens to compile an expression. Factories aren't thread-safe, so every thread creates its own instance of it.
+ */
+public final class XPathCompiler {
+
+    private static final Class<? extends XPathFactory> factoryClass = XPathFactory.newInstance().getClass();
+    private static final ThreadLocal<XPathFactory> xPathFactories = ThreadLocal.withInitial(XPathCompiler::newFactory);
+    private static final Pool<XPath> xPaths =
+            new Pool<>(Pool.DEFAULT_CAPACITY, () -> xPathFactories.get().newXPath(), XPath::reset);
+
+    private XPathCompiler() {}
+
+    private static XPathFactory newFactory() {
+        ClassLoader classLoader = factoryClass.getClassLoader(); // null for the factory of the JDK
+        try {
+            return XPathFactory.newInstance(XPathFactory.DEFAULT_OBJECT_MODEL_URI, factoryClass.getName(),
+                    classLoader == null ? XPathCompiler.class.getClassLoader() : classLoader);
+        } catch (XPathFactoryConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @throws XPomException if the expression can't be compiled
+     */
+    public static XPathExpression compile(String expression, NamespaceContext namespaceContext) {
+        Pool<XPathExpression> compiled = new Pool<>(Pool.DEFAULT_CAPACITY,
+                () -> compileOnce(expression, namespaceContext), compiledExpression -> {});
+        compiled.release(compileOnce(expression, namespaceContext)); // Fail fast on invalid expressions
+        return new PooledXPathExpression(compiled);
+    }
+
+    private static XPathExpression compileOnce(String expression, NamespaceContext namespaceContext) {
+        XPath xPath = xPaths.borrow();
+        try {
+            xPath.setNamespaceContext(namespaceContext);
+            return xPath.compile(expression);
+        } catch (XPathExpressionException e) {
+            throw new XPomException(format("Failed to compile XPath expression: %s", expression), e);
+        } finally {
+            xPaths.release(xPath);
+        }
+    }
+
+    /**
+     * @return pool of {@link XPath} evaluators used for compilation of expressions
+     */
+    public static Pool<XPath> getXPathPool() {
+        return xPaths;
+    }
+
+    /**
+     * @return pool of compiled instances backing the given expression
+     * @throws IllegalArgumentException if the expression wasn't compiled by this compiler
+     */
+    public static Pool<XPathExpression> getExpressionPool(XPathExpression expression) {
+        if (!(expression instanceof PooledXPathExpression)) {
+            throw new IllegalArgumentException("Expression isn't compiled by the compiler: " + expression);
+        }
+        return ((PooledXPathExpression) expression).getPool();
+    }
+}
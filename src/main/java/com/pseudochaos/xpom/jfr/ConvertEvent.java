@@ -0,0 +1,34 @@
+package com.pseudochaos.xpom.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.pseudochaos.xpom.Convert")
+@Label("Field Convert")
+@Category("XPom")
+@Description("Conversion of a value of a field and setting it, including handling of a failed conversion")
+@StackTrace(false)
+@Threshold("10 us")
+final class ConvertEvent extends Event {
+
+    @Label("Mapped Class")
+    Class<?> mappedClass;
+
+    @Label("Field")
+    String field;
+
+    @Label("XPath")
+    String xPath;
+
+    @Label("Field Type")
+    String fieldType;
+
+    @Label("Value Length")
+    @Description("Chars of the converted value, number of values for collections")
+    long valueLength;
+}
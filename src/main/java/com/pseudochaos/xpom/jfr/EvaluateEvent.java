@@ -0,0 +1,34 @@
+package com.pseudochaos.xpom.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.pseudochaos.xpom.Evaluate")
+@Label("Field Evaluate")
+@Category("XPom")
+@Description("Evaluation of the XPath of a field against a parsed document")
+@StackTrace(false)
+@Threshold("10 us")
+final class EvaluateEvent extends Event {
+
+    @Label("Mapped Class")
+    Class<?> mappedClass;
+
+    @Label("Field")
+    String field;
+
+    @Label("XPath")
+    String xPath;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Value Length")
+    @Description("Chars of the value found, number of values for collections, -1 if no value has been found")
+    long valueLength;
+}
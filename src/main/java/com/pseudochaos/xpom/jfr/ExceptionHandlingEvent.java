@@ -0,0 +1,33 @@
+package com.pseudochaos.xpom.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.pseudochaos.xpom.ExceptionHandling")
+@Label("Exception Handling")
+@Category("XPom")
+@Description("An exception handling strategy invoked for an absent value or a failed conversion of a field")
+final class ExceptionHandlingEvent extends Event {
+
+    @Label("Mapped Class")
+    Class<?> mappedClass;
+
+    @Label("Field")
+    String field;
+
+    @Label("XPath")
+    String xPath;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Cause")
+    @Description("VALUE_NOT_PRESENT or CONVERSION_FAILED")
+    String cause;
+
+    @Label("Message")
+    String message;
+}
@@ -0,0 +1,171 @@
+package com.pseudochaos.xpom.jfr;
+
+import com.pseudochaos.xpom.ExceptionHandlingStrategy;
+import com.pseudochaos.xpom.XField;
+import jdk.jfr.EventType;
+
+import java.util.Optional;
+
+/**
+ * Emits events of mapping documents to JDK Flight Recorder, so a recording attributes time of mappers to documents
+ * and {@code @XPath} fields without a profiler attached. Events are in the {@code XPom} category:
+ * <ul>
+ * <li>{@code com.pseudochaos.xpom.Parse}: parsing of a document</li>
+ * <li>{@code com.pseudochaos.xpom.Evaluate}: evaluation of the XPath of a field, over 10 us by default</li>
+ * <li>{@code com.pseudochaos.xpom.Convert}: conversion of a value of a field, over 10 us by default</li>
+ * <li>{@code com.pseudochaos.xpom.ExceptionHandling}: an exception handling strategy invoked</li>
+ * </ul>
+ * Generated code has no events of fields, so while a recording has {@code Evaluate} or {@code Convert} events enabled,
+ * mappers of {@link com.pseudochaos.xpom.Mapping#GENERATED} and {@link com.pseudochaos.xpom.Mapping#COMPILED} mapping
+ * populate fields one by one, as reflective mappers do, and the recording attributes their time to fields as well.
+ * <p>
+ * Nothing is emitted if the JVM has no Flight Recorder. Events begun are passed around as plain objects, so callers
+ * don't load event classes then; {@code null} stands for an event which isn't recorded.
+ */
+public final class Flight {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private Flight() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return jdk.jfr.FlightRecorder.isAvailable();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return whether fields are worth measuring one by one, as a recording is running with their events enabled
+     */
+    public static boolean isRecordingFields() {
+        return AVAILABLE && FieldEvents.isEnabled();
+    }
+
+    public static Object beginParse() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public static void commitParse(Object parse, Class<?> mappedClass, String extraction, long inputLength,
+                                   long skippedLength) {
+        if (parse == null) {
+            return;
+        }
+        ParseEvent event = (ParseEvent) parse;
+        event.end();
+        if (event.shouldCommit()) {
+            event.mappedClass = mappedClass;
+            event.extraction = extraction;
+            event.inputLength = inputLength;
+            event.skippedLength = skippedLength;
+            event.commit();
+        }
+    }
+
+    public static Object beginEvaluate() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        EvaluateEvent event = new EvaluateEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public static void commitEvaluate(Object evaluate, XField field, Optional<?> value) {
+        if (evaluate == null) {
+            return;
+        }
+        EvaluateEvent event = (EvaluateEvent) evaluate;
+        event.end();
+        if (event.shouldCommit()) {
+            event.mappedClass = field.getJavaField().getDeclaringClass();
+            event.field = field.getJavaField().getName();
+            event.xPath = field.getXPath().asString();
+            event.found = value.isPresent();
+            event.valueLength = value.isPresent() ? lengthOf(value.get()) : -1;
+            event.commit();
+        }
+    }
+
+    public static Object beginConvert() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        ConvertEvent event = new ConvertEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public static void commitConvert(Object convert, XField field, Object value) {
+        if (convert == null) {
+            return;
+        }
+        ConvertEvent event = (ConvertEvent) convert;
+        event.end();
+        if (event.shouldCommit()) {
+            event.mappedClass = field.getJavaField().getDeclaringClass();
+            event.field = field.getJavaField().getName();
+            event.xPath = field.getXPath().asString();
+            event.fieldType = field.getTypeString();
+            event.valueLength = lengthOf(value);
+            event.commit();
+        }
+    }
+
+    public static void exceptionHandling(XField field, ExceptionHandlingStrategy strategy, Exception e) {
+        if (!AVAILABLE) {
+            return;
+        }
+        ExceptionHandlingEvent event = new ExceptionHandlingEvent();
+        if (event.shouldCommit()) {
+            event.mappedClass = field.getJavaField().getDeclaringClass();
+            event.field = field.getJavaField().getName();
+            event.xPath = field.getXPath().asString();
+            event.strategy = String.valueOf(strategy);
+            event.cause = e == null ? "VALUE_NOT_PRESENT" : "CONVERSION_FAILED";
+            event.message = e == null ? null : e.toString();
+            event.commit();
+        }
+    }
+
+    private static long lengthOf(Object value) {
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        } else if (value instanceof Object[]) {
+            return ((Object[]) value).length;
+        } else if (value instanceof java.util.Collection) {
+            return ((java.util.Collection<?>) value).size();
+        }
+        return -1;
+    }
+
+    /**
+     * Loaded once Flight Recorder is known to be available.
+     */
+    private static final class FieldEvents {
+
+        private static final EventType EVALUATE = EventType.getEventType(EvaluateEvent.class);
+        private static final EventType CONVERT = EventType.getEventType(ConvertEvent.class);
+
+        static boolean isEnabled() {
+            return EVALUATE.isEnabled() || CONVERT.isEnabled();
+        }
+    }
+}
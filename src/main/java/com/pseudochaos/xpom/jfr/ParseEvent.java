@@ -0,0 +1,29 @@
+package com.pseudochaos.xpom.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.pseudochaos.xpom.Parse")
+@Label("Document Parse")
+@Category("XPom")
+@Description("Parsing of a document by the value extractor of a mapper, before fields are populated")
+final class ParseEvent extends Event {
+
+    @Label("Mapped Class")
+    Class<?> mappedClass;
+
+    @Label("Extraction")
+    @Description("Extraction strategy of the mapper, e.g. DOM or STREAMING")
+    String extraction;
+
+    @Label("Input Length")
+    @Description("Length of the input in bytes for binary input, in chars for strings, -1 for streams and readers")
+    long inputLength;
+
+    @Label("Skipped Length")
+    @Description("Length of the tail of the input left unread, once every field has been resolved")
+    long skippedLength;
+}
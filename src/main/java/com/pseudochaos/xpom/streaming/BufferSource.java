@@ -0,0 +1,58 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.XmlInput;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bytes of a document which are in memory already, read in place.
+ */
+final class BufferSource extends ByteSource {
+
+    private final ByteBuffer buffer;
+    private final byte[] array;   // backing array of a heap buffer, read directly
+    private final int arrayOffset;
+    private final int length;
+
+    /**
+     * @param buffer the document from the index 0 to the limit
+     */
+    BufferSource(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.array = buffer.hasArray() ? buffer.array() : null;
+        this.arrayOffset = buffer.hasArray() ? buffer.arrayOffset() : 0;
+        this.length = buffer.limit();
+    }
+
+    @Override
+    int at(int offset) {
+        if (offset >= length) {
+            return EOF;
+        }
+        return (array != null ? array[arrayOffset + offset] : buffer.get(offset)) & 0xFF;
+    }
+
+    @Override
+    int indexOf(int unit, int from) {
+        int offset = from;
+        if (array != null) {
+            while (offset < length && array[arrayOffset + offset] != unit) offset++;
+        } else {
+            while (offset < length && buffer.get(offset) != unit) offset++;
+        }
+        return Math.min(offset, length);
+    }
+
+    @Override
+    long remaining(int offset) {
+        return length - offset;
+    }
+
+    @Override
+    Source replay() throws IOException {
+        return new StreamSource(XmlInput.of(buffer).openStream());
+    }
+}
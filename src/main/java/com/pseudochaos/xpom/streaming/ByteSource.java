@@ -0,0 +1,127 @@
+package com.pseudochaos.xpom.streaming;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Bytes of a document in an encoding compatible with ASCII, i.e. where bytes of ASCII characters never appear as a
+ * part of other characters. Markup is found by comparing raw bytes, only ranges of values are decoded.
+ */
+abstract class ByteSource extends XmlSource {
+
+    private static final Pattern ASCII_COMPATIBLE =
+            Pattern.compile("(?i)utf-?8|(us-)?ascii|iso[-_]?8859[-_][0-9]+|latin-?1|(windows|cp)-?125[0-8]");
+
+    private Charset charset = StandardCharsets.UTF_8;
+    private int begin;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Detects encoding of the document by its byte order mark and encoding declaration, UTF-8 by default.
+     *
+     * @return {@code false} if the encoding isn't compatible with ASCII, so the document can't be scanned by bytes
+     */
+    boolean detectEncoding() {
+        int first = at(0), second = at(1);
+        if (first == 0xEF && second == 0xBB && at(2) == 0xBF) {
+            begin = 3;
+        } else if (first == 0xFE || first == 0xFF || first == 0x00 || second == 0x00 || first == 0x4C && second == 0x6F) {
+            return false; // UTF-16 or UTF-32 with or without a byte order mark, EBCDIC
+        }
+        String encoding = declaredEncoding();
+        if (encoding == null) {
+            return true;
+        }
+        try {
+            if (!ASCII_COMPATIBLE.matcher(encoding).matches() || !Charset.isSupported(encoding)) {
+                return false;
+            }
+        } catch (IllegalCharsetNameException e) {
+            return false;
+        }
+        charset = Charset.forName(encoding);
+        return begin == 0 || charset.equals(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return value of the encoding pseudo-attribute of the xml declaration, {@code null} if there is none
+     */
+    private String declaredEncoding() {
+        int offset = begin;
+        if (!matches(offset, offset + 5, "<?xml") || !isWhitespace(at(offset + 5))) {
+            return null;
+        }
+        int end = indexOf('>', offset);
+        for (offset += 6; offset + 8 < end; offset++) {
+            if (matches(offset, offset + 8, "encoding") && isWhitespace(at(offset - 1))) {
+                offset += 8;
+                while (isWhitespace(at(offset))) offset++;
+                if (at(offset++) != '=') return null;
+                while (isWhitespace(at(offset))) offset++;
+                int quote = at(offset++);
+                if (quote != '"' && quote != '\'') return null;
+                int start = offset;
+                while (offset < end && at(offset) != quote) offset++;
+                return offset < end ? decode(start, offset) : null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWhitespace(int unit) {
+        return unit == ' ' || unit == '\t' || unit == '\n' || unit == '\r';
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    int begin() {
+        return begin;
+    }
+
+    @Override
+    void decode(int start, int end, StringBuilder destination) {
+        for (int offset = start; offset < end; offset++) {
+            int unit = at(offset);
+            if (unit >= 0x80) {
+                decodeCharacters(offset, end, destination);
+                return;
+            }
+            destination.append((char) unit);
+        }
+    }
+
+    private void decodeCharacters(int start, int end, StringBuilder destination) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = (byte) at(start + i);
+        }
+        destination.append(new String(scratch, 0, length, charset));
+    }
+
+    @Override
+    boolean matches(int start, int end, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) >= 0x80) {
+                return super.matches(start, end, string);
+            }
+        }
+        if (end - start != string.length()) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (at(start + i) != string.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+/**
+ * Bytes of a document read from a stream into a window, which holds bytes from the last released offset on.
+ */
+final class ByteStreamSource extends ByteSource {
+
+    private static final int REBASE_THRESHOLD = 1 << 30;
+
+    private final InputStream stream;
+    private byte[] window = new byte[8192];
+    private int base;      // offset of the first byte in the window, negative once renumbered
+    private int limit;     // number of bytes in the window
+    private int released;
+    private boolean eof;
+
+    ByteStreamSource(InputStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    int at(int offset) {
+        int index = offset - base;
+        if (index < limit || fill(offset)) {
+            return window[offset - base] & 0xFF;
+        }
+        return EOF;
+    }
+
+    @Override
+    int indexOf(int unit, int from) {
+        int offset = from;
+        while (true) {
+            for (int index = offset - base; index < limit; index++) {
+                if (window[index] == unit) {
+                    return base + index;
+                }
+            }
+            offset = Math.max(offset, base + limit);
+            if (!fill(offset)) {
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * @return whether the byte at the given offset has been read
+     */
+    private boolean fill(int offset) {
+        try {
+            while (offset - base >= limit) {
+                if (eof) {
+                    return false;
+                }
+                if (limit == window.length) {
+                    int discarded = released - base;
+                    if (discarded > window.length / 2) {
+                        System.arraycopy(window, discarded, window, 0, limit - discarded);
+                        base = released;
+                        limit -= discarded;
+                    } else {
+                        window = Arrays.copyOf(window, window.length * 2);
+                    }
+                }
+                int read = stream.read(window, limit, window.length - limit);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    int release(int offset) {
+        if (offset < REBASE_THRESHOLD) {
+            released = offset;
+            return offset;
+        }
+        base -= offset; // Renumber from the released offset on, so offsets never overflow
+        released = 0;
+        return 0;
+    }
+
+    @Override
+    long remaining(int offset) {
+        return eof ? base + limit - offset : -1;
+    }
+
+    @Override
+    Source replay() {
+        return new StreamSource(new SequenceInputStream(new ByteArrayInputStream(window, 0, limit), stream));
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
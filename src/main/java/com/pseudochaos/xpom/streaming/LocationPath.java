@@ -0,0 +1,163 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Absolute location path which can be evaluated in a single pass over xml events:
+ * <pre>
+ *     /a/b/c          - elements
+ *     /a/b[2]/c       - positional predicates
+ *     /a/*, /a/ns:*   - wildcards
+ *     /a/b/@attr      - attributes, including @* and @ns:*
+ *     /a/b/text()     - text nodes
+ * </pre>
+ * Any other XPath (axes, functions, non-positional predicates, //, etc.) is not streamable.
+ */
+public final class LocationPath {
+
+    public enum Target { ELEMENT, ATTRIBUTE, TEXT }
+
+    private final String expression;
+    private final List<NameTest> steps;
+    private final Target target;
+    private final NameTest attribute;
+
+    private LocationPath(String expression, List<NameTest> steps, Target target, NameTest attribute) {
+        this.expression = expression;
+        this.steps = Collections.unmodifiableList(steps);
+        this.target = target;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return parsed location path or empty optional if the expression is not streamable
+     */
+    public static Optional<LocationPath> parse(String expression, NamespaceContext namespaceContext) {
+        if (!expression.startsWith("/") || expression.endsWith("/")) {
+            return Optional.empty();
+        }
+        String[] tokens = expression.substring(1).split("/", -1);
+        List<NameTest> steps = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            boolean last = i == tokens.length - 1;
+            if (last && !steps.isEmpty() && token.equals("text()")) {
+                return Optional.of(new LocationPath(expression, steps, Target.TEXT, null));
+            }
+            if (last && !steps.isEmpty() && token.startsWith("@")) {
+                NameTest attribute = NameTest.parse(token.substring(1), 0, namespaceContext, true);
+                return attribute == null ? Optional.empty() :
+                        Optional.of(new LocationPath(expression, steps, Target.ATTRIBUTE, attribute));
+            }
+            NameTest step = parseStep(token, namespaceContext);
+            if (step == null) {
+                return Optional.empty();
+            }
+            steps.add(step);
+        }
+        return Optional.of(new LocationPath(expression, steps, Target.ELEMENT, null));
+    }
+
+    private static NameTest parseStep(String token, NamespaceContext namespaceContext) {
+        int position = 0;
+        int predicate = token.indexOf('[');
+        if (predicate >= 0) {
+            if (!token.endsWith("]")) return null;
+            String digits = token.substring(predicate + 1, token.length() - 1);
+            if (digits.isEmpty() || digits.length() > 9 || !digits.chars().allMatch(Character::isDigit)) return null;
+            position = Integer.parseInt(digits);
+            if (position == 0) return null;
+            token = token.substring(0, predicate);
+        }
+        return NameTest.parse(token, position, namespaceContext, false);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public List<NameTest> getSteps() {
+        return steps;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    /**
+     * @return name test of the attribute for {@link Target#ATTRIBUTE} paths, {@code null} otherwise
+     */
+    public NameTest getAttribute() {
+        return attribute;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Name test with an optional positional predicate. Unprefixed names match names without a namespace, as
+     * required by XPath 1.0.
+     */
+    public static final class NameTest {
+
+        private final String namespaceUri; // null matches any namespace
+        private final String localName;    // null matches any local name
+        private final int position;        // 0 means no positional predicate
+
+        NameTest(String namespaceUri, String localName, int position) {
+            this.namespaceUri = namespaceUri;
+            this.localName = localName;
+            this.position = position;
+        }
+
+        static NameTest parse(String qName, int position, NamespaceContext namespaceContext, boolean attribute) {
+            if (qName.equals("*")) {
+                return new NameTest(null, null, position);
+            }
+            int colon = qName.indexOf(':');
+            String prefix = colon < 0 ? XMLConstants.DEFAULT_NS_PREFIX : qName.substring(0, colon);
+            String localName = colon < 0 ? qName : qName.substring(colon + 1);
+            if (colon >= 0 && !isNCName(prefix)) return null;
+            if (!localName.equals("*") && !isNCName(localName)) return null;
+            String namespaceUri = colon < 0 ? XMLConstants.NULL_NS_URI : namespaceContext.getNamespaceURI(prefix);
+            if (attribute && XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceUri)) return null;
+            return new NameTest(namespaceUri == null ? XMLConstants.NULL_NS_URI : namespaceUri,
+                    localName.equals("*") ? null : localName, position);
+        }
+
+        private static boolean isNCName(String name) {
+            if (name.isEmpty()) return false;
+            char first = name.charAt(0);
+            if (!Character.isLetter(first) && first != '_') return false;
+            for (int i = 1; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '_') return false;
+            }
+            return true;
+        }
+
+        public boolean matches(String namespaceUri, String localName) {
+            return (this.localName == null || this.localName.equals(localName))
+                    && (this.namespaceUri == null || this.namespaceUri.equals(namespaceUri));
+        }
+
+        public String getNamespaceUri() {
+            return namespaceUri;
+        }
+
+        public String getLocalName() {
+            return localName;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Bytes of a file mapped into memory region by region, so the file is read by the OS page cache and no part of it
+ * is copied to the heap, except ranges of values. Each region starts at the last released offset, so a region has
+ * to hold only the markup (or the value) being read at the moment, and files of any size can be read.
+ */
+final class MappedFileSource extends ByteSource {
+
+    static final int REGION_SIZE = 1 << 28;
+    private static final int REBASE_THRESHOLD = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int regionSize;
+    private final int rebaseThreshold;
+
+    private long origin;          // position in the file of the offset 0
+    private int released;
+    private MappedByteBuffer region;
+    private long regionStart;     // position in the file of the first byte of the region
+    private int regionLength;
+
+    MappedFileSource(FileChannel channel) throws IOException {
+        this(channel, REGION_SIZE, REBASE_THRESHOLD);
+    }
+
+    MappedFileSource(FileChannel channel, int regionSize, int rebaseThreshold) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.regionSize = regionSize;
+        this.rebaseThreshold = rebaseThreshold;
+    }
+
+    @Override
+    int at(int offset) {
+        long position = origin + offset;
+        long index = position - regionStart;
+        if (index >= 0 && index < regionLength) {
+            return region.get((int) index) & 0xFF;
+        }
+        if (position >= size) {
+            return EOF;
+        }
+        map(position);
+        return region.get((int) (position - regionStart)) & 0xFF;
+    }
+
+    @Override
+    int indexOf(int unit, int from) {
+        int offset = from;
+        while (true) {
+            long index = origin + offset - regionStart;
+            if (index >= 0 && index < regionLength) {
+                for (int i = (int) index; i < regionLength; i++) {
+                    if (region.get(i) == unit) {
+                        return (int) (regionStart + i - origin);
+                    }
+                }
+                offset = (int) Math.max(offset, regionStart + regionLength - origin);
+            }
+            if (at(offset) == EOF) {
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * Maps a region from the last released offset up to and beyond the given position.
+     */
+    private void map(long position) {
+        long start = Math.min(origin + released, position);
+        long length = Math.min(size - start, Math.max(regionSize, position - start + 1));
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Value or markup at " + start + " is larger than 2 GB");
+        }
+        try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        regionStart = start;
+        regionLength = (int) length;
+    }
+
+    @Override
+    int release(int offset) {
+        if (offset < rebaseThreshold) {
+            released = offset;
+            return offset;
+        }
+        origin += offset; // Renumber from the released offset on, so offsets never overflow
+        released = 0;
+        return 0;
+    }
+
+    @Override
+    long remaining(int offset) {
+        return size - origin - offset;
+    }
+
+    @Override
+    Source replay() throws IOException {
+        return new StreamSource(Channels.newInputStream(channel.position(0)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
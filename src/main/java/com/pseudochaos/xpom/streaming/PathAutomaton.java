@@ -0,0 +1,439 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.streaming.LocationPath.NameTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Location paths of a mapper merged into a single trie: paths sharing a prefix share the states matching that
+ * prefix, so every element of a document is matched once against the union of all paths instead of once per path.
+ * <p>
+ * The automaton itself is immutable and can be shared between threads, matching state of a particular document is
+ * kept in a {@link Run}. A run knows when no path can match anything else in the rest of the document, so reading
+ * of the document can be stopped early.
+ */
+final class PathAutomaton {
+
+    private final State root = new State(null, -1);
+    private final int paths;
+    private final boolean[] scalars;
+    private final State[][] chains; // states a path passes through and which it is pending for, see State#pending
+    private int counters; // number of states with positional predicates
+    private int states = 1;
+
+    PathAutomaton(List<LocationPath> paths, List<Boolean> scalars) {
+        this.paths = paths.size();
+        this.scalars = new boolean[paths.size()];
+        this.chains = new State[paths.size()][];
+        for (int i = 0; i < paths.size(); i++) {
+            this.scalars[i] = scalars.get(i);
+            add(i, paths.get(i));
+        }
+    }
+
+    private void add(int path, LocationPath locationPath) {
+        List<NameTest> steps = locationPath.getSteps();
+        // Attributes are read when the element starts, so a path isn't pending inside the element it selects
+        // attributes of
+        int length = locationPath.getTarget() == LocationPath.Target.ATTRIBUTE ? steps.size() : steps.size() + 1;
+        State[] chain = chains[path] = new State[length];
+        State state = root;
+        for (int i = 0; i <= steps.size(); i++) {
+            if (i > 0) {
+                state = state.child(steps.get(i - 1));
+            }
+            if (i < chain.length) {
+                chain[i] = state;
+                state.pending = append(state.pending, path);
+            }
+        }
+        switch (locationPath.getTarget()) {
+            case ELEMENT:
+                state.elementTargets = append(state.elementTargets, path);
+                break;
+            case TEXT:
+                state.textTargets = append(state.textTargets, path);
+                break;
+            case ATTRIBUTE:
+                state.attributeTargets = append(state.attributeTargets, path);
+                state.attributeTests = Arrays.copyOf(state.attributeTests, state.attributeTests.length + 1);
+                state.attributeTests[state.attributeTests.length - 1] = locationPath.getAttribute();
+                break;
+        }
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+
+    /**
+     * @return number of states in the automaton excluding the initial one
+     */
+    int size() {
+        return states - 1;
+    }
+
+    Run start() {
+        return new Run();
+    }
+
+    /**
+     * State reached after matching a step. Exact name tests are indexed by local name, wildcards are checked one by
+     * one.
+     */
+    private final class State {
+
+        private final NameTest test;
+        private final int counter; // index of the sibling counter for positional predicates, -1 without predicate
+        private final Map<String, State[]> children = new HashMap<>();
+        private State[] wildcardChildren = new State[0];
+
+        private int[] elementTargets = new int[0];
+        private int[] textTargets = new int[0];
+        private int[] attributeTargets = new int[0];
+        private NameTest[] attributeTests = new NameTest[0];
+        private int[] pending = new int[0]; // paths which can still be matched inside an element matching the state
+
+        State(NameTest test, int counter) {
+            this.test = test;
+            this.counter = counter;
+        }
+
+        State child(NameTest step) {
+            State[] candidates = step.getLocalName() == null
+                    ? wildcardChildren
+                    : children.getOrDefault(step.getLocalName(), new State[0]);
+            for (State candidate : candidates) {
+                if (Objects.equals(candidate.test.getNamespaceUri(), step.getNamespaceUri())
+                        && Objects.equals(candidate.test.getLocalName(), step.getLocalName())
+                        && candidate.test.getPosition() == step.getPosition()) {
+                    return candidate;
+                }
+            }
+            State child = new State(step, step.getPosition() == 0 ? -1 : counters++);
+            states++;
+            State[] extended = Arrays.copyOf(candidates, candidates.length + 1);
+            extended[candidates.length] = child;
+            if (step.getLocalName() == null) {
+                wildcardChildren = extended;
+            } else {
+                children.put(step.getLocalName(), extended);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Attributes of the current start element.
+     */
+    interface Attributes {
+        int getAttributeCount();
+        String getAttributeNamespace(int index);
+        String getAttributeLocalName(int index);
+        String getAttributeValue(int index);
+    }
+
+    /**
+     * Matching of the automaton against a single document. Open elements are represented by frames of states they
+     * matched, so matching a new element only checks children of the states in the top frame.
+     */
+    final class Run implements XmlHandler {
+
+        private final List<CharSequence>[] values = new List[paths];
+        private final boolean[] done = new boolean[paths];
+
+        private int depth;                                 // number of open elements
+        private State[][] frames = new State[8][];         // states matched by open elements, frame 0 - document
+        private int[] frameSizes = new int[8];
+        private int[][] frameCounters = new int[8][];      // sibling counters of children of open elements
+        private int[] framePending = new int[8];           // number of not yet matched paths pending in the frame
+        private int alive;                                 // number of frames with pending paths
+
+        private int elements;                              // number of elements capturing their string value
+        private int[] elementDepths = new int[4];
+        private int[][] elementPaths = new int[4][];
+        private StringBuilder[] elementTexts = new StringBuilder[4];
+
+        private int texts;                                 // number of elements capturing their text nodes
+        private int[] textDepths = new int[4];
+        private int[][] textPaths = new int[4][];
+        private StringBuilder textNode;                    // text node of the top capturing element
+
+        private Run() {
+            for (int i = 0; i < paths; i++) {
+                values[i] = new ArrayList<>(scalars[i] ? 1 : 10);
+            }
+            frames[0] = new State[]{root};
+            frameSizes[0] = 1;
+            frameCounters[0] = new int[counters];
+            framePending[0] = root.pending.length;
+            alive = framePending[0] > 0 ? 1 : 0;
+        }
+
+        /**
+         * @return {@code true} if every scalar path has got its value and no path can match anything else in the
+         * rest of the document
+         */
+        @Override
+        public boolean isComplete() {
+            return alive == 0;
+        }
+
+        /**
+         * @return {@code false} if neither the element nor any of its descendants are matched by any path, so the
+         * whole subtree can be skipped. In that case no other event should be reported until the element is over,
+         * including its end.
+         */
+        @Override
+        public boolean startElement(String namespaceUri, String localName, Attributes attributes) {
+            breakText();
+            if (depth == 0) {
+                retire(0); // There is only one root element in a document
+            }
+            int parent = depth;
+            State[] matched = frame(parent + 1);
+            int size = 0;
+            int[] counters = frameCounters[parent];
+            for (int i = 0; i < frameSizes[parent]; i++) {
+                State state = frames[parent][i];
+                State[] candidates = state.children.get(localName);
+                if (candidates != null) {
+                    for (State candidate : candidates) {
+                        if (candidate.test.matches(namespaceUri, localName) && position(candidate, counters)) {
+                            matched = push(matched, size++, candidate);
+                        }
+                    }
+                }
+                for (State candidate : state.wildcardChildren) {
+                    if (candidate.test.matches(namespaceUri, localName) && position(candidate, counters)) {
+                        matched = push(matched, size++, candidate);
+                    }
+                }
+            }
+            depth++;
+            frameSizes[depth] = size;
+            Arrays.fill(frameCounters[depth], 0);
+            framePending[depth] = 0;
+            for (int i = 0; i < size; i++) {
+                for (int path : matched[i].pending) {
+                    if (!done[path]) framePending[depth]++;
+                }
+            }
+            if (framePending[depth] > 0) alive++;
+            int[] capturedElement = null, capturedText = null;
+            for (int i = 0; i < size; i++) {
+                State state = matched[i];
+                capturedElement = pending(capturedElement, state.elementTargets);
+                capturedText = pending(capturedText, state.textTargets);
+                if (state.attributeTargets.length > 0) {
+                    attributes(state, attributes);
+                }
+            }
+            if (capturedElement != null) {
+                captureElement(capturedElement);
+            }
+            if (capturedText != null) {
+                captureText(capturedText);
+            }
+            boolean interesting = framePending[depth] > 0 || elements > 0;
+            if (!interesting) {
+                retire(depth);
+                depth--;
+            }
+            return interesting;
+        }
+
+        /**
+         * Cheap check made before attributes of an element are read: {@code true} means that no path can match
+         * the element with the given local name or any of its descendants, so the element can be skipped without
+         * reporting it. Sibling counters aren't affected as no state can match the element.
+         */
+        @Override
+        public boolean isIgnorable(String localName) {
+            if (elements > 0) {
+                return false;
+            }
+            for (int i = 0; i < frameSizes[depth]; i++) {
+                State state = frames[depth][i];
+                if (state.wildcardChildren.length > 0 || state.children.containsKey(localName)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return whether text of the current element is a part of any value, otherwise it needn't be decoded
+         */
+        @Override
+        public boolean isCapturingText() {
+            return elements > 0 || texts > 0 && textDepths[texts - 1] == depth;
+        }
+
+        private State[] frame(int depth) {
+            if (depth == frames.length) {
+                frames = Arrays.copyOf(frames, depth * 2);
+                frameSizes = Arrays.copyOf(frameSizes, depth * 2);
+                frameCounters = Arrays.copyOf(frameCounters, depth * 2);
+                framePending = Arrays.copyOf(framePending, depth * 2);
+            }
+            if (frames[depth] == null) {
+                frames[depth] = new State[4];
+                frameCounters[depth] = new int[counters];
+            }
+            return frames[depth];
+        }
+
+        private State[] push(State[] frame, int index, State state) {
+            if (index == frame.length) {
+                frame = frames[depth + 1] = Arrays.copyOf(frame, index * 2);
+            }
+            frame[index] = state;
+            return frame;
+        }
+
+        private boolean position(State state, int[] counters) {
+            return state.counter < 0 || ++counters[state.counter] == state.test.getPosition();
+        }
+
+        private int[] pending(int[] pending, int[] targets) {
+            for (int path : targets) {
+                if (!done[path]) {
+                    pending = pending == null ? new int[]{path} : append(pending, path);
+                }
+            }
+            return pending;
+        }
+
+        private void attributes(State state, Attributes attributes) {
+            for (int i = 0; i < attributes.getAttributeCount(); i++) {
+                for (int j = 0; j < state.attributeTargets.length; j++) {
+                    int path = state.attributeTargets[j];
+                    if (!done[path] && state.attributeTests[j].matches(attributes.getAttributeNamespace(i),
+                            attributes.getAttributeLocalName(i))) {
+                        add(path, attributes.getAttributeValue(i));
+                    }
+                }
+            }
+        }
+
+        private void captureElement(int[] paths) {
+            if (elements == elementDepths.length) {
+                elementDepths = Arrays.copyOf(elementDepths, elements * 2);
+                elementPaths = Arrays.copyOf(elementPaths, elements * 2);
+                elementTexts = Arrays.copyOf(elementTexts, elements * 2);
+            }
+            elementDepths[elements] = depth;
+            elementPaths[elements] = paths;
+            elementTexts[elements] = new StringBuilder();
+            elements++;
+        }
+
+        private void captureText(int[] paths) {
+            if (texts == textDepths.length) {
+                textDepths = Arrays.copyOf(textDepths, texts * 2);
+                textPaths = Arrays.copyOf(textPaths, texts * 2);
+            }
+            textDepths[texts] = depth;
+            textPaths[texts] = paths;
+            texts++;
+        }
+
+        @Override
+        public void endElement() {
+            breakText();
+            if (texts > 0 && textDepths[texts - 1] == depth) {
+                texts--;
+            }
+            while (elements > 0 && elementDepths[elements - 1] == depth) {
+                elements--;
+                CharSequence text = elementTexts[elements]; // Not appended to anymore
+                for (int path : elementPaths[elements]) {
+                    add(path, text);
+                }
+                elementTexts[elements] = null;
+            }
+            retire(depth);
+            depth--;
+        }
+
+        private void retire(int frame) {
+            if (framePending[frame] > 0) {
+                framePending[frame] = 0;
+                alive--;
+            }
+        }
+
+        void text(char[] characters, int start, int length) {
+            for (int i = 0; i < elements; i++) {
+                elementTexts[i].append(characters, start, length);
+            }
+            if (texts > 0 && textDepths[texts - 1] == depth) {
+                if (textNode == null) textNode = new StringBuilder();
+                textNode.append(characters, start, length);
+            }
+        }
+
+        @Override
+        public void text(CharSequence characters) {
+            for (int i = 0; i < elements; i++) {
+                elementTexts[i].append(characters);
+            }
+            if (texts > 0 && textDepths[texts - 1] == depth) {
+                if (textNode == null) textNode = new StringBuilder();
+                textNode.append(characters);
+            }
+        }
+
+        /**
+         * Ends the current text node, i.e. when a comment or a processing instruction is met.
+         */
+        @Override
+        public void breakText() {
+            if (textNode != null) {
+                CharSequence text = textNode;
+                textNode = null;
+                for (int path : textPaths[texts - 1]) {
+                    add(path, text);
+                }
+            }
+        }
+
+        private void add(int path, CharSequence value) {
+            if (!done[path]) {
+                values[path].add(value);
+                if (scalars[path]) {
+                    done[path] = true;
+                    resolved(path);
+                }
+            }
+        }
+
+        private void resolved(int path) {
+            State[] chain = chains[path];
+            for (int frame = 0; frame <= depth && frame < chain.length; frame++) {
+                if (framePending[frame] > 0 && contains(frame, chain[frame]) && --framePending[frame] == 0) {
+                    alive--;
+                }
+            }
+        }
+
+        private boolean contains(int frame, State state) {
+            for (int i = 0; i < frameSizes[frame]; i++) {
+                if (frames[frame][i] == state) return true;
+            }
+            return false;
+        }
+
+        List<CharSequence>[] getValues() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Chars of a document read from a reader into a window, which holds chars from the last released offset on.
+ */
+final class ReaderSource extends XmlSource {
+
+    private static final int REBASE_THRESHOLD = 1 << 30;
+
+    private final Reader reader;
+    private char[] window = new char[8192];
+    private int base;      // offset of the first char in the window, negative once renumbered
+    private int limit;     // number of chars in the window
+    private int released;
+    private boolean eof;
+
+    ReaderSource(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    int at(int offset) {
+        int index = offset - base;
+        if (index < limit || fill(offset)) {
+            return window[offset - base];
+        }
+        return EOF;
+    }
+
+    @Override
+    int begin() {
+        return at(0) == '\uFEFF' ? 1 : 0;
+    }
+
+    @Override
+    int indexOf(int unit, int from) {
+        int offset = from;
+        while (true) {
+            for (int index = offset - base; index < limit; index++) {
+                if (window[index] == unit) {
+                    return base + index;
+                }
+            }
+            offset = Math.max(offset, base + limit);
+            if (!fill(offset)) {
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * @return whether the char at the given offset has been read
+     */
+    private boolean fill(int offset) {
+        try {
+            while (offset - base >= limit) {
+                if (eof) {
+                    return false;
+                }
+                if (limit == window.length) {
+                    int discarded = released - base;
+                    if (discarded > window.length / 2) {
+                        System.arraycopy(window, discarded, window, 0, limit - discarded);
+                        base = released;
+                        limit -= discarded;
+                    } else {
+                        window = Arrays.copyOf(window, window.length * 2);
+                    }
+                }
+                int read = reader.read(window, limit, window.length - limit);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    void decode(int start, int end, StringBuilder destination) {
+        destination.append(window, start - base, end - start);
+    }
+
+    @Override
+    int release(int offset) {
+        if (offset < REBASE_THRESHOLD) {
+            released = offset;
+            return offset;
+        }
+        base -= offset; // Renumber from the released offset on, so offsets never overflow
+        released = 0;
+        return 0;
+    }
+
+    @Override
+    long remaining(int offset) {
+        return eof ? base + limit - offset : -1;
+    }
+
+    @Override
+    Source replay() {
+        return new StreamSource(new Reader() {
+            private final Reader buffered = new CharArrayReader(window, 0, limit);
+            private boolean buffer = true;
+
+            @Override
+            public int read(char[] chars, int offset, int length) throws IOException {
+                if (buffer) {
+                    int read = buffered.read(chars, offset, length);
+                    if (read >= 0) return read;
+                    buffer = false;
+                }
+                return reader.read(chars, offset, length);
+            }
+
+            @Override
+            public void close() {
+                // Closing is up to the owner of the reader
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
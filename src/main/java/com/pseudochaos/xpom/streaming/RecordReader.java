@@ -0,0 +1,164 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.XmlInput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads records of a document, i.e. elements matched by an element location path, one at a time. Each record is
+ * returned as a well-formed document on its own, with namespaces declared by its ancestors declared on it. The
+ * document is read by {@link XmlScanner} only as far as the next record, and everything but records is skipped
+ * without being decoded, so only one record is in memory at a time.
+ * <p>
+ * Documents with a DOCTYPE or bytes in an encoding not compatible with ASCII aren't supported.
+ */
+public final class RecordReader implements Iterator<String>, Closeable {
+
+    private final XmlSource source;
+    private final XmlScanner scanner;
+    private final RecordHandler handler;
+    private boolean finished;
+
+    /**
+     * @param path location path of records, which has to select elements
+     * @throws IllegalArgumentException if the path selects attributes or text
+     */
+    public RecordReader(XmlInput input, LocationPath path) {
+        if (path.getTarget() != LocationPath.Target.ELEMENT) {
+            throw new IllegalArgumentException("Records must be elements: " + path);
+        }
+        try {
+            this.source = XmlSource.of(input);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!source.detectEncoding()) {
+            closeQuietly();
+            throw new IllegalStateException("Records can't be read from bytes in an encoding not compatible with ASCII");
+        }
+        this.scanner = new XmlScanner(source);
+        this.handler = new RecordHandler(path.getSteps());
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (handler.record == null && !finished) {
+            if (!scanner.scan(handler)) {
+                throw new IllegalStateException("Records can't be read from a document with a DOCTYPE");
+            }
+            finished = handler.record == null;
+        }
+        return handler.record != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String record = handler.record;
+        handler.record = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        try {
+            source.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            source.close();
+        } catch (IOException ignored) {
+            // The input is unusable anyway
+        }
+    }
+
+    /**
+     * Matches elements against steps of the record path, and captures markup of elements matching the last step.
+     * Elements which can't be records or their ancestors are skipped.
+     */
+    private static final class RecordHandler implements XmlHandler {
+
+        private final LocationPath.NameTest[] steps;
+        private final int[] positions;  // number of elements matched by each step among children of its context
+        private int depth;              // open elements, each of them is matched by the step at its level
+        private boolean capturing;
+        private String record;
+
+        RecordHandler(List<LocationPath.NameTest> steps) {
+            this.steps = steps.toArray(new LocationPath.NameTest[steps.size()]);
+            this.positions = new int[steps.size()];
+        }
+
+        @Override
+        public boolean isIgnorable(String localName) {
+            String expected = steps[depth].getLocalName();
+            return expected != null && !expected.equals(localName);
+        }
+
+        @Override
+        public boolean startElement(String namespaceUri, String localName, PathAutomaton.Attributes attributes) {
+            capturing = false;
+            if (!steps[depth].matches(namespaceUri, localName)) {
+                return false;
+            }
+            int position = ++positions[depth];
+            if (steps[depth].getPosition() != 0 && steps[depth].getPosition() != position) {
+                return false;
+            }
+            if (depth == steps.length - 1) {
+                capturing = true;
+                return false;
+            }
+            depth++;
+            Arrays.fill(positions, depth, positions.length, 0);
+            return true;
+        }
+
+        @Override
+        public void endElement() {
+            depth--;
+        }
+
+        @Override
+        public boolean isCapturingText() {
+            return false;
+        }
+
+        @Override
+        public void text(CharSequence characters) {
+        }
+
+        @Override
+        public void breakText() {
+        }
+
+        @Override
+        public boolean isCapturingMarkup() {
+            return capturing;
+        }
+
+        @Override
+        public void markup(String element) {
+            record = element;
+        }
+
+        /**
+         * @return whether a record is waiting to be taken, scanning is suspended until then
+         */
+        @Override
+        public boolean isComplete() {
+            return record != null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.pseudochaos.xpom.streaming;
+
+import org.w3c.dom.Node;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Result of a single streaming pass over a document: values matched by every streamable path of a mapper, plus
+ * the DOM for expressions which aren't streamable. The DOM is built only if such an expression is evaluated.
+ */
+public final class StreamingDocument {
+
+    private final List<CharSequence>[] values; // Captured text isn't turned into strings unless it's needed
+    private final long skippedLength;
+    private final Supplier<Node> fallback;
+    private Node dom;
+
+    StreamingDocument(List<CharSequence>[] values, long skippedLength, Supplier<Node> fallback) {
+        this.values = values;
+        this.skippedLength = skippedLength;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return length of the tail of the document which hasn't been read because no path could match anything there,
+     * 0 once DOM has been built as it reads the whole document
+     */
+    long getSkippedLength() {
+        return dom == null ? skippedLength : 0;
+    }
+
+    List<CharSequence> getValues(int path) {
+        return values[path];
+    }
+
+    Node getDom() {
+        if (dom == null) {
+            dom = fallback.get();
+        }
+        return dom;
+    }
+}
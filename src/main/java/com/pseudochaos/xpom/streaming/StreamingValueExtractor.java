@@ -0,0 +1,325 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.EvaluationContext;
+import com.pseudochaos.xpom.ValueExtractor;
+import com.pseudochaos.xpom.XPath;
+import com.pseudochaos.xpom.XmlInput;
+import com.pseudochaos.xpom.jaxp.JaxpValueExtractor;
+import com.pseudochaos.xpom.jaxp.Pool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Evaluates all streamable XPaths of a mapper in a single pass over the document, no DOM is built. XPaths which
+ * aren't streamable (see {@link LocationPath}) are evaluated by {@link JaxpValueExtractor} against DOM, which is
+ * built on demand from the same xml.
+ * <p>
+ * The document is read by {@link XmlScanner}, which skips subtrees no path can match without tokenizing them. Bytes
+ * are scanned as they are if their encoding is compatible with ASCII (UTF-8, ISO-8859-*, etc.), and streams are read
+ * only as far as needed. Files are mapped into memory, so only ranges of values are copied to the heap. Documents
+ * with a DOCTYPE or in other encodings are read by StAX parser instead.
+ * <p>
+ * Streamable paths are merged into a {@link PathAutomaton}, so prefixes shared by several paths are matched once,
+ * and subtrees which can't be matched by any path are passed over without matching. Reading stops as soon as every
+ * scalar path has got its value and no collection path can match anything else, the rest of the document is neither
+ * read nor checked for well-formedness. The length of the skipped tail is reported by {@link #getSkippedLength}.
+ * <p>
+ * XPaths are registered upfront either as scalars (only the first matching node is of interest) or as collections
+ * (all matching nodes) and must be extracted the same way.
+ */
+public class StreamingValueExtractor implements ValueExtractor<StreamingDocument> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingValueExtractor.class);
+
+    private static final Pool<XMLInputFactory> inputFactories =
+            new Pool<>(Pool.DEFAULT_CAPACITY, XMLInputFactory::newInstance, factory -> {});
+
+    private final JaxpValueExtractor fallback;
+    private final Map<XPath, Integer> index = new IdentityHashMap<>();
+    private final List<LocationPath> paths = new ArrayList<>();
+    private final List<Boolean> scalars = new ArrayList<>();
+    private final PathAutomaton automaton;
+    private boolean notStreamable;
+
+    public StreamingValueExtractor(Collection<XPath> scalars, Collection<XPath> collections) {
+        this(scalars, collections, Collections.emptyList(), EvaluationContext.DOCUMENT);
+    }
+
+    /**
+     * @param nested XPaths of nested fields, see {@link #extractNodes}
+     * @param context if it's the root element, relative XPaths are matched from the root element on
+     */
+    public StreamingValueExtractor(Collection<XPath> scalars, Collection<XPath> collections, Collection<XPath> nested,
+                                   EvaluationContext context) {
+        this.fallback = new JaxpValueExtractor(context);
+        this.notStreamable = !nested.isEmpty();
+        scalars.forEach(xPath -> register(xPath, true, context));
+        collections.forEach(xPath -> register(xPath, false, context));
+        this.automaton = new PathAutomaton(paths, this.scalars);
+    }
+
+    private void register(XPath xPath, boolean scalar, EvaluationContext context) {
+        String expression = context == EvaluationContext.ROOT_ELEMENT ? fromRoot(xPath.asString()) : xPath.asString();
+        Optional<LocationPath> path = LocationPath.parse(expression, xPath.getNamespaceContext());
+        if (path.isPresent()) {
+            index.put(xPath, paths.size());
+            paths.add(path.get());
+            scalars.add(scalar);
+        } else {
+            notStreamable = true;
+            logger.debug("XPath {} isn't streamable and will be evaluated against DOM", xPath.asString());
+        }
+    }
+
+    /**
+     * @return the same path starting from the document node, if it's relative to the root element
+     */
+    private static String fromRoot(String expression) {
+        if (expression.equals(".")) {
+            return "/*";
+        }
+        if (expression.startsWith("./")) {
+            return "/*" + expression.substring(1);
+        }
+        return expression.startsWith("/") ? expression : "/*/" + expression;
+    }
+
+    /**
+     * @return whether the given XPath is evaluated during the streaming pass
+     */
+    public boolean isStreamable(XPath xPath) {
+        return index.containsKey(xPath);
+    }
+
+    @Override
+    public StreamingDocument parse(XmlInput input) {
+        try {
+            PathAutomaton.Run run = automaton.start();
+            // DOM is built from the same input, so a stream needed for both has to be kept in memory
+            boolean keep = !paths.isEmpty() && notStreamable && !input.isRepeatable();
+            XmlInput document = keep ? input.toRepeatable() : input;
+            long skipped = paths.isEmpty() ? 0 : scan(document, run);
+            return new StreamingDocument(run.getValues(), skipped, () -> fallback.parse(document));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the input by {@link XmlScanner} if the scanner supports it, by StAX parser otherwise.
+     *
+     * @return number of units left unread after the run has been completed, -1 if it's unknown
+     */
+    private static long scan(XmlInput input, PathAutomaton.Run run) throws IOException {
+        try (XmlSource source = XmlSource.of(input)) {
+            if (source.detectEncoding()) {
+                XmlScanner scanner = new XmlScanner(source);
+                if (scanner.scan(run)) {
+                    return scanner.getSkippedLength();
+                }
+            }
+            logger.debug("Document has a DOCTYPE or an encoding not compatible with ASCII, it's read by StAX parser");
+            return stream(source.replay(), input.getString(), run);
+        }
+    }
+
+    /**
+     * @param xml the document if it's a string, {@code null} otherwise
+     * @return number of chars left unread after the run has been completed, -1 if it's unknown
+     */
+    private static long stream(Source source, String xml, PathAutomaton.Run run) {
+        XMLInputFactory factory = inputFactories.borrow();
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(source);
+            StaxAttributes attributes = new StaxAttributes(reader);
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String namespace = namespaceOf(reader.getNamespaceURI());
+                        if (!run.startElement(namespace, reader.getLocalName(), attributes)) {
+                            skipElement(reader);
+                        }
+                        if (run.isComplete()) {
+                            return xml == null ? -1 : remaining(xml, reader);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        run.endElement();
+                        if (run.isComplete()) {
+                            return xml == null ? -1 : remaining(xml, reader);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        run.text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        run.breakText();
+                        break;
+                }
+            }
+            return 0;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            close(reader);
+            inputFactories.release(factory);
+        }
+    }
+
+    /**
+     * Character offset reported by the JDK reader drifts once its buffer is refilled, so the offset right after
+     * the current event is restored from its line and column, which are tracked precisely.
+     */
+    private static long remaining(String xml, XMLStreamReader reader) {
+        Location location = reader.getLocation();
+        if (location.getLineNumber() < 1 || location.getColumnNumber() < 1) {
+            return 0;
+        }
+        int offset = 0;
+        for (int line = 1; line < location.getLineNumber() && offset < xml.length(); offset++) {
+            char c = xml.charAt(offset);
+            if (c == '\n' || c == '\r' && (offset + 1 == xml.length() || xml.charAt(offset + 1) != '\n')) {
+                line++;
+            }
+        }
+        return Math.max(0, xml.length() - offset - (location.getColumnNumber() - 1));
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                logger.debug("Failed to close xml stream reader", e);
+            }
+        }
+    }
+
+    @Override
+    public long getSkippedLength(StreamingDocument document) {
+        return document.getSkippedLength();
+    }
+
+    @Override
+    public Optional<String> extractScalar(StreamingDocument document, XPath xPath) {
+        Integer path = index.get(xPath);
+        if (path == null) {
+            return fallback.extractScalar(document.getDom(), xPath);
+        }
+        return extractText(document, xPath).map(CharSequence::toString);
+    }
+
+    /**
+     * @return text as it's been captured, without creating a string
+     */
+    @Override
+    public Optional<CharSequence> extractText(StreamingDocument document, XPath xPath) {
+        Integer path = index.get(xPath);
+        if (path == null) {
+            return ValueExtractor.super.extractText(document, xPath);
+        }
+        List<CharSequence> values = document.getValues(path);
+        return values.isEmpty() || values.get(0).length() == 0 ? Optional.empty() : Optional.of(values.get(0));
+    }
+
+    @Override
+    public Optional<String[]> extractCollection(StreamingDocument document, XPath xPath) {
+        Integer path = index.get(xPath);
+        if (path == null) {
+            return fallback.extractCollection(document.getDom(), xPath);
+        }
+        List<CharSequence> values = document.getValues(path);
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+        String[] result = new String[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i).toString();
+        }
+        return Optional.of(result);
+    }
+
+    @Override
+    public Optional<CharSequence[]> extractTexts(StreamingDocument document, XPath xPath) {
+        Integer path = index.get(xPath);
+        if (path == null) {
+            return ValueExtractor.super.extractTexts(document, xPath);
+        }
+        List<CharSequence> values = document.getValues(path);
+        return values.isEmpty() ? Optional.empty() : Optional.of(values.toArray(new CharSequence[values.size()]));
+    }
+
+    /**
+     * Nested fields are evaluated against DOM, as their XPaths need a context node each.
+     */
+    @Override
+    public Optional<List<Node>> extractNodes(StreamingDocument document, XPath xPath) {
+        return fallback.extractNodes(document.getDom(), xPath);
+    }
+
+    private static String namespaceOf(String namespaceUri) {
+        return namespaceUri == null ? XMLConstants.NULL_NS_URI : namespaceUri;
+    }
+
+    private static final class StaxAttributes implements PathAutomaton.Attributes {
+
+        private final XMLStreamReader reader;
+
+        StaxAttributes(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int getAttributeCount() {
+            return reader.getAttributeCount();
+        }
+
+        @Override
+        public String getAttributeNamespace(int index) {
+            return namespaceOf(reader.getAttributeNamespace(index));
+        }
+
+        @Override
+        public String getAttributeLocalName(int index) {
+            return reader.getAttributeLocalName(index);
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            return reader.getAttributeValue(index);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+
+/**
+ * Chars of a string.
+ */
+final class StringSource extends XmlSource {
+
+    private final String xml;
+
+    StringSource(String xml) {
+        this.xml = xml;
+    }
+
+    @Override
+    int at(int offset) {
+        return offset < xml.length() ? xml.charAt(offset) : EOF;
+    }
+
+    @Override
+    int begin() {
+        return !xml.isEmpty() && xml.charAt(0) == '\uFEFF' ? 1 : 0;
+    }
+
+    @Override
+    int indexOf(int unit, int from) {
+        int offset = xml.indexOf(unit, from);
+        return offset < 0 ? xml.length() : offset;
+    }
+
+    @Override
+    boolean matches(int start, int end, String string) {
+        return end - start == string.length() && xml.regionMatches(start, string, 0, string.length());
+    }
+
+    @Override
+    void decode(int start, int end, StringBuilder destination) {
+        destination.append(xml, start, end);
+    }
+
+    @Override
+    String decode(int start, int end) {
+        return xml.substring(start, end);
+    }
+
+    @Override
+    long remaining(int offset) {
+        return xml.length() - offset;
+    }
+
+    @Override
+    Source replay() {
+        return new StreamSource(new StringReader(xml));
+    }
+}
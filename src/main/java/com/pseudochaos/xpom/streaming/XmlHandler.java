@@ -0,0 +1,54 @@
+package com.pseudochaos.xpom.streaming;
+
+/**
+ * Receives a document from {@link XmlScanner}. Besides events, the handler tells the scanner what it's interested
+ * in, so the scanner can pass over the rest without decoding it.
+ */
+interface XmlHandler {
+
+    /**
+     * @return {@code true} if neither the element with the given local name nor its descendants are of interest,
+     * it's skipped without being reported then
+     */
+    boolean isIgnorable(String localName);
+
+    /**
+     * @return {@code false} if neither the element nor its descendants are of interest, the element is skipped
+     * without being reported any further then, including its end
+     */
+    boolean startElement(String namespaceUri, String localName, PathAutomaton.Attributes attributes);
+
+    void endElement();
+
+    /**
+     * @return whether text of the current element is of interest, otherwise it isn't decoded
+     */
+    boolean isCapturingText();
+
+    void text(CharSequence characters);
+
+    /**
+     * Ends the current text node, i.e. when a comment or a processing instruction is met.
+     */
+    void breakText();
+
+    /**
+     * @return whether an element just refused by {@link #startElement} should be passed to {@link #markup} as a
+     * whole instead of being skipped
+     */
+    default boolean isCapturingMarkup() {
+        return false;
+    }
+
+    /**
+     * Receives markup of an element, which is a well-formed document on its own: namespaces declared by its
+     * ancestors are declared on it as well.
+     */
+    default void markup(String element) {
+    }
+
+    /**
+     * @return whether scanning should stop at this point
+     */
+    boolean isComplete();
+}
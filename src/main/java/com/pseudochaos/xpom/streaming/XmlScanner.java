@@ -0,0 +1,659 @@
+package com.pseudochaos.xpom.streaming;
+
+import javax.xml.XMLConstants;
+import java.util.Arrays;
+
+/**
+ * Minimal non-validating xml scanner feeding an {@link XmlHandler} straight from an {@link XmlSource}.
+ * <p>
+ * Elements which no path can match are skipped by counting tags over raw units: no names, attributes, entities or
+ * text of a skipped subtree are decoded, the subtree is checked only for being closed. Elements are skipped either
+ * by their local name before their attributes are read (see {@link XmlHandler#isIgnorable}), or when the handler
+ * reports no interest in them. Text is decoded only while the handler captures it, and attribute values only when
+ * the handler asks for them.
+ * <p>
+ * Markup, text and attribute values which are read are checked for well-formedness: names, unique attributes,
+ * characters allowed by XML 1.0 (raw and referenced) and no {@code ]]>} in text. Entities declared in a DTD aren't
+ * supported, so documents with a DOCTYPE are left to a full parser.
+ */
+final class XmlScanner {
+
+    private static final boolean[] NAME_START_CHARS = new boolean[128]; // ASCII characters allowed to start a name
+    private static final boolean[] NAME_CHARS = new boolean[128];       // ASCII characters allowed in a name
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            NAME_START_CHARS[c] = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == ':';
+            NAME_CHARS[c] = NAME_START_CHARS[c] || c >= '0' && c <= '9' || c == '-' || c == '.';
+        }
+    }
+
+    private final XmlSource source;
+    private int position;
+
+    private String[] elements = new String[16];   // qualified names of open elements
+    private int[] bindingMarks = new int[16];     // number of namespace bindings before each open element
+    private int depth;
+    private boolean started;                      // whether the prolog has been read
+    private boolean rootStarted;
+
+    private String[] prefixes = new String[8];
+    private String[] uris = new String[8];
+    private int bindings;
+
+    private final RawAttributes attributes = new RawAttributes();
+    private boolean selfClosing;                  // whether the last read start tag is an empty element tag
+    private int colon;                            // position of the colon in the last read name, -1 if none
+
+    private final StringBuilder text = new StringBuilder();
+    private int[] names = new int[2 * 4];           // start and end of names of the attributes of the current tag
+    private int tagAttributes;
+
+    XmlScanner(XmlSource source) {
+        this.source = source;
+        this.position = source.begin();
+    }
+
+    /**
+     * Reports the document to the handler until it's over or the handler is complete. Scanning can be continued by
+     * another call once the handler isn't complete anymore.
+     *
+     * @return {@code false} if the document has a DOCTYPE, nothing is reported to the handler in that case
+     * @throws IllegalStateException if the document is malformed
+     */
+    boolean scan(XmlHandler handler) {
+        if (!started) {
+            if (!prolog()) {
+                return false;
+            }
+            started = true;
+        }
+        while (!rootStarted || depth > 0) {
+            position = source.release(position);
+            int c = source.at(position);
+            if (c == '<') {
+                int next = source.at(position + 1);
+                if (next == '/') {
+                    endTag(handler);
+                } else if (next == '!') {
+                    if (startsWith("<!--")) {
+                        skipPast("-->");
+                        handler.breakText();
+                    } else if (startsWith("<![CDATA[")) {
+                        cdata(handler);
+                    } else {
+                        throw malformed("Unexpected markup");
+                    }
+                } else if (next == '?') {
+                    skipPast("?>");
+                    handler.breakText();
+                } else {
+                    startTag(handler);
+                    rootStarted = true;
+                }
+                if (handler.isComplete()) {
+                    return true;
+                }
+            } else if (c == XmlSource.EOF) {
+                throw malformed("Element " + elements[depth - 1] + " isn't closed");
+            } else {
+                text(handler);
+            }
+        }
+        epilog();
+        return true;
+    }
+
+    /**
+     * @return number of units left unread, 0 unless the run has been completed before the end of the document
+     */
+    long getSkippedLength() {
+        return source.remaining(position);
+    }
+
+    private boolean prolog() {
+        while (true) {
+            skipWhitespace();
+            if (source.at(position) != '<') {
+                throw malformed(source.at(position) == XmlSource.EOF ? "No root element" : "Content isn't allowed in prolog");
+            }
+            if (source.at(position + 1) == '?') {
+                skipPast("?>");
+            } else if (startsWith("<!--")) {
+                skipPast("-->");
+            } else if (startsWith("<!DOCTYPE")) {
+                return false;
+            } else if (source.at(position + 1) == '/' || source.at(position + 1) == '!') {
+                throw malformed("Root element expected");
+            } else {
+                return true;
+            }
+        }
+    }
+
+    private void epilog() {
+        while (true) {
+            skipWhitespace();
+            if (source.at(position) == XmlSource.EOF) {
+                return;
+            }
+            if (startsWith("<?")) {
+                skipPast("?>");
+            } else if (startsWith("<!--")) {
+                skipPast("-->");
+            } else {
+                throw malformed("Content isn't allowed after the root element");
+            }
+        }
+    }
+
+    private void startTag(XmlHandler handler) {
+        int tagStart = position;
+        int nameStart = ++position;
+        int nameEnd = name();
+        int nameColon = colon;
+        String localName = source.decode(nameColon < 0 ? nameStart : nameColon + 1, nameEnd);
+        if (depth > 0 && handler.isIgnorable(localName)) {
+            handler.breakText(); // A child element ends the current text node anyway
+            if (!skipTag()) {
+                skipSubtree();
+            }
+            return;
+        }
+        int mark = bindings;
+        readAttributes();
+        String namespaceUri = resolve(nameColon < 0 ? XMLConstants.DEFAULT_NS_PREFIX : source.decode(nameStart, nameColon));
+        if (!handler.startElement(namespaceUri, localName, attributes)) {
+            if (handler.isCapturingMarkup()) {
+                handler.markup(markup(tagStart, nameEnd, mark));
+            } else if (!selfClosing) {
+                skipSubtree();
+            }
+            bindings = mark;
+        } else if (selfClosing) {
+            handler.endElement();
+            bindings = mark;
+        } else {
+            if (depth == elements.length) {
+                elements = Arrays.copyOf(elements, depth * 2);
+                bindingMarks = Arrays.copyOf(bindingMarks, depth * 2);
+            }
+            elements[depth] = nameColon < 0 ? localName : source.decode(nameStart, nameEnd);
+            bindingMarks[depth] = mark;
+            depth++;
+        }
+    }
+
+    /**
+     * Reads the rest of the element whose start tag has just been read, and declares namespaces bound by its
+     * ancestors on it.
+     */
+    private String markup(int tagStart, int nameEnd, int mark) {
+        if (!selfClosing) {
+            skipSubtree(false);
+        }
+        StringBuilder markup = new StringBuilder(position - tagStart + 64);
+        source.decode(tagStart, nameEnd, markup);
+        for (int i = 0; i < mark; i++) {
+            if (isInScope(i)) {
+                markup.append(' ').append(XMLConstants.XMLNS_ATTRIBUTE);
+                if (!prefixes[i].isEmpty()) {
+                    markup.append(':').append(prefixes[i]);
+                }
+                markup.append("=\"").append(uris[i].replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;")).append('"');
+            }
+        }
+        source.decode(nameEnd, position, markup);
+        return markup.toString();
+    }
+
+    /**
+     * @return whether the binding declared by an ancestor is still in scope of the current element and binds a
+     * namespace rather than undeclares the default one
+     */
+    private boolean isInScope(int binding) {
+        for (int i = binding + 1; i < bindings; i++) {
+            if (prefixes[i].equals(prefixes[binding])) {
+                return false; // Overridden
+            }
+        }
+        return !(prefixes[binding].isEmpty() && uris[binding].isEmpty());
+    }
+
+    private void endTag(XmlHandler handler) {
+        position += 2;
+        int nameStart = position;
+        int nameEnd = name();
+        skipWhitespace();
+        expect('>');
+        if (depth == 0) {
+            throw malformed("End tag without start tag");
+        }
+        if (!source.matches(nameStart, nameEnd, elements[depth - 1])) {
+            throw malformed("End tag doesn't match start tag " + elements[depth - 1]);
+        }
+        depth--;
+        elements[depth] = null;
+        bindings = bindingMarks[depth];
+        handler.endElement();
+    }
+
+    private void readAttributes() {
+        attributes.count = 0;
+        tagAttributes = 0;
+        while (true) {
+            boolean separated = skipWhitespace();
+            int c = source.at(position);
+            if (c == '>') {
+                position++;
+                selfClosing = false;
+                return;
+            }
+            if (c == '/') {
+                position++;
+                expect('>');
+                selfClosing = true;
+                return;
+            }
+            if (!separated) {
+                throw malformed(c == XmlSource.EOF ? "Start tag isn't closed" : "Whitespace is required between attributes");
+            }
+            int nameStart = position;
+            int nameEnd = name();
+            int nameColon = colon;
+            skipWhitespace();
+            expect('=');
+            skipWhitespace();
+            int quote = source.at(position);
+            if (quote != '"' && quote != '\'') {
+                throw malformed("Attribute value must be quoted");
+            }
+            int valueStart = ++position;
+            for (int unit = source.at(position); unit != quote; unit = source.at(++position)) {
+                if (unit == '<' || unit == XmlSource.EOF) {
+                    throw malformed("Attribute value isn't closed");
+                }
+                checkChar(position);
+            }
+            int valueEnd = position++;
+            checkUnique(nameStart, nameEnd);
+            if (nameColon < 0 && source.matches(nameStart, nameEnd, XMLConstants.XMLNS_ATTRIBUTE)) {
+                bind(XMLConstants.DEFAULT_NS_PREFIX, value(valueStart, valueEnd));
+            } else if (nameColon >= 0 && source.matches(nameStart, nameColon, XMLConstants.XMLNS_ATTRIBUTE)) {
+                bind(source.decode(nameColon + 1, nameEnd), value(valueStart, valueEnd));
+            } else {
+                attributes.add(nameStart, nameColon, nameEnd, valueStart, valueEnd);
+            }
+        }
+    }
+
+    /**
+     * Fails if the current tag already has an attribute or a namespace declaration of the name.
+     */
+    private void checkUnique(int nameStart, int nameEnd) {
+        for (int i = 0; i < tagAttributes; i++) {
+            if (sameUnits(names[2 * i], names[2 * i + 1], nameStart, nameEnd)) {
+                throw malformed("Attribute " + source.decode(nameStart, nameEnd) + " is specified more than once");
+            }
+        }
+        if (tagAttributes * 2 == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[2 * tagAttributes] = nameStart;
+        names[2 * tagAttributes + 1] = nameEnd;
+        tagAttributes++;
+    }
+
+    private boolean sameUnits(int start, int end, int otherStart, int otherEnd) {
+        if (end - start != otherEnd - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (source.at(start + i) != source.at(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fails if the unit isn't allowed by the Char production of XML 1.0: a control character other than whitespace,
+     * an unpaired surrogate, U+FFFE or U+FFFF. Units of binary sources are bytes, so only control characters are
+     * found in them.
+     */
+    private void checkChar(int offset) {
+        int c = source.at(offset);
+        if (c >= 0x20 && c < Character.MIN_SURROGATE) {
+            return;
+        }
+        boolean allowed;
+        if (c < 0x20) {
+            allowed = c == '\t' || c == '\n' || c == '\r';
+        } else if (Character.isHighSurrogate((char) c)) {
+            allowed = Character.isLowSurrogate((char) source.at(offset + 1));
+        } else if (Character.isLowSurrogate((char) c)) {
+            allowed = Character.isHighSurrogate((char) source.at(offset - 1));
+        } else {
+            allowed = c != 0xFFFE && c != 0xFFFF;
+        }
+        if (!allowed) {
+            throw malformed(String.format("Character 0x%X isn't allowed", c));
+        }
+    }
+
+    /**
+     * Reads a name up to whitespace or markup and remembers the position of its colon.
+     *
+     * @return end of the name
+     */
+    private int name() {
+        int start = position;
+        colon = -1;
+        for (int c = source.at(position); !isNameEnd(c); c = source.at(++position)) {
+            if (c < 128 && !(position == start ? NAME_START_CHARS : NAME_CHARS)[c]) {
+                throw malformed("Invalid character in name");
+            }
+            if (c == ':' && colon < 0) {
+                colon = position;
+            }
+        }
+        if (position == start || colon == start || colon == position - 1) {
+            throw malformed("Name expected");
+        }
+        return position;
+    }
+
+    private static boolean isNameEnd(int c) {
+        return c <= ' ' || c == '>' || c == '/' || c == '=' || c == '<' || c == '"' || c == '\'';
+    }
+
+    private void bind(String prefix, String uri) {
+        if (bindings == prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, bindings * 2);
+            uris = Arrays.copyOf(uris, bindings * 2);
+        }
+        prefixes[bindings] = prefix;
+        uris[bindings] = uri;
+        bindings++;
+    }
+
+    private String resolve(String prefix) {
+        for (int i = bindings - 1; i >= 0; i--) {
+            if (prefixes[i].equals(prefix)) {
+                return uris[i];
+            }
+        }
+        if (prefix.isEmpty()) {
+            return XMLConstants.NULL_NS_URI;
+        }
+        if (prefix.equals(XMLConstants.XML_NS_PREFIX)) {
+            return XMLConstants.XML_NS_URI;
+        }
+        throw malformed("Prefix " + prefix + " isn't bound");
+    }
+
+    private void text(XmlHandler handler) {
+        int start = position;
+        position = source.indexOf('<', position);
+        if (handler.isCapturingText()) {
+            text.setLength(0);
+            decode(start, position, true, false);
+            handler.text(text);
+        }
+    }
+
+    private void cdata(XmlHandler handler) {
+        int start = position + "<![CDATA[".length();
+        position = start;
+        skipPast("]]>");
+        if (handler.isCapturingText()) {
+            text.setLength(0);
+            decode(start, position - "]]>".length(), false, false);
+            handler.text(text);
+        }
+    }
+
+    private String value(int start, int end) {
+        text.setLength(0);
+        decode(start, end, true, true);
+        return text.toString();
+    }
+
+    /**
+     * Appends decoded units to {@link #text}, replacing references and normalizing line ends (and whitespace of
+     * attribute values) as required by XML 1.0.
+     */
+    private void decode(int start, int end, boolean references, boolean attribute) {
+        int plain = start;
+        int i = start;
+        while (i < end) {
+            int c = source.at(i);
+            checkChar(i);
+            if (c == '>' && references && !attribute && i >= start + 2 && source.at(i - 1) == ']' && source.at(i - 2) == ']') {
+                throw malformed("]]> isn't allowed in text");
+            }
+            if (c == '&' && references) {
+                source.decode(plain, i, text);
+                i = reference(i, end);
+                plain = i;
+            } else if (c == '\r') {
+                source.decode(plain, i, text);
+                text.append(attribute ? ' ' : '\n');
+                i = i + 1 < end && source.at(i + 1) == '\n' ? i + 2 : i + 1;
+                plain = i;
+            } else if (attribute && (c == '\n' || c == '\t')) {
+                source.decode(plain, i, text);
+                text.append(' ');
+                plain = ++i;
+            } else {
+                i++;
+            }
+        }
+        source.decode(plain, end, text);
+    }
+
+    /**
+     * Appends the character referenced at the given position to {@link #text}.
+     *
+     * @return position after the reference
+     */
+    private int reference(int start, int end) {
+        int semicolon = start + 1;
+        while (semicolon < end && source.at(semicolon) != ';') {
+            semicolon++;
+        }
+        if (semicolon == end || semicolon == start + 1) {
+            throw malformed("Reference isn't terminated");
+        }
+        if (source.at(start + 1) == '#') {
+            boolean hex = source.at(start + 2) == 'x';
+            int codePoint = 0;
+            int digits = hex ? start + 3 : start + 2;
+            if (digits == semicolon) {
+                throw malformed("Character reference has no digits");
+            }
+            for (int i = digits; i < semicolon; i++) {
+                int digit = Character.digit(source.at(i), hex ? 16 : 10);
+                if (digit < 0 || codePoint > Character.MAX_CODE_POINT) {
+                    throw malformed("Invalid character reference");
+                }
+                codePoint = codePoint * (hex ? 16 : 10) + digit;
+            }
+            if (!isChar(codePoint)) {
+                throw malformed("Invalid character reference");
+            }
+            text.appendCodePoint(codePoint);
+        } else if (source.matches(start + 1, semicolon, "lt")) {
+            text.append('<');
+        } else if (source.matches(start + 1, semicolon, "gt")) {
+            text.append('>');
+        } else if (source.matches(start + 1, semicolon, "amp")) {
+            text.append('&');
+        } else if (source.matches(start + 1, semicolon, "apos")) {
+            text.append('\'');
+        } else if (source.matches(start + 1, semicolon, "quot")) {
+            text.append('"');
+        } else {
+            throw malformed("Entity " + source.decode(start + 1, semicolon) + " isn't declared");
+        }
+        return semicolon + 1;
+    }
+
+    /**
+     * @return whether the code point is allowed by the Char production of XML 1.0
+     */
+    private static boolean isChar(int codePoint) {
+        return codePoint >= 0x20 && codePoint < Character.MIN_SURROGATE || codePoint == '\t' || codePoint == '\n' ||
+                codePoint == '\r' || codePoint > Character.MAX_SURROGATE && codePoint <= Character.MAX_CODE_POINT &&
+                codePoint != 0xFFFE && codePoint != 0xFFFF;
+    }
+
+    /**
+     * Skips the rest of a tag, whose name has been read already.
+     *
+     * @return whether it's an empty element tag
+     */
+    private boolean skipTag() {
+        int quote = 0;
+        while (true) {
+            int c = source.at(position++);
+            if (c == XmlSource.EOF) {
+                position--;
+                throw malformed("Tag isn't closed");
+            }
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return source.at(position - 2) == '/';
+            }
+        }
+    }
+
+    /**
+     * Skips content of an element up to and including its end tag by counting nested tags.
+     */
+    private void skipSubtree() {
+        skipSubtree(true);
+    }
+
+    /**
+     * @param releasing whether the skipped units can be released, otherwise they stay readable
+     */
+    private void skipSubtree(boolean releasing) {
+        int level = 1;
+        while (level > 0) {
+            position = source.indexOf('<', position);
+            if (releasing) {
+                position = source.release(position);
+            }
+            int next = source.at(position + 1);
+            if (source.at(position) == XmlSource.EOF) {
+                throw malformed("Element isn't closed");
+            } else if (next == '/') {
+                position += 2;
+                skipTag();
+                level--;
+            } else if (next == '?') {
+                skipPast("?>");
+            } else if (startsWith("<!--")) {
+                skipPast("-->");
+            } else if (startsWith("<![CDATA[")) {
+                skipPast("]]>");
+            } else {
+                position++;
+                if (!skipTag()) {
+                    level++;
+                }
+            }
+        }
+    }
+
+    private boolean skipWhitespace() {
+        int start = position;
+        for (int c = source.at(position); c == ' ' || c == '\n' || c == '\t' || c == '\r'; c = source.at(++position)) {
+            // Just move on
+        }
+        return position > start;
+    }
+
+    private boolean startsWith(String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (source.at(position + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipPast(String terminator) {
+        while (true) {
+            position = source.indexOf(terminator.charAt(0), position);
+            if (source.at(position) == XmlSource.EOF) {
+                throw malformed("Missing " + terminator);
+            }
+            if (startsWith(terminator)) {
+                position += terminator.length();
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void expect(char c) {
+        if (source.at(position) != c) {
+            throw malformed("'" + c + "' expected");
+        }
+        position++;
+    }
+
+    private IllegalStateException malformed(String message) {
+        return new IllegalStateException(String.format("Malformed xml at %d: %s", position, message));
+    }
+
+    /**
+     * Attributes of the current start tag, decoded only when asked for.
+     */
+    private final class RawAttributes implements PathAutomaton.Attributes {
+
+        private int count;
+        private int[] offsets = new int[5 * 4]; // name start, colon, name end, value start, value end
+
+        void add(int nameStart, int colon, int nameEnd, int valueStart, int valueEnd) {
+            if ((count + 1) * 5 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int i = count * 5;
+            offsets[i] = nameStart;
+            offsets[i + 1] = colon;
+            offsets[i + 2] = nameEnd;
+            offsets[i + 3] = valueStart;
+            offsets[i + 4] = valueEnd;
+            count++;
+        }
+
+        @Override
+        public int getAttributeCount() {
+            return count;
+        }
+
+        @Override
+        public String getAttributeNamespace(int index) {
+            int colon = offsets[index * 5 + 1];
+            // Unprefixed attributes are in no namespace, the default namespace doesn't apply to them
+            return colon < 0 ? XMLConstants.NULL_NS_URI : resolve(source.decode(offsets[index * 5], colon));
+        }
+
+        @Override
+        public String getAttributeLocalName(int index) {
+            int colon = offsets[index * 5 + 1];
+            return source.decode(colon < 0 ? offsets[index * 5] : colon + 1, offsets[index * 5 + 2]);
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            return value(offsets[index * 5 + 3], offsets[index * 5 + 4]);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.XmlInput;
+
+import javax.xml.transform.Source;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input of {@link XmlScanner} as a sequence of code units: chars or bytes of an encoding compatible with ASCII.
+ * Markup consists of ASCII characters only, so the scanner finds it by comparing raw units and never decodes units
+ * which don't end up in a value.
+ */
+abstract class XmlSource implements Closeable {
+
+    static final int EOF = -1;
+
+    /**
+     * Opens a source reading the given input: strings, byte buffers and files are read in place, streams and
+     * readers part by part.
+     */
+    static XmlSource of(XmlInput input) throws IOException {
+        String xml = input.getString();
+        if (xml != null) {
+            return new StringSource(xml);
+        }
+        ByteBuffer buffer = input.getBuffer();
+        if (buffer != null) {
+            return new BufferSource(buffer);
+        }
+        Path path = input.getPath();
+        if (path != null) {
+            return new MappedFileSource(FileChannel.open(path, StandardOpenOption.READ));
+        }
+        return input.isBinary() ? new ByteStreamSource(input.openStream()) : new ReaderSource(input.openReader());
+    }
+
+    /**
+     * @return {@code false} if units of the input can't be scanned, as bytes are in an encoding which isn't
+     * compatible with ASCII
+     */
+    boolean detectEncoding() {
+        return true;
+    }
+
+    /**
+     * @return unit at the given offset from the start of the input as a non-negative number, {@link #EOF} if the
+     * input is over
+     */
+    abstract int at(int offset);
+
+    /**
+     * @return offset of the first unit of the document, i.e. after a byte order mark
+     */
+    int begin() {
+        return 0;
+    }
+
+    /**
+     * @return offset of the given ASCII unit starting from {@code from}, or the offset of the end of the input
+     */
+    int indexOf(int unit, int from) {
+        int offset = from;
+        for (int c = at(offset); c != unit && c != EOF; c = at(++offset)) {
+            // Just move on
+        }
+        return offset;
+    }
+
+    /**
+     * @return whether the units from {@code start} to {@code end} represent the given string
+     */
+    boolean matches(int start, int end, String string) {
+        return decode(start, end).equals(string);
+    }
+
+    /**
+     * Appends decoded units from {@code start} (inclusive) to {@code end} (exclusive). Both offsets must be on
+     * character boundaries, i.e. next to markup.
+     */
+    abstract void decode(int start, int end, StringBuilder destination);
+
+    String decode(int start, int end) {
+        StringBuilder destination = new StringBuilder(end - start);
+        decode(start, end, destination);
+        return destination.toString();
+    }
+
+    /**
+     * Tells that units before the given offset won't be accessed anymore, so a source reading a stream needn't
+     * keep them. A source may renumber units at this point to keep offsets of inputs larger than 2 GB in range.
+     *
+     * @return new offset of the unit at the given offset
+     */
+    int release(int offset) {
+        return offset;
+    }
+
+    /**
+     * @return number of units left after the given offset, -1 if it's unknown as the input hasn't been read to
+     * the end
+     */
+    abstract long remaining(int offset);
+
+    /**
+     * @return the whole document for a full parser, provided nothing has been released yet
+     */
+    abstract Source replay() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+}
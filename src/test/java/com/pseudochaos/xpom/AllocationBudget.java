@@ -0,0 +1,68 @@
+package com.pseudochaos.xpom;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Measures bytes allocated by a call on the calling thread, as counted by HotSpot for
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes}. Calls are warmed up first, so classes, caches and
+ * compiled code are in place, and the fewest bytes of a few rounds are taken, as a round may be disturbed by the
+ * compiler. Tests are skipped on JVMs which don't count allocated bytes.
+ */
+final class AllocationBudget {
+
+    private static final int WARMUP = 2_000;
+    private static final int ROUNDS = 5;
+    private static final int CALLS = 200;
+
+    private AllocationBudget() {
+    }
+
+    /**
+     * @return bytes allocated per call, on average
+     */
+    static long bytesPerCall(Supplier<?> call) {
+        com.sun.management.ThreadMXBean threads = threads();
+        long thread = Thread.currentThread().getId();
+        Object[] results = new Object[CALLS]; // Keeps results reachable, so allocating them isn't optimized away
+        for (int i = 0; i < WARMUP; i++) {
+            results[i % CALLS] = call.get();
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < CALLS; i++) {
+                results[i] = call.get();
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            fewest = Math.min(fewest, allocated);
+        }
+        return fewest / CALLS;
+    }
+
+    /**
+     * Fails if the call allocates more bytes than the budget, on average.
+     */
+    static void assertAllocatesAtMost(long budget, Supplier<?> call, String description) {
+        long allocated = bytesPerCall(call);
+        if (allocated > budget) {
+            throw new AssertionError(format("%s allocates %,d bytes per call, over its budget of %,d bytes",
+                    description, allocated, budget));
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue("Allocated bytes aren't counted by " + System.getProperty("java.vm.name"),
+                threads instanceof com.sun.management.ThreadMXBean &&
+                        ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+        if (!counting.isThreadAllocatedMemoryEnabled()) {
+            counting.setThreadAllocatedMemoryEnabled(true);
+        }
+        return counting;
+    }
+}
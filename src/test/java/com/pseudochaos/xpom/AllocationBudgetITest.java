@@ -0,0 +1,191 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.XPath;
+import com.pseudochaos.xpom.jaxp.JaxpValueExtractor;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.w3c.dom.Node;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.pseudochaos.xpom.AllocationBudget.assertAllocatesAtMost;
+import static com.pseudochaos.xpom.AllocationBudget.bytesPerCall;
+import static com.pseudochaos.xpom.Extraction.DOM;
+import static com.pseudochaos.xpom.Extraction.STREAMING;
+import static com.pseudochaos.xpom.Mapping.GENERATED;
+import static com.pseudochaos.xpom.Mapping.REFLECTIVE;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated by a single {@link XPom#using} call mapping the document of a reference test to one of its fixtures,
+ * so a change allocating more fails the build rather than adds to GC pressure in production.
+ * <p>
+ * Streaming budgets cover the whole call. JAXP allocates hundreds of kilobytes per document, which would hide any
+ * regression of a mapper, so DOM budgets cover only what the mapper allocates on top of parsing the same document and
+ * evaluating the same XPaths by {@link JaxpValueExtractor} directly. Budgets are the bytes measured on HotSpot 17 with
+ * a tenth of headroom, but at least 250 bytes, raise them only along with the reason why a change needs more.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class AllocationBudgetITest {
+
+    private static final Class<?>[] REFERENCE_TESTS = {PrimitivesAndWrappersITest.class, ArraysITest.class};
+
+    private Extraction extraction;
+    private Mapping mapping;
+    private Tracer tracer;
+
+    // Fixture, streaming by reflective and generated mapping, DOM by reflective and generated mapping
+    private Object budgets() {
+        return new Object[]{
+                new Object[]{PrimitivesAndWrappersITest.PByte.class, 2_700, 2_600, 800, 650},
+                new Object[]{PrimitivesAndWrappersITest.XByte.class, 2_850, 2_650, 850, 650},
+                new Object[]{PrimitivesAndWrappersITest.PShort.class, 2_800, 2_700, 750, 650},
+                new Object[]{PrimitivesAndWrappersITest.XShort.class, 2_950, 2_750, 800, 650},
+                new Object[]{PrimitivesAndWrappersITest.PDecInt.class, 3_050, 2_950, 750, 650},
+                new Object[]{PrimitivesAndWrappersITest.XDecInteger.class, 3_150, 2_950, 900, 650},
+                new Object[]{PrimitivesAndWrappersITest.PHexInt.class, 2_900, 2_750, 750, 650},
+                new Object[]{PrimitivesAndWrappersITest.PLong.class, 2_900, 2_750, 850, 650},
+                new Object[]{PrimitivesAndWrappersITest.XLong.class, 3_000, 2_850, 850, 650},
+                new Object[]{PrimitivesAndWrappersITest.PFloat.class, 3_200, 3_050, 1_100, 900},
+                new Object[]{PrimitivesAndWrappersITest.XFloat.class, 3_250, 3_100, 1_150, 950},
+                new Object[]{PrimitivesAndWrappersITest.PDouble.class, 3_100, 2_950, 850, 700},
+                new Object[]{PrimitivesAndWrappersITest.XDouble.class, 3_200, 3_050, 900, 700},
+                new Object[]{PrimitivesAndWrappersITest.PBoolean.class, 3_450, 3_300, 900, 650},
+                new Object[]{PrimitivesAndWrappersITest.XBoolean.class, 3_500, 3_350, 900, 650},
+                new Object[]{PrimitivesAndWrappersITest.PChar.class, 3_200, 3_050, 850, 650},
+                new Object[]{PrimitivesAndWrappersITest.XCharacter.class, 3_250, 3_100, 850, 650},
+                new Object[]{ArraysITest.PByteArray.class, 3_350, 3_200, 800, 650},
+                new Object[]{ArraysITest.PShortArray.class, 3_350, 3_200, 800, 650},
+                new Object[]{ArraysITest.PIntArray.class, 3_350, 3_200, 800, 650},
+                new Object[]{ArraysITest.PLongArray.class, 3_350, 3_200, 800, 700},
+                new Object[]{ArraysITest.PFloatArray.class, 4_450, 4_300, 1_650, 1_500},
+                new Object[]{ArraysITest.PDoubleArray.class, 3_450, 3_300, 900, 800},
+                new Object[]{ArraysITest.PBooleanArray.class, 3_150, 3_000, 800, 650},
+                new Object[]{ArraysITest.PCharArray.class, 3_150, 3_000, 800, 650},
+                new Object[]{ArraysITest.XByteArray.class, 3_500, 3_350, 800, 650},
+                new Object[]{ArraysITest.XShortArray.class, 3_500, 3_350, 800, 650},
+                new Object[]{ArraysITest.XIntegerArray.class, 3_500, 3_350, 800, 650},
+                new Object[]{ArraysITest.XLongArray.class, 3_500, 3_350, 800, 650},
+                new Object[]{ArraysITest.XFloatArray.class, 4_500, 4_350, 1_700, 1_550},
+                new Object[]{ArraysITest.XDoubleArray.class, 3_700, 3_550, 950, 850},
+                new Object[]{ArraysITest.XBooleanArray.class, 3_250, 3_100, 800, 650},
+                new Object[]{ArraysITest.XCharacterArray.class, 3_250, 3_100, 800, 650},
+                new Object[]{ArraysITest.StringArray.class, 3_250, 3_100, 800, 650},
+                new Object[]{ArraysITest.EnumConstantArray.class, 3_250, 3_100, 800, 650},
+        };
+    }
+
+    @Before
+    public void disableTracing() {
+        extraction = XPomFactory.getExtractionStrategy();
+        mapping = XPomFactory.getMapping();
+        tracer = XPomFactory.getTracer();
+        XPomFactory.setTracer(Tracer.NONE); // Logging at debug level, as tests do, would be measured otherwise
+    }
+
+    @After
+    public void restoreDefaults() {
+        XPomFactory.setExtractionStrategy(extraction);
+        XPomFactory.setMapping(mapping);
+        XPomFactory.setTracer(tracer);
+    }
+
+    @Test
+    @Parameters(method = "budgets")
+    public void shouldStayWithinAllocationBudget(Class<?> fixture, long streamingReflective, long streamingGenerated,
+                                                 long domReflective, long domGenerated) {
+        String xml = fixture.getEnclosingClass() == ArraysITest.class ? ArraysITest.XML : PrimitivesAndWrappersITest.XML;
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+        assertWithinBudget(fixture, STREAMING, REFLECTIVE, streamingReflective, xml, bytes);
+        assertWithinBudget(fixture, STREAMING, GENERATED, streamingGenerated, xml, bytes);
+        assertWithinBudget(fixture, DOM, REFLECTIVE, domReflective, xml, bytes);
+        assertWithinBudget(fixture, DOM, GENERATED, domGenerated, xml, bytes);
+    }
+
+    @Test
+    public void shouldBudgetEveryFixtureOfReferenceTests() {
+        Set<Object> budgeted = Stream.of((Object[]) budgets()).map(row -> ((Object[]) row)[0]).collect(toSet());
+        for (Class<?> test : REFERENCE_TESTS) {
+            assertThat(budgeted).containsAll(fixturesOf(test));
+        }
+    }
+
+    private static void assertWithinBudget(Class<?> fixture, Extraction extraction, Mapping mapping, long budget,
+                                           String xml, byte[] bytes) {
+        XPom<?> mapper = mapper(fixture, extraction, mapping);
+        String description = format("Mapping %s by %s extraction and %s mapping", fixture.getSimpleName(), extraction,
+                mapping);
+        if (extraction == STREAMING) {
+            assertAllocatesAtMost(budget, () -> mapper.using(xml), description + " from a string");
+            assertAllocatesAtMost(budget, () -> mapper.using(bytes, 0, bytes.length), description + " from bytes");
+            return;
+        }
+        JaxpValueExtractor jaxp = new JaxpValueExtractor();
+        Function<Node, Object> evaluation = evaluationOf(fixture, jaxp);
+        long fromString = bytesPerCall(() -> evaluation.apply(jaxp.parse(xml)));
+        long fromBytes = bytesPerCall(() -> evaluation.apply(jaxp.parse(XmlInput.of(bytes, 0, bytes.length))));
+        assertAllocatesAtMost(budget + fromString, () -> mapper.using(xml),
+                format("%s from a string on top of %,d bytes of JAXP", description, fromString));
+        assertAllocatesAtMost(budget + fromBytes, () -> mapper.using(bytes, 0, bytes.length),
+                format("%s from bytes on top of %,d bytes of JAXP", description, fromBytes));
+    }
+
+    /**
+     * @return evaluation of XPaths of all annotated fields of the type against a document, as a mapper does it
+     */
+    private static Function<Node, Object> evaluationOf(Class<?> type, JaxpValueExtractor jaxp) {
+        XNamespaceContext namespaceContext = new XNamespaceContext(type);
+        List<Function<Node, Object>> evaluations = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            XPath annotation = field.getAnnotation(XPath.class);
+            if (annotation != null) {
+                com.pseudochaos.xpom.XPath xPath = new com.pseudochaos.xpom.XPath(annotation.value(), namespaceContext);
+                evaluations.add(field.getType().isArray() ?
+                        document -> jaxp.extractCollection(document, xPath) :
+                        document -> jaxp.extractScalar(document, xPath));
+            }
+        }
+        return document -> {
+            Object value = null;
+            for (Function<Node, Object> evaluation : evaluations) {
+                value = evaluation.apply(document);
+            }
+            return value;
+        };
+    }
+
+    /**
+     * @return nested classes of the test with annotated fields
+     */
+    private static List<Class<?>> fixturesOf(Class<?> test) {
+        List<Class<?>> fixtures = new ArrayList<>();
+        for (Class<?> nested : test.getDeclaredClasses()) {
+            if (Stream.of(nested.getDeclaredFields()).anyMatch(field -> field.isAnnotationPresent(XPath.class))) {
+                fixtures.add(nested);
+            }
+        }
+        return fixtures;
+    }
+
+    /**
+     * @return mapper of its own settings, bypassing the cache of {@link XPomFactory}
+     */
+    private static <T> XPom<T> mapper(Class<T> type, Extraction extraction, Mapping mapping) {
+        XPomFactory.setExtractionStrategy(extraction);
+        XPomFactory.setMapping(mapping);
+        return new XPom<>(type);
+    }
+}
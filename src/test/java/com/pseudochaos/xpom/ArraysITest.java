@@ -9,7 +9,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class ArraysITest {
     
-    private static final String XML =
+    static final String XML =
             "<arrays>" +
                 "<integers>" +
                     "<value>1</value>" +
@@ -0,0 +1,29 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.Test;
+
+import static com.pseudochaos.xpom.Mapping.REFLECTIVE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mappers generated at compile time are tested by the xpom-processor module, which runs the processor on the
+ * classes it maps.
+ */
+public class CompiledMapperITest {
+
+    static class Order {
+        @XPath("/order/@id") int id;
+    }
+
+    @Test
+    public void shouldFallBackToReflectionWithoutCompiledMapper() {
+        assertThat(XPomFactory.create(Order.class).getMapping()).isEqualTo(REFLECTIVE);
+    }
+
+    @Test
+    public void shouldNameCompiledMapperAfterNestedClass() {
+        assertThat(CompiledMapper.nameOf(Order.class))
+                .isEqualTo("com.pseudochaos.xpom.CompiledMapperITest_Order_XPomMapper");
+    }
+}
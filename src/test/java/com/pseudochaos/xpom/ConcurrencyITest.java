@@ -0,0 +1,62 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyITest {
+
+    private static final int THREADS = 16;
+    private static final int DOCUMENTS_PER_THREAD = 200;
+
+    static class Message {
+        @XPath("/message/@id") int id;
+        @XPath("/message/body") String body;
+        @XPath("/message/values/value") int[] values;
+    }
+
+    private static String xml(int id) {
+        return "<message id=\"" + id + "\">" +
+                    "<body>body-" + id + "</body>" +
+                    "<values><value>" + id + "</value><value>" + -id + "</value></values>" +
+                "</message>";
+    }
+
+    @Test
+    public void shouldMapDocumentsConcurrentlyUsingTheSameMapper() throws Exception {
+        XPom<Message> mapper = XPomFactory.create(Message.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread * DOCUMENTS_PER_THREAD;
+                results.add(executor.submit(mapAll(mapper, offset)));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<Boolean> mapAll(XPom<Message> mapper, int offset) {
+        return () -> {
+            for (int id = offset; id < offset + DOCUMENTS_PER_THREAD; id++) {
+                Message message = mapper.using(xml(id));
+                if (message.id != id || !message.body.equals("body-" + id) || message.values[1] != -id) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
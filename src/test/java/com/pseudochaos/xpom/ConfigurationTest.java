@@ -2,6 +2,7 @@ package com.pseudochaos.xpom;
 
 import com.pseudochaos.xpom.annotation.XPath;
 import com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy;
+import org.junit.After;
 import org.junit.Test;
 
 import static com.pseudochaos.xpom.ExceptionHandling.FAIL;
@@ -25,6 +26,11 @@ public class ConfigurationTest {
         @XPath("/dummy") private String withDefaultStrategy;
     }
 
+    @After
+    public void restoreDefaultExceptionHandlingStrategy() {
+        XPomFactory.setExceptionHandlingStrategy(FAIL);
+    }
+
     @Test
     public void shouldReadExceptionHandlingStrategyFromAnnotationOnClass() {
         Configuration configuration = new Configuration(UseDefaultClassLevelStrategy.class);
@@ -72,5 +78,27 @@ public class ConfigurationTest {
         assertThat(configuration.getExceptionHandlingStrategy(field)).isEqualTo(FAIL);
     }
 
+    @Test
+    public void shouldFollowChangesOfStrategyOnXPomFactoryLevel() throws Exception {
+        Configuration configuration = new Configuration(NoClassLevelStrategy.class);
+        XField field = xFieldFor("withoutStrategy", NoClassLevelStrategy.class);
+        assertThat(configuration.getExceptionHandlingStrategy(field)).isEqualTo(FAIL);
+        XPomFactory.setExceptionHandlingStrategy(USE_DEFAULT);
+        assertThat(configuration.getExceptionHandlingStrategy(field)).isEqualTo(USE_DEFAULT);
+    }
+
+    @com.pseudochaos.xpom.annotation.ExtractionStrategy(Extraction.STREAMING)
+    static class StreamingClassLevelExtraction {}
+
+    @Test
+    public void shouldReadExtractionStrategyFromAnnotationOnClass() {
+        Configuration configuration = new Configuration(StreamingClassLevelExtraction.class);
+        assertThat(configuration.getExtractionStrategy()).isEqualTo(Extraction.STREAMING);
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReturnExtractionStrategyDefinedOnXPomFactoryWhenNoClassLevelOverride() {
+        Configuration configuration = new Configuration(NoClassLevelStrategy.class);
+        assertThat(configuration.getExtractionStrategy()).isEqualTo(XPomFactory.getExtractionStrategy());
+    }
+}
@@ -4,13 +4,19 @@ import com.pseudochaos.xpom.annotation.Converter;
 import com.pseudochaos.xpom.annotation.XPath;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 public class ConverterITest {
 
     private static final String XML =
             "<dataTypes>" +
                 "<bin>0b11010</bin>" +
+                "<int>1</int><int>2</int>" +
+                "<enum>SECOND</enum>" +
             "</dataTypes>";
 
     private static <T> T to(Class<T> clazz) {
@@ -34,4 +40,108 @@ public class ConverterITest {
         assertThat(to(PBinInt.class).binInt).isEqualTo(26);
     }
 
+    public static class CountingBinIntConverter extends BinIntConverter {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public CountingBinIntConverter() {
+            instances.incrementAndGet();
+        }
+    }
+
+    enum Ordinal { FIRST, SECOND }
+
+    static class AllKinds {
+        @Converter(CountingBinIntConverter.class)
+        @XPath(value = "/dataTypes/bin") int binInt;
+        @XPath(value = "/dataTypes/int") List<Integer> list;
+        @XPath(value = "/dataTypes/int") long[] array;
+        @XPath(value = "/dataTypes/enum") Ordinal ordinal;
+    }
+
+    @Test
+    public void converters_are_created_once_per_mapper() throws Exception {
+        XPom<AllKinds> xPom = XPomFactory.create(AllKinds.class);
+        int instances = CountingBinIntConverter.instances.get();
+        for (int i = 0; i < 100; i++) {
+            AllKinds mapped = xPom.using(XML);
+            assertThat(mapped.binInt).isEqualTo(26);
+            assertThat(mapped.list).containsExactly(1, 2);
+            assertThat(mapped.array).containsExactly(1, 2);
+            assertThat(mapped.ordinal).isEqualTo(Ordinal.SECOND);
+        }
+        assertThat(CountingBinIntConverter.instances.get()).isEqualTo(instances).isEqualTo(1);
+    }
+
+    @Test
+    public void resolved_converters_are_cached_by_type() throws Exception {
+        HierarchicalConverterResolver resolver = new HierarchicalConverterResolver();
+        assertThat(resolver.resolve(long[].class)).isSameAs(resolver.resolve(long[].class));
+        assertThat(resolver.resolve(Ordinal[].class)).isSameAs(resolver.resolve(Ordinal[].class));
+        assertThat(resolver.resolve(Ordinal.class)).isSameAs(resolver.resolve(Ordinal.class));
+    }
+
+    static class ReversedIntConverter implements com.pseudochaos.xpom.Converter.OfInt {
+        @Override
+        public int convertToInt(CharSequence source) {
+            return Integer.parseInt(new StringBuilder(source).reverse().toString());
+        }
+    }
+
+    static class Specialized {
+        @Converter(ReversedIntConverter.class)
+        @XPath(value = "/dataTypes/int[2]") int reversed;
+        @Converter(ReversedIntConverter.class)
+        @XPath(value = "/dataTypes/bin") int malformed = -1;
+    }
+
+    @Test
+    public void specialized_converters_populate_primitives() throws Exception {
+        XPomFactory.setExceptionHandlingStrategy(ExceptionHandling.USE_DEFAULT);
+        try {
+            Specialized specialized = XPomFactory.create(Specialized.class).using("<dataTypes><int>12</int><int>34</int><bin>x</bin></dataTypes>");
+            assertThat(specialized.reversed).isEqualTo(43);
+            assertThat(specialized.malformed).isEqualTo(-1);
+        } finally {
+            XPomFactory.setExceptionHandlingStrategy(ExceptionHandling.FAIL);
+        }
+    }
+
+    static class UnusualThrowable extends Throwable {
+    }
+
+    static class ThrowingIntConverter implements com.pseudochaos.xpom.Converter.OfInt {
+        @Override
+        public int convertToInt(CharSequence source) {
+            return ThrowingIntConverter.<RuntimeException>sneakyThrow(new UnusualThrowable());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Throwable> int sneakyThrow(Throwable e) throws E {
+            throw (E) e;
+        }
+    }
+
+    static class Throwing {
+        @Converter(ThrowingIntConverter.class)
+        @XPath(value = "/dataTypes/int[1]") int value;
+    }
+
+    @Test
+    public void throwables_other_than_exceptions_fail_mapping() throws Exception {
+        Throwable thrown = catchThrowable(() -> to(Throwing.class));
+        assertThat(thrown).isInstanceOf(XPomException.class).hasCauseInstanceOf(UnusualThrowable.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void primitive_types_have_specialized_converters() throws Exception {
+        HierarchicalConverterResolver resolver = new HierarchicalConverterResolver();
+        for (Class<?> type : new Class<?>[]{byte.class, short.class, int.class, long.class, float.class, double.class, boolean.class, char.class}) {
+            assertThat(Primitives.isSpecialized(type, resolver.resolve(type))).as(type.getName()).isTrue();
+            Class<?> arrayType = java.lang.reflect.Array.newInstance(type, 0).getClass();
+            com.pseudochaos.xpom.Converter<String[], ?> arrayConverter = (com.pseudochaos.xpom.Converter<String[], ?>) resolver.resolve(arrayType);
+            assertThat(arrayConverter.convert(new String[]{"1"})).isInstanceOf(arrayType);
+        }
+    }
 }
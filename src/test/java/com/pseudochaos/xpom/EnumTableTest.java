@@ -0,0 +1,84 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.EnumValue;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static com.pseudochaos.xpom.EnumMatching.CASE_INSENSITIVE;
+import static com.pseudochaos.xpom.EnumMatching.EXACT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class EnumTableTest {
+
+    enum Letters {
+        a, A, b,
+        @EnumValue("Sea") C;
+
+        @Override
+        public String toString() {
+            return this == C ? "c" : name();
+        }
+    }
+
+    enum Conflicting {
+        FIRST,
+        @EnumValue("FIRST") SECOND
+    }
+
+    @Test
+    public void shouldMatchStringRepresentationsExactly() {
+        EnumTable<Letters> table = EnumTable.of(Letters.class);
+        assertThat(table.find("a", EXACT)).isEqualTo(Letters.a);
+        assertThat(table.find("A", EXACT)).isEqualTo(Letters.A);
+        assertThat(table.find("c", EXACT)).isEqualTo(Letters.C);
+        assertThat(table.find("C", EXACT)).isNull();
+        assertThat(table.find("B", EXACT)).isNull();
+    }
+
+    @Test
+    public void shouldPreferExactMatchesIgnoringCase() {
+        EnumTable<Letters> table = EnumTable.of(Letters.class);
+        assertThat(table.find("B", CASE_INSENSITIVE)).isEqualTo(Letters.b);
+        assertThat(table.find("A", CASE_INSENSITIVE)).isEqualTo(Letters.A);
+        assertThat(table.find("sEA", CASE_INSENSITIVE)).isEqualTo(Letters.C);
+        assertThat(table.find("d", CASE_INSENSITIVE)).isNull();
+    }
+
+    @Test
+    public void shouldNotMatchAmbiguousValuesIgnoringCase() {
+        assertThat(EnumTable.of(Letters.class).find("a", CASE_INSENSITIVE)).isEqualTo(Letters.a);
+        assertThat(EnumTable.of(AmbiguousIgnoringCase.class).find("Value", CASE_INSENSITIVE)).isNull();
+    }
+
+    enum AmbiguousIgnoringCase { value, VALUE }
+
+    @Test
+    public void shouldShareTablePerEnumType() {
+        assertThat(EnumTable.of(Letters.class)).isSameAs(EnumTable.of(Letters.class));
+    }
+
+    @Test
+    public void shouldRejectValuesMatchingSeveralConstants() {
+        Throwable thrown = catchThrowable(() -> EnumTable.of(Conflicting.class));
+        assertThat(thrown).isInstanceOf(XPomException.class).hasMessageContaining("FIRST");
+    }
+
+    @Test
+    public void shouldFailWithoutStackTraceOnMiss() {
+        Throwable thrown = catchThrowable(() -> EnumTable.of(Letters.class).convert("z", EXACT));
+        assertThat(thrown).isInstanceOf(XPomException.class).hasMessageContaining("'z'");
+        assertThat(thrown.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    public void shouldIndexLargeEnums() {
+        EnumTable<Character.UnicodeScript> table = EnumTable.of(Character.UnicodeScript.class);
+        IntStream.range(0, Character.UnicodeScript.values().length).forEach(i -> {
+            Character.UnicodeScript script = Character.UnicodeScript.values()[i];
+            assertThat(table.find(script.name(), EXACT)).isEqualTo(script);
+            assertThat(table.find(script.name().toLowerCase(), CASE_INSENSITIVE)).isEqualTo(script);
+        });
+    }
+}
@@ -1,11 +1,18 @@
 package com.pseudochaos.xpom;
 
+import com.pseudochaos.xpom.annotation.EnumMatchingMode;
+import com.pseudochaos.xpom.annotation.EnumValue;
+import com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy;
 import com.pseudochaos.xpom.annotation.XPath;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import static com.pseudochaos.xpom.EnumMatching.CASE_INSENSITIVE;
+import static com.pseudochaos.xpom.ExceptionHandling.USE_DEFAULT;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 public class EnumerationsITest {
 
@@ -13,12 +20,21 @@ public class EnumerationsITest {
             "<enums>" +
                 "<timeUnit>SECONDS</timeUnit>" +
                 "<timeUnit>MILLISECONDS</timeUnit>" +
+                "<currency>usd</currency>" +
+                "<currency>EUR</currency>" +
+                "<currency>$</currency>" +
+                "<currency>Euro</currency>" +
             "</enums>";
 
     private static <T> T to(Class<T> clazz) {
         return XPomFactory.create(clazz).using(XML);
     }
 
+    enum Currency {
+        @EnumValue("$") USD,
+        @EnumValue({"€", "euro"}) EUR
+    }
+
     static class XEnum {
         @XPath("/enums/timeUnit[2]")
         TimeUnit timeUnit;
@@ -28,4 +44,50 @@ public class EnumerationsITest {
     public void enum_constant() {
         assertThat(to(XEnum.class).timeUnit).isEqualTo(TimeUnit.MILLISECONDS);
     }
+
+    static class Aliases {
+        @XPath("/enums/currency[3]") Currency dollar;
+        @XPath("/enums/currency[2]") Currency euro;
+    }
+
+    @Test
+    public void enum_constant_by_alias() {
+        Aliases aliases = to(Aliases.class);
+        assertThat(aliases.dollar).isEqualTo(Currency.USD);
+        assertThat(aliases.euro).isEqualTo(Currency.EUR);
+    }
+
+    static class ExactCase {
+        @XPath("/enums/currency[1]") Currency currency;
+    }
+
+    @Test
+    public void enum_constant_matched_exactly_by_default() {
+        Throwable thrown = catchThrowable(() -> to(ExactCase.class));
+        assertThat(thrown).isInstanceOf(ConversionException.class);
+        assertThat(thrown.getCause()).hasMessageContaining("'usd'");
+    }
+
+    @EnumMatchingMode(CASE_INSENSITIVE)
+    static class IgnoringCase {
+        @XPath("/enums/currency") Currency[] array;
+        @XPath("/enums/currency") List<Currency> list;
+    }
+
+    @Test
+    public void enum_constants_matched_ignoring_case() {
+        IgnoringCase ignoringCase = to(IgnoringCase.class);
+        assertThat(ignoringCase.array).containsExactly(Currency.USD, Currency.EUR, Currency.USD, Currency.EUR);
+        assertThat(ignoringCase.list).containsExactly(Currency.USD, Currency.EUR, Currency.USD, Currency.EUR);
+    }
+
+    @ExceptionHandlingStrategy(USE_DEFAULT)
+    static class Unmatched {
+        @XPath("/enums/timeUnit[1]") Currency currency = Currency.EUR;
+    }
+
+    @Test
+    public void unmatched_enum_constant_handled_by_strategy() {
+        assertThat(to(Unmatched.class).currency).isEqualTo(Currency.EUR);
+    }
 }
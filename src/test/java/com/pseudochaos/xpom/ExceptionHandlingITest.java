@@ -1,6 +1,7 @@
 package com.pseudochaos.xpom;
 
 import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.After;
 import org.junit.Test;
 
 import static com.pseudochaos.xpom.ExceptionHandling.FAIL;
@@ -27,6 +28,11 @@ public class ExceptionHandlingITest {
         return XPomFactory.create(clazz).using(XML);
     }
 
+    @After
+    public void restoreDefaultExceptionHandlingStrategy() {
+        XPomFactory.setExceptionHandlingStrategy(FAIL);
+    }
+
     // ------------ Value is present ------------------------------------------
 
     static class XmlValuePresent {
@@ -0,0 +1,157 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.Converter;
+import com.pseudochaos.xpom.annotation.ExtractionStrategy;
+import com.pseudochaos.xpom.annotation.MappingMode;
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.pseudochaos.xpom.ExceptionHandling.FAIL;
+import static com.pseudochaos.xpom.ExceptionHandling.USE_DEFAULT;
+import static com.pseudochaos.xpom.Mapping.GENERATED;
+import static com.pseudochaos.xpom.Mapping.REFLECTIVE;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GeneratedMappingITest {
+
+    private static final String XML =
+            "<values>" +
+                "<byte>-8</byte><short>0x10</short><int>42</int><long>9000000000</long>" +
+                "<float>1.5</float><double>2.25</double><boolean>true</boolean><char>x</char>" +
+                "<string>Hello, XPom!</string><binary>0b101</binary><enum>SECOND</enum>" +
+                "<list><item>1</item><item>2</item><item>3</item></list>" +
+            "</values>";
+
+    enum Ordinal { FIRST, SECOND }
+
+    static class BinaryConverter implements com.pseudochaos.xpom.Converter<String, Integer> {
+        @Override
+        public Integer convert(String source) {
+            return Integer.parseInt(source.substring(2), 2);
+        }
+    }
+
+    @MappingMode(GENERATED)
+    static class Values {
+        @XPath("/values/byte") byte pByte;
+        @XPath("/values/short") Short wShort;
+        @XPath("/values/int") int pInt;
+        @XPath("/values/long") long pLong;
+        @XPath("/values/float") float pFloat;
+        @XPath("/values/double") Double wDouble;
+        @XPath("/values/boolean") boolean pBoolean;
+        @XPath("/values/char") char pChar;
+        @XPath("/values/string") String string;
+        @Converter(BinaryConverter.class) @XPath("/values/binary") int binary;
+        @XPath("/values/enum") Ordinal ordinal;
+        @XPath("/values/list/item") List<Integer> list;
+        @XPath("/values/list/item") long[] array;
+        @XPath("/values/missing") String missing = "default";
+    }
+
+    @After
+    public void restoreDefaults() {
+        XPomFactory.setExceptionHandlingStrategy(FAIL);
+        XPomFactory.setMapping(REFLECTIVE);
+    }
+
+    @Test
+    public void shouldPopulateFieldsByGeneratedCode() {
+        XPom<Values> xPom = XPomFactory.create(Values.class);
+        assertThat(xPom.getMapping()).isEqualTo(GENERATED);
+        Values values = xPom.using(XML);
+        assertThat(values.pByte).isEqualTo((byte) -8);
+        assertThat(values.wShort).isEqualTo((short) 16);
+        assertThat(values.pInt).isEqualTo(42);
+        assertThat(values.pLong).isEqualTo(9_000_000_000L);
+        assertThat(values.pFloat).isEqualTo(1.5f);
+        assertThat(values.wDouble).isEqualTo(2.25);
+        assertThat(values.pBoolean).isTrue();
+        assertThat(values.pChar).isEqualTo('x');
+        assertThat(values.string).isEqualTo("Hello, XPom!");
+        assertThat(values.binary).isEqualTo(5);
+        assertThat(values.ordinal).isEqualTo(Ordinal.SECOND);
+        assertThat(values.list).containsExactly(1, 2, 3);
+        assertThat(values.array).containsExactly(1, 2, 3);
+        assertThat(values.missing).isEqualTo("default");
+    }
+
+    @MappingMode(GENERATED)
+    static class Mandatory {
+        @XPath(value = "/values/missing", mandatory = true) String missing = "default";
+    }
+
+    @Test(expected = NoValueException.class)
+    public void shouldHandleAbsentValueByStrategy() {
+        XPomFactory.create(Mandatory.class).using(XML);
+    }
+
+    @Test
+    public void shouldResolveStrategyWhenValueIsAbsent() {
+        XPom<Mandatory> xPom = XPomFactory.create(Mandatory.class);
+        XPomFactory.setExceptionHandlingStrategy(USE_DEFAULT);
+        assertThat(xPom.using(XML).missing).isEqualTo("default");
+    }
+
+    @MappingMode(GENERATED)
+    static class Malformed {
+        @XPath("/values/string") int number = 7;
+    }
+
+    @Test(expected = ConversionException.class)
+    public void shouldHandleConversionExceptionByStrategy() {
+        XPomFactory.create(Malformed.class).using(XML);
+    }
+
+    @Test
+    public void shouldKeepDefaultValueWhenConversionFailsWithUseDefault() {
+        XPomFactory.setExceptionHandlingStrategy(USE_DEFAULT);
+        assertThat(XPomFactory.create(Malformed.class).using(XML).number).isEqualTo(7);
+    }
+
+    static class Item {
+        @XPath(".") int value;
+    }
+
+    @MappingMode(GENERATED)
+    static class Nested {
+        @XPath("/values/list/item") List<Item> items;
+    }
+
+    @Test
+    public void shouldFallBackToReflectiveMappingWhenCodeCanNotBeGenerated() {
+        XPom<Nested> xPom = XPomFactory.create(Nested.class);
+        assertThat(xPom.getMapping()).isEqualTo(REFLECTIVE);
+        assertThat(xPom.using(XML).items).extracting("value").containsExactly(1, 2, 3);
+    }
+
+    @MappingMode(GENERATED)
+    @ExtractionStrategy(Extraction.STREAMING)
+    static class Record {
+        @XPath(".") int value;
+    }
+
+    @Test
+    public void shouldMapRecordsByGeneratedCode() {
+        List<Record> records = XPomFactory.create(Record.class).stream(XmlInput.of(XML), "/values/list/item")
+                .collect(toList());
+        assertThat(records).extracting("value").containsExactly(1, 2, 3);
+    }
+
+    static class Plain {
+        @XPath("/values/int") int pInt;
+    }
+
+    @Test
+    public void shouldUseMappingModeSetOnFactory() {
+        XPomFactory.setMapping(GENERATED);
+        XPom<Plain> xPom = new XPom<>(Plain.class);
+        assertThat(xPom.getMapping()).isEqualTo(GENERATED);
+        assertThat(xPom.using(XML).pInt).isEqualTo(42);
+        assertThat(new Configuration<>(Values.class).getMapping()).isEqualTo(GENERATED);
+    }
+}
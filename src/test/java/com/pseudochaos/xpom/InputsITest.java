@@ -0,0 +1,187 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.ExtractionStrategy;
+import com.pseudochaos.xpom.annotation.XPath;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pseudochaos.xpom.Extraction.DOM;
+import static com.pseudochaos.xpom.Extraction.STREAMING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnitParamsRunner.class)
+public class InputsITest {
+
+    private static final String XML =
+            "<?xml version=\"1.0\" encoding=\"%s\"?>" +
+            "<order id=\"42\">" +
+                "<customer>Zoë &amp; Renée</customer>" +
+                "<lines><line>A</line><line>Ø</line></lines>" +
+            "</order>";
+
+    @ExtractionStrategy(DOM)
+    static class DomOrder {
+        @XPath("/order/@id") int id;
+        @XPath("/order/customer") String customer;
+        @XPath("/order/lines/line") List<String> lines;
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class StreamingOrder {
+        @XPath("/order/@id") int id;
+        @XPath("/order/customer") String customer;
+        @XPath("/order/lines/line") List<String> lines;
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class PartiallyStreamingOrder {
+        @XPath("/order/customer") String customer;
+        @XPath("count(/order/lines/line)") int lineCount;
+    }
+
+    private Object inputs() {
+        List<Object[]> inputs = new ArrayList<>();
+        for (String encoding : new String[]{"UTF-8", "ISO-8859-1", "UTF-16"}) {
+            for (String kind : new String[]{"string", "reader", "stream", "bytes", "heap buffer", "direct buffer", "path"}) {
+                inputs.add(new Object[]{kind, encoding});
+            }
+        }
+        return inputs.toArray();
+    }
+
+    private static XmlInput inputOf(String kind, String encoding) throws IOException {
+        String xml = String.format(XML, encoding);
+        byte[] bytes = xml.getBytes(Charset.forName(encoding));
+        switch (kind) {
+            case "string":
+                return XmlInput.of(xml);
+            case "reader":
+                return XmlInput.of(new StringReader(xml));
+            case "stream":
+                return XmlInput.of(new ByteArrayInputStream(bytes));
+            case "bytes":
+                byte[] padded = new byte[bytes.length + 20];
+                System.arraycopy(bytes, 0, padded, 10, bytes.length);
+                return XmlInput.of(padded, 10, bytes.length);
+            case "heap buffer":
+                ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 20);
+                buffer.position(10);
+                buffer.put(bytes).flip().position(10);
+                return XmlInput.of(buffer);
+            case "direct buffer":
+                return XmlInput.of((ByteBuffer) ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+            case "path":
+                Path path = Files.createTempFile("order", ".xml");
+                path.toFile().deleteOnExit();
+                return XmlInput.of(Files.write(path, bytes));
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    @Parameters(method = "inputs")
+    @Test
+    public void shouldMapDocumentFromAnyInputWithDom(String kind, String encoding) throws Exception {
+        DomOrder order = XPomFactory.create(DomOrder.class).map(inputOf(kind, encoding)).getValue();
+        assertThat(order.id).isEqualTo(42);
+        assertThat(order.customer).isEqualTo("Zoë & Renée");
+        assertThat(order.lines).containsExactly("A", "Ø");
+    }
+
+    @Parameters(method = "inputs")
+    @Test
+    public void shouldMapDocumentFromAnyInputWithStreaming(String kind, String encoding) throws Exception {
+        StreamingOrder order = XPomFactory.create(StreamingOrder.class).map(inputOf(kind, encoding)).getValue();
+        assertThat(order.id).isEqualTo(42);
+        assertThat(order.customer).isEqualTo("Zoë & Renée");
+        assertThat(order.lines).containsExactly("A", "Ø");
+    }
+
+    @Parameters(method = "inputs")
+    @Test
+    public void shouldReadInputTwiceWhenDomIsNeededForStreaming(String kind, String encoding) throws Exception {
+        PartiallyStreamingOrder order = XPomFactory.create(PartiallyStreamingOrder.class).map(inputOf(kind, encoding)).getValue();
+        assertThat(order.customer).isEqualTo("Zoë & Renée");
+        assertThat(order.lineCount).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldMapDocumentUsingOverloads() throws Exception {
+        String xml = String.format(XML, "UTF-8");
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        XPom<StreamingOrder> xPom = XPomFactory.create(StreamingOrder.class);
+        assertThat(xPom.using(xml).customer).isEqualTo("Zoë & Renée");
+        assertThat(xPom.using(new StringReader(xml)).customer).isEqualTo("Zoë & Renée");
+        assertThat(xPom.using(new ByteArrayInputStream(bytes)).customer).isEqualTo("Zoë & Renée");
+        assertThat(xPom.using(bytes, 0, bytes.length).customer).isEqualTo("Zoë & Renée");
+        assertThat(xPom.using(ByteBuffer.wrap(bytes)).customer).isEqualTo("Zoë & Renée");
+        Path path = Files.createTempFile("order", ".xml");
+        try {
+            assertThat(xPom.using(Files.write(path, bytes)).customer).isEqualTo("Zoë & Renée");
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Header {
+        @XPath("/order/header/customer") String customer;
+    }
+
+    private static String largeOrder(int lines) {
+        StringBuilder xml = new StringBuilder("<order><header><customer>Zoë</customer></header><lines>");
+        for (int i = 0; i < lines; i++) {
+            xml.append("<line number=\"").append(i).append("\"><sku>").append(i).append("</sku></line>");
+        }
+        return xml.append("</lines></order>").toString();
+    }
+
+    @Test
+    public void shouldStopReadingStreamOnceEveryFieldIsResolved() {
+        byte[] bytes = largeOrder(100_000).getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        MappingResult<Header> result = XPomFactory.create(Header.class).map(XmlInput.of(stream));
+        assertThat(result.getValue().customer).isEqualTo("Zoë");
+        assertThat(result.getSkippedLength()).isEqualTo(-1);
+        assertThat(stream.available()).isGreaterThan(bytes.length - 64 * 1024); // Not closed and hardly read
+    }
+
+    @Test
+    public void shouldReportSkippedBytesOfBinaryInput() {
+        String header = "<order><header><customer>Zoë</customer>";
+        byte[] bytes = (header + "</header><lines/></order>").getBytes(StandardCharsets.UTF_8);
+        MappingResult<Header> result = XPomFactory.create(Header.class).map(XmlInput.of(bytes, 0, bytes.length));
+        assertThat(result.getSkippedLength()).isEqualTo(bytes.length - header.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Skus {
+        @XPath("/order/lines/line/sku") List<Integer> skus;
+    }
+
+    @Test
+    public void shouldReadLargeStreamsPartByPart() {
+        String xml = largeOrder(100_000);
+        List<Integer> fromStream = XPomFactory.create(Skus.class)
+                .using(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))).skus;
+        List<Integer> fromReader = XPomFactory.create(Skus.class).using(new StringReader(xml)).skus;
+        assertThat(fromStream).hasSize(100_000).startsWith(0, 1, 2).endsWith(99_998, 99_999);
+        assertThat(fromReader).isEqualTo(fromStream);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenFileIsMissing() {
+        XPomFactory.create(Header.class).using(new File("missing.xml").toPath());
+    }
+}
@@ -0,0 +1,38 @@
+package com.pseudochaos.xpom;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldBeEmptyWhenNothingIsRecorded() {
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMeanNanos()).isZero();
+        assertThat(histogram.getPercentileNanos(0.99)).isZero();
+    }
+
+    @Test
+    public void shouldBoundPercentilesWithinFactorOfTwo() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMeanNanos()).isEqualTo(50_500);
+        assertThat(histogram.getMaxNanos()).isEqualTo(100_000);
+        assertThat(histogram.getPercentileNanos(0.5)).isBetween(50_000L, 100_000L);
+        assertThat(histogram.getPercentileNanos(0.99)).isBetween(99_000L, 100_000L);
+        assertThat(histogram.getPercentileNanos(1)).isEqualTo(100_000);
+    }
+
+    @Test
+    public void shouldRecordExtremeDurations() {
+        histogram.record(0);
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.getPercentileNanos(0.5)).isLessThanOrEqualTo(1);
+        assertThat(histogram.getPercentileNanos(1)).isEqualTo(Long.MAX_VALUE);
+    }
+}
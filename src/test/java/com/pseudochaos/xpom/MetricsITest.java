@@ -0,0 +1,85 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy;
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.pseudochaos.xpom.ExceptionHandling.FAIL;
+import static com.pseudochaos.xpom.ExceptionHandling.USE_DEFAULT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsITest {
+
+    private static final String XML = "<root><number>NaN</number><text>value</text></root>";
+
+    private final InMemoryMetrics metrics = new InMemoryMetrics();
+
+    @ExceptionHandlingStrategy(USE_DEFAULT)
+    static class Values {
+        @XPath("/root/number") int number;
+        @XPath("/root/text") String text;
+        @XPath("/root/missing") String missing;
+    }
+
+    static class Strict {
+        @XPath("/root/number") int number;
+    }
+
+    @After
+    public void disableMetrics() {
+        XPomFactory.setMetrics(Metrics.NONE);
+    }
+
+    @Test
+    public void shouldMeasureDocumentsAndFields() {
+        XPomFactory.setMetrics(metrics);
+        XPom<Values> mapper = XPomFactory.create(Values.class);
+        mapper.using(XML);
+        mapper.using(XML);
+
+        InMemoryMetrics.MapperMetrics mapperMetrics = metrics.getMapperMetrics(Values.class);
+        assertThat(mapperMetrics.getDocuments().getCount()).isEqualTo(2);
+        assertThat(mapperMetrics.getDocuments().getTotalNanos()).isPositive();
+        assertThat(mapperMetrics.getLength()).isEqualTo(2 * XML.length());
+        assertThat(mapperMetrics.getDocumentsPerSecond()).isPositive();
+
+        InMemoryMetrics.FieldMetrics number = metrics.getFieldMetrics(field("number"));
+        assertThat(number.getExtraction().getCount()).isEqualTo(2);
+        assertThat(number.getConversion().getCount()).isEqualTo(2);
+        assertThat(number.getConversionFailures(USE_DEFAULT)).isEqualTo(2);
+        assertThat(number.getValuesNotPresent()).isZero();
+
+        InMemoryMetrics.FieldMetrics missing = metrics.getFieldMetrics(field("missing"));
+        assertThat(missing.getExtraction().getCount()).isEqualTo(2);
+        assertThat(missing.getConversion().getCount()).isZero();
+        assertThat(missing.getValuesNotPresent(USE_DEFAULT)).isEqualTo(2);
+
+        assertThat(metrics.getFieldMetrics(field("text")).getConversionFailures()).isZero();
+    }
+
+    @Test
+    public void shouldCountFailuresHandledByFailStrategy() {
+        XPomFactory.setMetrics(metrics);
+        try {
+            XPomFactory.create(Strict.class).using(XML);
+        } catch (ConversionException expected) {
+            // Counted before the strategy fails
+        }
+        XField number = metrics.getFields().keySet().iterator().next();
+        assertThat(metrics.getFieldMetrics(number).getConversionFailures(FAIL)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotMeasureAnythingWithNoMetrics() {
+        XPomFactory.create(Values.class).using(XML);
+        assertThat(metrics.getMappers()).isEmpty();
+        assertThat(metrics.getFields()).isEmpty();
+    }
+
+    private XField field(String name) {
+        return metrics.getFields().keySet().stream()
+                .filter(field -> field.getJavaField().getName().equals(name))
+                .findFirst().get();
+    }
+}
@@ -0,0 +1,219 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.Converter;
+import com.pseudochaos.xpom.annotation.ExtractionStrategy;
+import com.pseudochaos.xpom.annotation.Namespace;
+import com.pseudochaos.xpom.annotation.NamespaceContext;
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.pseudochaos.xpom.Extraction.DOM;
+import static com.pseudochaos.xpom.Extraction.STREAMING;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NestedObjectsITest {
+
+    private static final String XML =
+            "<order id=\"42\">" +
+                "<customer vip=\"true\"><name>Zoë</name><address><city>Kyiv</city></address></customer>" +
+                "<lines>" +
+                    "<line number=\"1\"><sku>A-1</sku><quantity>2</quantity></line>" +
+                    "<line number=\"2\"><sku>B-2</sku><quantity>5</quantity></line>" +
+                "</lines>" +
+            "</order>";
+
+    static class Address {
+        @XPath("city") String city;
+    }
+
+    static class Customer {
+        @XPath("name") String name;
+        @XPath("@vip") boolean vip;
+        @XPath("address") Address address;
+        @XPath("/order/@id") int orderId; // Absolute XPaths are evaluated against the whole document
+    }
+
+    static class Line {
+        @XPath("@number") int number;
+        @XPath("sku") String sku;
+        @XPath("quantity") int quantity;
+    }
+
+    @ExtractionStrategy(DOM)
+    static class DomOrder {
+        @XPath("/order/@id") int id;
+        @XPath("/order/customer") Customer customer;
+        @XPath("/order/lines/line") List<Line> lines;
+        @XPath("/order/lines/line[quantity > 3]") Line[] bulkLines;
+        @XPath("/order/payment") Customer payer;
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class StreamingOrder {
+        @XPath("/order/@id") int id;
+        @XPath("/order/customer") Customer customer;
+        @XPath("/order/lines/line") List<Line> lines;
+        @XPath("/order/lines/line[quantity > 3]") Line[] bulkLines;
+        @XPath("/order/payment") Customer payer;
+    }
+
+    private static void assertCustomer(Customer customer) {
+        assertThat(customer.name).isEqualTo("Zoë");
+        assertThat(customer.vip).isTrue();
+        assertThat(customer.address.city).isEqualTo("Kyiv");
+        assertThat(customer.orderId).isEqualTo(42);
+    }
+
+    private static void assertLines(List<Line> lines, Line[] bulkLines) {
+        assertThat(lines).extracting("number", Integer.class).containsExactly(1, 2);
+        assertThat(lines).extracting("sku", String.class).containsExactly("A-1", "B-2");
+        assertThat(lines).extracting("quantity", Integer.class).containsExactly(2, 5);
+        assertThat(bulkLines).extracting("sku", String.class).containsExactly("B-2");
+    }
+
+    @Test
+    public void shouldMapNestedObjectsWithDom() {
+        DomOrder order = XPomFactory.create(DomOrder.class).using(XML);
+        assertThat(order.id).isEqualTo(42);
+        assertCustomer(order.customer);
+        assertLines(order.lines, order.bulkLines);
+        assertThat(order.payer).isNull();
+    }
+
+    @Test
+    public void shouldMapNestedObjectsWithStreaming() {
+        StreamingOrder order = XPomFactory.create(StreamingOrder.class).using(XML);
+        assertThat(order.id).isEqualTo(42);
+        assertCustomer(order.customer);
+        assertLines(order.lines, order.bulkLines);
+        assertThat(order.payer).isNull();
+    }
+
+    static class Category {
+        @XPath("@name") String name;
+        @XPath("category") List<Category> children;
+    }
+
+    static class Catalogue {
+        @XPath("/catalogue/category") Category[] categories;
+    }
+
+    @Test
+    public void shouldMapRecursiveStructures() {
+        String xml =
+                "<catalogue>" +
+                    "<category name=\"books\"><category name=\"fiction\"><category name=\"fantasy\"/></category></category>" +
+                    "<category name=\"music\"/>" +
+                "</catalogue>";
+        Category[] categories = XPomFactory.create(Catalogue.class).using(xml).categories;
+        assertThat(categories).extracting("name").containsExactly("books", "music");
+        assertThat(categories[0].children.get(0).name).isEqualTo("fiction");
+        assertThat(categories[0].children.get(0).children.get(0).name).isEqualTo("fantasy");
+        assertThat(categories[0].children.get(0).children.get(0).children).isNull();
+        assertThat(categories[1].children).isNull();
+    }
+
+    @NamespaceContext(@Namespace(prefix = "c", uri = "urn:customers"))
+    static class NamespacedCustomer {
+        @XPath("c:name") String name;
+    }
+
+    @NamespaceContext(@Namespace(prefix = "o", uri = "urn:orders"))
+    static class NamespacedOrder {
+        @XPath("/o:order/o:customer") NamespacedCustomer customer;
+    }
+
+    @Test
+    public void shouldEvaluateNestedXPathsWithNamespacesOfNestedClass() {
+        String xml = "<order xmlns=\"urn:orders\"><customer><name xmlns=\"urn:customers\">Zoë</name></customer></order>";
+        assertThat(XPomFactory.create(NamespacedOrder.class).using(xml).customer.name).isEqualTo("Zoë");
+    }
+
+    static class MandatoryCustomer {
+        @XPath(value = "/order/customer", mandatory = true) Customer customer;
+    }
+
+    @Test(expected = NoValueException.class)
+    public void shouldThrowExceptionWhenMandatoryNestedObjectIsMissing() {
+        XPomFactory.create(MandatoryCustomer.class).using("<order/>");
+    }
+
+    static class StrictName {
+        @XPath(value = "name", mandatory = true) String name;
+    }
+
+    static class StrictCustomer {
+        @XPath("/order/customer") StrictName customer;
+    }
+
+    @Test(expected = NoValueException.class)
+    public void shouldPropagateExceptionsOfNestedMapper() {
+        XPomFactory.create(StrictCustomer.class).using("<order><customer/></order>");
+    }
+
+    static class LineSet {
+        @XPath("/order/lines/line") Set<Line> lines;
+    }
+
+    @Test(expected = XPomException.class)
+    public void shouldThrowExceptionWhenNestedObjectsAreNotCollectedIntoList() {
+        XPomFactory.create(LineSet.class);
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class OrderRecord {
+        @XPath("@id") int id;
+        @XPath("lines/line") List<Line> lines;
+    }
+
+    @Test
+    public void shouldMapNestedObjectsOfRecords() {
+        String xml = "<orders>" + XML + XML.replace("42", "43") + "</orders>";
+        List<OrderRecord> orders = XPomFactory.create(OrderRecord.class).stream(XmlInput.of(xml), "/orders/order")
+                .collect(toList());
+        assertThat(orders).extracting("id").containsExactly(42, 43);
+        assertThat(orders.get(1).lines).extracting("sku", String.class).containsExactly("A-1", "B-2");
+    }
+
+    public static class CountingConverter implements com.pseudochaos.xpom.Converter<String, String> {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public CountingConverter() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public String convert(String value) {
+            return value;
+        }
+    }
+
+    static class Sku {
+        @XPath("sku") @Converter(CountingConverter.class) String value;
+    }
+
+    static class FirstLine {
+        @XPath("/order/lines/line[1]") Sku sku;
+    }
+
+    static class AllLines {
+        @XPath("/order/lines/line") List<Sku> skus;
+        @XPath("/order/lines/line[2]") Sku last;
+    }
+
+    @Test
+    public void shouldShareMappersOfNestedClassesThroughFactory() {
+        assertThat(XPomFactory.create(FirstLine.class).using(XML).sku.value).isEqualTo("A-1");
+        AllLines lines = XPomFactory.create(AllLines.class).using(XML);
+        assertThat(lines.skus).extracting("value", String.class).containsExactly("A-1", "B-2");
+        assertThat(lines.last.value).isEqualTo("B-2");
+        assertThat(XPomFactory.create(Sku.class).using("<sku>C-3</sku>").value).isEqualTo("C-3");
+        assertThat(CountingConverter.instances.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.pseudochaos.xpom;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnitParamsRunner.class)
+public class NumbersTest {
+
+    private Object numbers() {
+        return new Object[]{
+                "0", "7", "-7", "+7", "010", "-010", "0x1a", "0X1A", "#ff", "-#80", "+0x7f",
+                "127", "128", "-128", "-129", "32767", "32768", "-32769",
+                "2147483647", "2147483648", "-2147483648", "-2147483649", "0x7fffffff", "0x80000000", "-0x80000000",
+                "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+                "", "-", "+", "0x", "#", "--1", "0x-1", "-+1", "1a", "08", "0b101", " 1", "1.0", "١٢"
+        };
+    }
+
+    @Parameters(method = "numbers")
+    @Test
+    public void shouldDecodeBytesAsByteDecode(String value) {
+        assertThat(outcome(() -> Numbers.decodeByte(value))).isEqualTo(outcome(() -> Byte.decode(value)));
+    }
+
+    @Parameters(method = "numbers")
+    @Test
+    public void shouldDecodeShortsAsShortDecode(String value) {
+        assertThat(outcome(() -> Numbers.decodeShort(value))).isEqualTo(outcome(() -> Short.decode(value)));
+    }
+
+    @Parameters(method = "numbers")
+    @Test
+    public void shouldDecodeIntsAsIntegerDecode(String value) {
+        assertThat(outcome(() -> Numbers.decodeInt(value))).isEqualTo(outcome(() -> Integer.decode(value)));
+    }
+
+    @Parameters(method = "numbers")
+    @Test
+    public void shouldDecodeLongsAsLongDecode(String value) {
+        assertThat(outcome(() -> Numbers.decodeLong(value))).isEqualTo(outcome(() -> Long.decode(value)));
+    }
+
+    private Object decimals() {
+        return new Object[]{
+                "0", "-0", "+0", "0.0", "-0.0", "1", "1.", ".5", "-.5", "0.1", "0.3", "3.14", "-2.718281828",
+                "1e22", "1e23", "1e-22", "1e-23", "1E10", "1e+10", "1.5e-3", "123456789012345678", "9007199254740993",
+                "0.30000000000000004", "1.7976931348623157e308", "4.9e-324", "1e400", "1e-400", "16777217", "3.4e38",
+                "3.14f", "3.14D", "1e", "1e+", ".", "-", "", "e5", "1.2.3", " 1", "1 ", "NaN", "-Infinity", "0x1p3",
+                "00000000000000000000000000000001.5", "0.000000000000000000000000000001"
+        };
+    }
+
+    @Parameters(method = "decimals")
+    @Test
+    public void shouldParseDoublesAsDoubleParseDouble(String value) {
+        assertThat(outcome(() -> Numbers.parseDouble(new StringBuilder(value))))
+                .isEqualTo(outcome(() -> Double.parseDouble(value)));
+    }
+
+    @Parameters(method = "decimals")
+    @Test
+    public void shouldParseFloatsAsFloatParseFloat(String value) {
+        assertThat(outcome(() -> Numbers.parseFloat(new StringBuilder(value))))
+                .isEqualTo(outcome(() -> Float.parseFloat(value)));
+    }
+
+    @Parameters({"true", "TRUE", "True", "false", "yes", "1", "", "truee", " true"})
+    @Test
+    public void shouldParseBooleansAsBooleanParseBoolean(String value) {
+        assertThat(Numbers.parseBoolean(new StringBuilder(value))).isEqualTo(Boolean.parseBoolean(value));
+    }
+
+    /**
+     * @return the decoded value or the type of the exception
+     */
+    private static Object outcome(Callable<?> decode) {
+        try {
+            return decode.call();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}
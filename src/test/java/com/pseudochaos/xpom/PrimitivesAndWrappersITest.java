@@ -1,7 +1,6 @@
 package com.pseudochaos.xpom;
 
 import com.pseudochaos.xpom.annotation.XPath;
-import com.sun.xml.internal.bind.v2.TODO;
 import org.junit.Test;
 
 import static org.assertj.core.api.StrictAssertions.assertThat;
@@ -10,7 +9,7 @@ public class PrimitivesAndWrappersITest {
 
     // TODO: unsignedInteger, unsignedLong
 
-    private static final String XML =
+    static final String XML =
             "<dataTypes>" +
                 "<byte>100</byte>" +
                 "<short>256</short>" +
@@ -0,0 +1,205 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.ExtractionStrategy;
+import com.pseudochaos.xpom.annotation.Namespace;
+import com.pseudochaos.xpom.annotation.NamespaceContext;
+import com.pseudochaos.xpom.annotation.XPath;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.pseudochaos.xpom.Extraction.DOM;
+import static com.pseudochaos.xpom.Extraction.STREAMING;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnitParamsRunner.class)
+public class RecordsITest {
+
+    private static final String XML =
+            "<orders>" +
+                "<header><date>2015-06-01</date></header>" +
+                "<order id=\"1\"><customer>Zoë</customer><lines><line>A</line><line>B</line></lines></order>" +
+                "<!-- Comments and text between records are skipped -->" +
+                "<order id=\"2\"><customer>Renée</customer><lines/></order>" +
+                "<batch><order id=\"3\"><customer>Nested</customer></order></batch>" +
+                "<order id=\"4\"><customer>Ø</customer><lines><line>C</line></lines></order>" +
+            "</orders>";
+
+    @ExtractionStrategy(DOM)
+    static class DomOrder {
+        @XPath("@id") int id;
+        @XPath("customer") String customer;
+        @XPath("lines/line") List<String> lines;
+        @XPath("count(lines/line)") int lineCount;
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class StreamingOrder {
+        @XPath("@id") int id;
+        @XPath("customer") String customer;
+        @XPath("lines/line") List<String> lines;
+        @XPath("count(lines/line)") int lineCount;
+    }
+
+    private Object classes() {
+        return new Object[]{DomOrder.class, StreamingOrder.class};
+    }
+
+    private static List<String> describe(Stream<?> orders) {
+        return orders.map(order -> {
+            if (order instanceof DomOrder) {
+                DomOrder o = (DomOrder) order;
+                return o.id + " " + o.customer + " " + o.lines + " " + o.lineCount;
+            }
+            StreamingOrder o = (StreamingOrder) order;
+            return o.id + " " + o.customer + " " + o.lines + " " + o.lineCount;
+        }).collect(toList());
+    }
+
+    @Parameters(method = "classes")
+    @Test
+    public void shouldMapEachRecordWithXPathsRelativeToIt(Class<?> clazz) {
+        try (Stream<?> orders = XPomFactory.create(clazz).stream(XmlInput.of(XML), "/orders/order")) {
+            assertThat(describe(orders)).containsExactly("1 Zoë [A, B] 2", "2 Renée null 0", "4 Ø [C] 1");
+        }
+    }
+
+    @Parameters(method = "classes")
+    @Test
+    public void shouldMapRecordsFromBytes(Class<?> clazz) {
+        InputStream stream = new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8));
+        try (Stream<?> orders = XPomFactory.create(clazz).stream(stream, "/orders/batch/order")) {
+            assertThat(describe(orders)).containsExactly("3 Nested null 0");
+        }
+    }
+
+    @Parameters(method = "classes")
+    @Test
+    public void shouldMapRecordsMatchedByPositionalPath(Class<?> clazz) throws Exception {
+        Path path = Files.createTempFile("orders", ".xml");
+        try {
+            Files.write(path, XML.getBytes(StandardCharsets.UTF_8));
+            try (Stream<?> orders = XPomFactory.create(clazz).stream(path, "/orders/order[2]")) {
+                assertThat(describe(orders)).containsExactly("2 Renée null 0");
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class AbsoluteOrder {
+        @XPath("/order/customer") String customer;
+        @XPath(".") String text;
+    }
+
+    @Test
+    public void shouldEvaluateAbsoluteXPathsAsIfRecordWereDocument() {
+        List<AbsoluteOrder> orders = XPomFactory.create(AbsoluteOrder.class)
+                .stream(XmlInput.of(XML), "/orders/order").collect(toList());
+        assertThat(orders).extracting("customer").containsExactly("Zoë", "Renée", "Ø");
+        assertThat(orders).extracting("text").containsExactly("ZoëAB", "Renée", "ØC");
+    }
+
+    @NamespaceContext({
+            @Namespace(prefix = "o", uri = "urn:orders"),
+            @Namespace(prefix = "c", uri = "urn:customers")
+    })
+    @ExtractionStrategy(STREAMING)
+    static class NamespacedOrder {
+        @XPath("c:customer") String customer;
+        @XPath("count(c:customer)") int customers;
+    }
+
+    @Test
+    public void shouldKeepNamespacesDeclaredOnAncestorsOfRecord() {
+        String xml =
+                "<o:orders xmlns:o=\"urn:orders\" xmlns:c=\"urn:customers\" xmlns=\"urn:default\">" +
+                    "<o:order><c:customer>Zoë</c:customer></o:order>" +
+                    "<o:order xmlns:c=\"urn:other\"><c:customer>Ignored</c:customer></o:order>" +
+                    "<order><c:customer>Not a record</c:customer></order>" +
+                "</o:orders>";
+        List<NamespacedOrder> orders = XPomFactory.create(NamespacedOrder.class)
+                .stream(XmlInput.of(xml), "/o:orders/o:order").collect(toList());
+        assertThat(orders).extracting("customer").containsExactly("Zoë", null);
+        assertThat(orders).extracting("customers").containsExactly(1, 0);
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Id {
+        @XPath("@id") long id;
+    }
+
+    /**
+     * Endless document of orders, generated as it's read.
+     */
+    private static InputStream endlessOrders() {
+        return new InputStream() {
+            private byte[] chunk = "<orders>".getBytes(StandardCharsets.US_ASCII);
+            private int position;
+            private long id;
+
+            @Override
+            public int read() {
+                if (position == chunk.length) {
+                    chunk = ("<order id=\"" + id++ + "\"><customer>Zoë</customer></order>").getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+                return chunk[position++] & 0xFF;
+            }
+        };
+    }
+
+    @Test
+    public void shouldReadRecordsLazily() {
+        try (Stream<Id> orders = XPomFactory.create(Id.class).stream(endlessOrders(), "/orders/order")) {
+            assertThat(orders.skip(100_000).findFirst().get().id).isEqualTo(100_000);
+        }
+    }
+
+    @Test
+    public void shouldIterateOverRecords() {
+        Iterator<Id> orders = XPomFactory.create(Id.class).iterator(XmlInput.of(XML), "/orders/order");
+        assertThat(orders.next().id).isEqualTo(1);
+        assertThat(orders.next().id).isEqualTo(2);
+        assertThat(orders.next().id).isEqualTo(4);
+        assertThat(orders.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldReturnNoRecordsWhenRootDoesNotMatch() {
+        assertThat(XPomFactory.create(Id.class).stream(XmlInput.of(XML), "/invoices/order").count()).isZero();
+    }
+
+    @Test
+    public void shouldMapRootElementAsSingleRecord() {
+        assertThat(XPomFactory.create(Id.class).stream(XmlInput.of("<order id=\"7\"/>"), "/order").collect(toList()))
+                .extracting("id").containsExactly(7L);
+    }
+
+    private Object invalidRecordPaths() {
+        return new Object[]{"//order", "/orders/order/@id", "/orders/order/text()", "orders/order", "/orders/order[@id]"};
+    }
+
+    @Parameters(method = "invalidRecordPaths")
+    @Test(expected = XPomException.class)
+    public void shouldThrowExceptionWhenRecordPathIsNotSimpleElementPath(String recordPath) {
+        XPomFactory.create(Id.class).stream(XmlInput.of(XML), recordPath);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenDocumentIsMalformed() {
+        XPomFactory.create(Id.class).stream(XmlInput.of("<orders><order id=\"1\"></orders>"), "/orders/order").count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.ExtractionStrategy;
+import com.pseudochaos.xpom.annotation.Namespace;
+import com.pseudochaos.xpom.annotation.NamespaceContext;
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.pseudochaos.xpom.Extraction.STREAMING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamingITest {
+
+    private static final String XML =
+            "<order id=\"42\" xmlns=\"com.pseudochaos.order\">" +
+                "<header>" +
+                    "<customer>Alex</customer>" +
+                    "<timeUnit>SECONDS</timeUnit>" +
+                "</header>" +
+                "<lines>" +
+                    "<line number=\"1\"><sku>A</sku><quantity>3</quantity></line>" +
+                    "<line number=\"2\"><sku>B</sku><quantity>5</quantity></line>" +
+                "</lines>" +
+            "</order>";
+
+    private static <T> T to(Class<T> clazz) {
+        return XPomFactory.create(clazz).using(XML);
+    }
+
+    @ExtractionStrategy(STREAMING)
+    @NamespaceContext(@Namespace(prefix = "o", uri = "com.pseudochaos.order"))
+    static class Order {
+        @XPath("/o:order/@id") int id;
+        @XPath("/o:order/o:header/o:customer") String customer;
+        @XPath("/o:order/o:header/o:timeUnit/text()") TimeUnit timeUnit;
+        @XPath("/o:order/o:lines/o:line[2]/o:sku") String secondSku;
+        @XPath("/o:order/o:lines/o:line/@number") int[] numbers;
+        @XPath("/o:order/o:lines/o:line/o:quantity") List<Integer> quantities;
+        @XPath("count(/o:order/o:lines/o:line)") int lineCount;
+    }
+
+    @Test
+    public void shouldMapStreamableAndNotStreamableXPaths() {
+        Order order = to(Order.class);
+        assertThat(order.id).isEqualTo(42);
+        assertThat(order.customer).isEqualTo("Alex");
+        assertThat(order.timeUnit).isEqualTo(TimeUnit.SECONDS);
+        assertThat(order.secondSku).isEqualTo("B");
+        assertThat(order.numbers).containsExactly(1, 2);
+        assertThat(order.quantities).containsExactly(3, 5);
+        assertThat(order.lineCount).isEqualTo(2);
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class MandatoryAbsent {
+        @XPath(value = "/order/header/customer", mandatory = true) String customer;
+    }
+
+    @Test(expected = NoValueException.class)
+    public void shouldApplyExceptionHandlingStrategyWhenValueIsAbsent() {
+        to(MandatoryAbsent.class); // Elements without a prefix don't match elements in the default namespace
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Header {
+        @XPath("/order/header/customer") String customer;
+        @XPath("/order/header/@version") int version;
+    }
+
+    @Test
+    public void shouldStopReadingOnceEveryFieldIsResolved() {
+        String tail = "<note>A</note></header>\r\n<lines><line number=\"1\"/></lines></order>";
+        String xml = "<order>\r\n<header version=\"2\">\n<customer>Alex</customer>" + tail;
+        MappingResult<Header> result = XPomFactory.create(Header.class).map(xml);
+        assertThat(result.getValue().customer).isEqualTo("Alex");
+        assertThat(result.getValue().version).isEqualTo(2);
+        assertThat(result.getSkippedLength()).isEqualTo(tail.length());
+    }
+
+    @Test
+    public void shouldNotNoticeMalformedTailOnceEveryFieldIsResolved() {
+        String xml = "<order><header version=\"2\"><customer>Alex</customer></header><lines><line></lines>";
+        assertThat(XPomFactory.create(Header.class).using(xml).customer).isEqualTo("Alex");
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Notes {
+        @XPath("/order/header/note") List<String> notes;
+    }
+
+    @Test
+    public void shouldReadCollectionsUntilTheyCanNotMatchAnymore() {
+        String xml = "<order><header><note>1</note></header><header><note>2</note></header></order>";
+        MappingResult<Notes> result = XPomFactory.create(Notes.class).map(xml);
+        assertThat(result.getValue().notes).containsExactly("1", "2");
+        assertThat(result.getSkippedLength()).isZero();
+    }
+
+    @ExtractionStrategy(STREAMING)
+    static class Measurements {
+        @XPath("/measurements/count") int count;
+        @XPath("/measurements/total") long total;
+        @XPath("/measurements/ratio") float ratio;
+        @XPath("/measurements/valid") boolean valid;
+        @XPath("/measurements/value") double[] values;
+        @XPath("/measurements/missing") short missing = -1;
+    }
+
+    @Test
+    public void shouldParsePrimitivesFromCapturedText() {
+        String xml = "<measurements><count>1&#50;3</count><total><![CDATA[-90]]>07199254740993</total>" +
+                "<ratio>0.25</ratio><valid>TRUE</valid><value>1.5</value><value>-2e3</value><value>0.1</value>" +
+                "<missing></missing></measurements>";
+        Measurements measurements = XPomFactory.create(Measurements.class).using(xml);
+        assertThat(measurements.count).isEqualTo(123);
+        assertThat(measurements.total).isEqualTo(-9007199254740993L);
+        assertThat(measurements.ratio).isEqualTo(0.25f);
+        assertThat(measurements.valid).isTrue();
+        assertThat(measurements.values).containsExactly(1.5, -2e3, 0.1);
+        assertThat(measurements.missing).isEqualTo((short) -1);
+    }
+
+    @Test
+    public void shouldReportNothingSkippedWhenDomIsBuilt() {
+        assertThat(XPomFactory.create(Order.class).map(XML).getSkippedLength()).isZero();
+    }
+}
@@ -0,0 +1,68 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy;
+import com.pseudochaos.xpom.annotation.XPath;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.pseudochaos.xpom.ExceptionHandling.USE_DEFAULT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracerITest {
+
+    private static final String XML = "<root><number>NaN</number><text>value</text></root>";
+
+    @ExceptionHandlingStrategy(USE_DEFAULT)
+    static class Values {
+        @XPath("/root/number") int number;
+        @XPath("/root/text") String text;
+        @XPath("/root/missing") String missing;
+    }
+
+    static class RecordingTracer implements Tracer {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void valueExtracted(XField field, Optional<?> value) {
+            events.add("extracted " + field.getJavaField().getName() + " " + (value.isPresent() ? value.get() : "NONE"));
+        }
+
+        @Override
+        public void valueNotPresent(XField field, com.pseudochaos.xpom.ExceptionHandlingStrategy strategy) {
+            events.add("not present " + field.getJavaField().getName() + " " + strategy);
+        }
+
+        @Override
+        public void conversionFailed(XField field, Exception e, com.pseudochaos.xpom.ExceptionHandlingStrategy strategy) {
+            events.add("not converted " + field.getJavaField().getName() + " " + strategy);
+        }
+    }
+
+    @After
+    public void restoreDefaultTracer() {
+        XPomFactory.setTracer(Tracer.LOGGING);
+    }
+
+    @Test
+    public void shouldReportFieldEventsToTracer() {
+        RecordingTracer tracer = new RecordingTracer();
+        XPomFactory.setTracer(tracer);
+        Values values = XPomFactory.create(Values.class).using(XML);
+        assertThat(values.text).isEqualTo("value");
+        assertThat(tracer.events).contains(
+                "extracted number NaN", "not converted number USE_DEFAULT",
+                "extracted text value",
+                "extracted missing NONE", "not present missing USE_DEFAULT");
+    }
+
+    @Test
+    public void shouldIgnoreEventsWithNoTracer() {
+        XPomFactory.setTracer(Tracer.NONE);
+        assertThat(XPomFactory.create(Values.class).using(XML).text).isEqualTo("value");
+    }
+}
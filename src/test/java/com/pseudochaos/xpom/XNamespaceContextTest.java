@@ -134,4 +134,23 @@ public class XNamespaceContextTest {
         class DuplicatedPrefixesTest {}
         new XNamespaceContext(DuplicatedPrefixesTest.class);
     }
-}
\ No newline at end of file
+
+    @NamespaceContext({
+            @Namespace(prefix = ANOTHER_PREFIX, uri = ANOTHER_URI),
+            @Namespace(prefix = PREFIX_TWO, uri = URI),
+            @Namespace(prefix = PREFIX_ONE, uri = URI),
+    })
+    private static class SameNamespacesInAnotherOrderTest {}
+
+    @Test
+    public void shouldBeEqualToContextWithTheSameBindings() {
+        javax.xml.namespace.NamespaceContext sameContext = new XNamespaceContext(SameNamespacesInAnotherOrderTest.class);
+        assertThat(sameContext).isEqualTo(commonContext);
+        assertThat(sameContext.hashCode()).isEqualTo(commonContext.hashCode());
+    }
+
+    @Test
+    public void shouldNotBeEqualToContextWithDifferentBindings() {
+        assertThat(defaultURIContext).isNotEqualTo(commonContext);
+    }
+}
@@ -1,7 +1,6 @@
 package com.pseudochaos.xpom;
 
 import com.pseudochaos.xpom.annotation.XPath;
-import com.sun.xml.internal.bind.v2.TODO;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -105,11 +104,17 @@ public class XPomDemoTest {
 
     static class FinalField { @XPath("/dataTypes/string") final String string = "changeMeViaXPath"; }
     @Test(expected = XPomException.class)
-    @Ignore("not ready yet. Don't forget about positive scenario - all annotated fields are not final")
     public void shouldThrowExceptionWhenCreatingMapperForClassWithAnnotatedFinalFields() {
         XPomFactory.create(FinalField.class);
     }
 
+    static class StaticField { @XPath("/dataTypes/string") static String string; }
+    @Test
+    public void shouldPerformMappingOfAnnotatedStaticFields() {
+        to(StaticField.class);
+        assertThat(StaticField.string).isEqualTo("Hello, XPom!");
+    }
+
     // TODO: Define a strategy of handling non annotated classes. Options: a warning to the log or exception
     static class NonAnnotatedClass { int intField; }
     @Test
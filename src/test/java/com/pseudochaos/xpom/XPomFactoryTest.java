@@ -1,11 +1,26 @@
 package com.pseudochaos.xpom;
 
+import com.pseudochaos.xpom.annotation.XPath;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class XPomFactoryTest {
 
+    private static final int THREADS = 16;
+
     @Test
     public void shouldCreateInstanceOfXPomMapper() {
         XPom<XPomFactoryTest> mapper = XPomFactory.create(XPomFactoryTest.class);
@@ -18,4 +33,100 @@ public class XPomFactoryTest {
         XPom<XPomFactoryTest> mapper2 = XPomFactory.create(XPomFactoryTest.class);
         assertThat(mapper1).isEqualTo(mapper2);
     }
-}
\ No newline at end of file
+
+    public static class CountingConverter implements com.pseudochaos.xpom.Converter<String, String> {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public CountingConverter() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public String convert(String value) {
+            return value;
+        }
+    }
+
+    static class Counted {
+        @XPath("/counted")
+        @com.pseudochaos.xpom.annotation.Converter(CountingConverter.class)
+        String value;
+    }
+
+    @Test
+    public void shouldCreateMapperOnceWhenRequestedConcurrently() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<XPom<Counted>>> mappers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                mappers.add(executor.submit(() -> {
+                    start.await();
+                    return XPomFactory.create(Counted.class);
+                }));
+            }
+            start.countDown();
+            XPom<Counted> first = mappers.get(0).get();
+            for (Future<XPom<Counted>> mapper : mappers) {
+                assertThat(mapper.get()).isSameAs(first);
+            }
+            assertThat(CountingConverter.instances.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class Reloadable {
+        @XPath("/reloadable") public String value;
+    }
+
+    @Test
+    public void shouldNotKeepMappersOfUnreachableClasses() throws Exception {
+        WeakReference<Class<?>> reloaded = createMapperOfReloadedClass();
+        for (int attempt = 0; attempt < 20 && reloaded.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertThat(reloaded.get()).isNull();
+    }
+
+    private static WeakReference<Class<?>> createMapperOfReloadedClass() throws Exception {
+        Class<?> clazz = new ReloadingClassLoader(Reloadable.class).loadClass(Reloadable.class.getName());
+        assertThat(clazz).isNotSameAs(Reloadable.class);
+        Object mapped = XPomFactory.create(clazz).using("<reloadable>A</reloadable>");
+        assertThat(clazz.getField("value").get(mapped)).isEqualTo("A");
+        return new WeakReference<>(clazz);
+    }
+
+    /**
+     * Loads its own copy of a class, as containers reloading plugins do.
+     */
+    private static class ReloadingClassLoader extends ClassLoader {
+
+        private final Class<?> reloaded;
+
+        ReloadingClassLoader(Class<?> reloaded) {
+            super(reloaded.getClassLoader());
+            this.reloaded = reloaded;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(reloaded.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            String resource = name.replace('.', '/') + ".class";
+            try (InputStream input = getParent().getResourceAsStream(resource)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int read; (read = input.read(buffer)) > 0; ) {
+                    bytes.write(buffer, 0, read);
+                }
+                return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pseudochaos.xpom.jaxp;
+
+import com.pseudochaos.xpom.XPath;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JaxpValueExtractorTest {
+
+    private static final String XML =
+            "<values>" +
+                "<scalar>Hello, XPom!</scalar>" +
+                "<item>1</item>" +
+                "<item>2</item>" +
+            "</values>";
+
+    private final JaxpValueExtractor extractor = new JaxpValueExtractor();
+
+    private static XPath xPath(String expression) {
+        return new XPath(expression, new NoNamespaceContext());
+    }
+
+    private static class NoNamespaceContext implements NamespaceContext {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    }
+
+    @Test
+    public void shouldEvaluateSeveralXPathsAgainstOnceParsedDocument() {
+        Node document = extractor.parse(XML);
+        assertThat(extractor.extractScalar(document, xPath("/values/scalar"))).isEqualTo(Optional.of("Hello, XPom!"));
+        assertThat(extractor.extractCollection(document, xPath("/values/item")).get()).containsExactly("1", "2");
+    }
+
+    @Test
+    public void shouldReturnEmptyOptionalWhenNoValueInParsedDocument() {
+        Node document = extractor.parse(XML);
+        assertThat(extractor.extractScalar(document, xPath("/values/absent"))).isEqualTo(Optional.empty());
+        assertThat(extractor.extractCollection(document, xPath("/values/absent"))).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void shouldExtractValuesFromRawXml() {
+        assertThat(extractor.extractScalar(XML, xPath("/values/scalar"))).isEqualTo(Optional.of("Hello, XPom!"));
+        assertThat(extractor.extractCollection(XML, xPath("/values/item")).get()).containsExactly("1", "2");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenXmlIsMalformed() {
+        extractor.parse("<values>");
+    }
+}
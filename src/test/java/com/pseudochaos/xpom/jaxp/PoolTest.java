@@ -0,0 +1,67 @@
+package com.pseudochaos.xpom.jaxp;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger resets = new AtomicInteger();
+
+    private Pool<Object> poolOf(int capacity) {
+        return new Pool<>(capacity, () -> { created.incrementAndGet(); return new Object(); }, item -> resets.incrementAndGet());
+    }
+
+    @Test
+    public void shouldCreateNewObjectWhenPoolIsEmpty() {
+        Pool<Object> pool = poolOf(2);
+        pool.borrow();
+        assertThat(pool.getMisses()).isEqualTo(1);
+        assertThat(pool.getHits()).isZero();
+        assertThat(created.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReuseReleasedObject() {
+        Pool<Object> pool = poolOf(2);
+        Object item = pool.borrow();
+        pool.release(item);
+        assertThat(pool.borrow()).isSameAs(item);
+        assertThat(pool.getHits()).isEqualTo(1);
+        assertThat(pool.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldResetObjectWhenItIsReleased() {
+        Pool<Object> pool = poolOf(2);
+        pool.release(pool.borrow());
+        assertThat(resets.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRetainMoreObjectsThanCapacity() {
+        Pool<Object> pool = poolOf(2);
+        Object first = pool.borrow(), second = pool.borrow(), third = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertThat(pool.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldDropReleasedObjectsAboveReducedCapacity() {
+        Pool<Object> pool = poolOf(2);
+        pool.release(pool.borrow());
+        pool.setCapacity(0);
+        pool.release(pool.borrow());
+        assertThat(pool.getSize()).isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailWhenCapacityIsNegative() {
+        poolOf(-1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.pseudochaos.xpom.jaxp;
+
+import com.pseudochaos.xpom.XPomException;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class XPathCompilerTest {
+
+    private static class SinglePrefixContext implements NamespaceContext {
+
+        private final String uri;
+
+        SinglePrefixContext(String uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return "ns".equals(prefix) ? uri : XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return uri.equals(namespaceURI) ? "ns" : null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return uri.equals(namespaceURI) ? Collections.singleton("ns").iterator() : Collections.emptyIterator();
+        }
+    }
+
+    private static final String XML = "<values xmlns:a='com.pseudochaos.one' xmlns:b='com.pseudochaos.two'>" +
+            "<a:value>one</a:value><b:value>two</b:value></values>";
+
+    @Test
+    public void shouldCompileTheSameExpressionSeparatelyForDifferentNamespaceContexts() throws Exception {
+        XPathExpression one = XPathCompiler.compile("/values/ns:value", new SinglePrefixContext("com.pseudochaos.one"));
+        XPathExpression two = XPathCompiler.compile("/values/ns:value", new SinglePrefixContext("com.pseudochaos.two"));
+        assertThat(one.evaluate(new InputSource(new StringReader(XML)))).isEqualTo("one");
+        assertThat(two.evaluate(new InputSource(new StringReader(XML)))).isEqualTo("two");
+    }
+
+    @Test
+    public void shouldCompileExpressionsOnThreadsWithoutContextClassLoader() throws Exception {
+        AtomicReference<XPathExpression> compiled = new AtomicReference<>();
+        Thread thread = new Thread(() ->
+                compiled.set(XPathCompiler.compile("/values/ns:value", new SinglePrefixContext("com.pseudochaos.two"))));
+        thread.setContextClassLoader(null);
+        thread.start();
+        thread.join();
+        assertThat(compiled.get().evaluate(new InputSource(new StringReader(XML)))).isEqualTo("two");
+    }
+
+    @Test(expected = XPomException.class)
+    public void shouldThrowExceptionWhenExpressionCanNotBeCompiled() {
+        XPathCompiler.compile("/values/[", new SinglePrefixContext("com.pseudochaos.cache"));
+    }
+}
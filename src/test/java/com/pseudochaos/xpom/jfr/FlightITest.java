@@ -0,0 +1,113 @@
+package com.pseudochaos.xpom.jfr;
+
+import com.pseudochaos.xpom.Mapping;
+import com.pseudochaos.xpom.XPom;
+import com.pseudochaos.xpom.XPomFactory;
+import com.pseudochaos.xpom.annotation.ExceptionHandlingStrategy;
+import com.pseudochaos.xpom.annotation.MappingMode;
+import com.pseudochaos.xpom.annotation.XPath;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.pseudochaos.xpom.ExceptionHandling.USE_DEFAULT;
+import static com.pseudochaos.xpom.Mapping.GENERATED;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightITest {
+
+    private static final String XML = "<root><number>NaN</number><text>value</text></root>";
+
+    private Recording recording;
+    private Path file;
+
+    @ExceptionHandlingStrategy(USE_DEFAULT)
+    static class Values {
+        @XPath("/root/number") int number;
+        @XPath("/root/text") String text;
+        @XPath("/root/missing") String missing;
+    }
+
+    @MappingMode(GENERATED)
+    static class GeneratedValues {
+        @XPath("/root/number") int number;
+        @XPath("/root/text") String text;
+    }
+
+    @Before
+    public void startRecording() throws Exception {
+        file = Files.createTempFile("xpom", ".jfr");
+        recording = new Recording();
+        for (String event : new String[]{"Parse", "Evaluate", "Convert", "ExceptionHandling"}) {
+            recording.enable("com.pseudochaos.xpom." + event).withThreshold(Duration.ZERO);
+        }
+        recording.start();
+    }
+
+    @After
+    public void deleteRecording() throws Exception {
+        recording.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldRecordEventsOfMappingDocument() throws Exception {
+        assertThat(Flight.isRecordingFields()).isTrue();
+        assertThat(XPomFactory.create(Values.class).using(XML).text).isEqualTo("value");
+        List<RecordedEvent> events = recordedEvents(Values.class);
+
+        RecordedEvent parse = only(events, "Parse");
+        assertThat(parse.getString("extraction")).isEqualTo("DOM");
+        assertThat(parse.getLong("inputLength")).isEqualTo(XML.length());
+
+        assertThat(events.stream().filter(named("Evaluate")).map(event -> event.getString("xPath")).collect(toList()))
+                .containsOnly("/root/number", "/root/text", "/root/missing");
+        assertThat(events.stream().filter(named("Convert")).map(event -> event.getString("field")).collect(toList()))
+                .containsOnly("number", "text");
+        assertThat(events.stream().filter(named("ExceptionHandling"))
+                .map(event -> event.getString("field") + " " + event.getString("cause") + " " + event.getString("strategy"))
+                .collect(toList()))
+                .containsOnly("number CONVERSION_FAILED USE_DEFAULT", "missing VALUE_NOT_PRESENT USE_DEFAULT");
+    }
+
+    @Test
+    public void shouldRecordEventsOfFieldsPopulatedByGeneratedCode() throws Exception {
+        XPom<GeneratedValues> xPom = XPomFactory.create(GeneratedValues.class);
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.GENERATED);
+        assertThat(xPom.using("<root><number>7</number><text>value</text></root>").number).isEqualTo(7);
+        List<RecordedEvent> events = recordedEvents(GeneratedValues.class);
+
+        assertThat(events.stream().filter(named("Evaluate")).map(event -> event.getString("field")).collect(toList()))
+                .containsOnly("number", "text");
+        assertThat(events.stream().filter(named("Convert")).map(event -> event.getString("field")).collect(toList()))
+                .containsOnly("number", "text");
+    }
+
+    private List<RecordedEvent> recordedEvents(Class<?> mappedClass) throws Exception {
+        recording.stop();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.pseudochaos.xpom."))
+                .filter(event -> event.getClass("mappedClass").getName().equals(mappedClass.getName()))
+                .collect(toList());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> named = events.stream().filter(named(name)).collect(toList());
+        assertThat(named).hasSize(1);
+        return named.get(0);
+    }
+
+    private static java.util.function.Predicate<RecordedEvent> named(String name) {
+        return event -> event.getEventType().getName().equals("com.pseudochaos.xpom." + name);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pseudochaos.xpom.streaming;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedFileSourceTest {
+
+    private static final NamespaceContext NO_NAMESPACES = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    };
+
+    private Path file;
+    private String xml;
+
+    @Before
+    public void writeFile() throws Exception {
+        StringBuilder xml = new StringBuilder("<catalogue>");
+        for (int i = 0; i < 5_000; i++) {
+            xml.append("<item id=\"").append(i).append("\"><name>Café №").append(i).append("</name>")
+                    .append("<description>").append(String.join("", Collections.nCopies(i % 7, "Crème brûlée. ")))
+                    .append("</description></item>");
+        }
+        this.xml = xml.append("<footer>end</footer></catalogue>").toString();
+        this.file = Files.createTempFile("catalogue", ".xml");
+        Files.write(file, this.xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void deleteFile() throws Exception {
+        Files.delete(file);
+    }
+
+    private static PathAutomaton automatonOf(List<Boolean> scalars, String... expressions) {
+        List<LocationPath> paths = asList(expressions).stream()
+                .map(expression -> LocationPath.parse(expression, NO_NAMESPACES).get())
+                .collect(toList());
+        return new PathAutomaton(paths, scalars);
+    }
+
+    @Test
+    public void shouldReadTheSameValuesAsFromStringAcrossRegions() throws Exception {
+        PathAutomaton automaton = automatonOf(asList(false, false, true),
+                "/catalogue/item/name", "/catalogue/item/@id", "/catalogue/footer");
+        PathAutomaton.Run expected = automaton.start();
+        new XmlScanner(new StringSource(xml)).scan(expected);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Small regions and frequent renumbering make markup and values cross region boundaries
+            MappedFileSource source = new MappedFileSource(channel, 1000, 5000);
+            assertThat(source.detectEncoding()).isTrue();
+            PathAutomaton.Run actual = automaton.start();
+            XmlScanner scanner = new XmlScanner(source);
+            assertThat(scanner.scan(actual)).isTrue();
+            assertThat(scanner.getSkippedLength()).isZero();
+            for (int path = 0; path < 3; path++) {
+                assertThat(valuesOf(actual, path)).isEqualTo(valuesOf(expected, path));
+            }
+            assertThat(valuesOf(actual, 0)).hasSize(5_000).contains("Café №4999");
+        }
+    }
+
+    @Test
+    public void shouldReportSkippedBytesOfFile() throws Exception {
+        PathAutomaton.Run run = automatonOf(asList(true), "/catalogue/item/name").start();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            XmlScanner scanner = new XmlScanner(new MappedFileSource(channel, 1000, 5000));
+            scanner.scan(run);
+            String read = xml.substring(0, xml.indexOf("</name>") + "</name>".length());
+            assertThat(scanner.getSkippedLength()).isEqualTo(channel.size() - read.getBytes(StandardCharsets.UTF_8).length);
+        }
+        assertThat(valuesOf(run, 0)).containsExactly("Café №0");
+    }
+
+    private static List<String> valuesOf(PathAutomaton.Run run, int path) {
+        return run.getValues()[path].stream().map(CharSequence::toString).collect(toList());
+    }
+}
@@ -0,0 +1,192 @@
+package com.pseudochaos.xpom.streaming;
+
+import org.junit.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PathAutomatonTest {
+
+    private static final NamespaceContext NO_NAMESPACES = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    };
+
+    private static final PathAutomaton.Attributes NO_ATTRIBUTES = new PathAutomaton.Attributes() {
+        @Override
+        public int getAttributeCount() {
+            return 0;
+        }
+
+        @Override
+        public String getAttributeNamespace(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        public String getAttributeLocalName(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+    };
+
+    private static PathAutomaton automatonOf(Boolean scalar, String... expressions) {
+        List<LocationPath> paths = asList(expressions).stream()
+                .map(expression -> LocationPath.parse(expression, NO_NAMESPACES).get())
+                .collect(toList());
+        return new PathAutomaton(paths, Collections.nCopies(paths.size(), scalar));
+    }
+
+    @Test
+    public void shouldShareStatesOfCommonPrefixes() {
+        PathAutomaton automaton = automatonOf(true,
+                "/order/header/id", "/order/header/date", "/order/lines/line/sku", "/order/lines/line/@number");
+        assertThat(automaton.size()).isEqualTo(7); // order, header, id, date, lines, line, sku
+    }
+
+    @Test
+    public void shouldNotShareStatesOfStepsWithDifferentPredicates() {
+        assertThat(automatonOf(true, "/a/b[1]/c", "/a/b[2]/c", "/a/b/c").size()).isEqualTo(7);
+    }
+
+    @Test
+    public void shouldReportSubtreeWhichCanNotBeMatchedByAnyPath() {
+        PathAutomaton.Run run = automatonOf(true, "/order/header/id").start();
+        assertThat(run.startElement("", "order", NO_ATTRIBUTES)).isTrue();
+        assertThat(run.startElement("", "lines", NO_ATTRIBUTES)).isFalse();
+        assertThat(run.startElement("", "header", NO_ATTRIBUTES)).isTrue();
+        assertThat(run.startElement("", "id", NO_ATTRIBUTES)).isTrue();
+        run.text("42".toCharArray(), 0, 2);
+        run.endElement();
+        run.endElement();
+        run.endElement();
+        assertThat(valuesOf(run, 0)).containsExactly("42");
+    }
+
+    @Test
+    public void shouldDispatchTextToAllElementsCapturingIt() {
+        PathAutomaton.Run run = automatonOf(false, "/a/b", "/a/b/c", "/a/*").start();
+        run.startElement("", "a", NO_ATTRIBUTES);
+        run.startElement("", "b", NO_ATTRIBUTES);
+        run.text("1".toCharArray(), 0, 1);
+        run.startElement("", "c", NO_ATTRIBUTES);
+        run.text("2".toCharArray(), 0, 1);
+        run.endElement();
+        run.endElement();
+        run.endElement();
+        assertThat(valuesOf(run, 0)).containsExactly("12");
+        assertThat(valuesOf(run, 1)).containsExactly("2");
+        assertThat(valuesOf(run, 2)).containsExactly("12");
+    }
+
+    @Test
+    public void shouldCompleteOnceEveryScalarPathIsResolved() {
+        PathAutomaton.Run run = automatonOf(true, "/order/header/id", "/order/@id").start();
+        run.startElement("", "order", attributes("id", "1"));
+        run.startElement("", "header", NO_ATTRIBUTES);
+        run.startElement("", "id", NO_ATTRIBUTES);
+        run.text("42".toCharArray(), 0, 2);
+        assertThat(run.isComplete()).isFalse();
+        run.endElement();
+        assertThat(run.isComplete()).isTrue();
+    }
+
+    @Test
+    public void shouldNotCompleteWhileCollectionPathCanStillMatch() {
+        PathAutomaton.Run run = automatonOf(false, "/order/lines/line").start();
+        run.startElement("", "order", NO_ATTRIBUTES);
+        run.startElement("", "lines", NO_ATTRIBUTES);
+        run.startElement("", "line", NO_ATTRIBUTES);
+        run.endElement();
+        assertThat(run.isComplete()).isFalse();
+        run.endElement();
+        assertThat(run.isComplete()).isFalse(); // Another <lines> may follow
+        run.endElement();
+        assertThat(run.isComplete()).isTrue();
+    }
+
+    @Test
+    public void shouldCompleteWhenRootElementCanNotBeMatched() {
+        PathAutomaton.Run run = automatonOf(false, "/order/lines/line").start();
+        assertThat(run.isComplete()).isFalse();
+        assertThat(run.startElement("", "invoice", NO_ATTRIBUTES)).isFalse();
+        assertThat(run.isComplete()).isTrue();
+    }
+
+    @Test
+    public void shouldSkipSubtreesOnceTheirPathsAreResolved() {
+        PathAutomaton.Run run = automatonOf(true, "/order/line/sku", "/order/@id").start();
+        run.startElement("", "order", NO_ATTRIBUTES);
+        assertThat(run.startElement("", "line", NO_ATTRIBUTES)).isTrue();
+        run.startElement("", "sku", NO_ATTRIBUTES);
+        run.text("A".toCharArray(), 0, 1);
+        run.endElement();
+        run.endElement();
+        assertThat(run.startElement("", "line", NO_ATTRIBUTES)).isFalse();
+        assertThat(valuesOf(run, 0)).containsExactly("A");
+    }
+
+    @Test
+    public void shouldTellElementsWhichCanBeIgnoredByLocalName() {
+        PathAutomaton.Run run = automatonOf(false, "/order/lines/line", "/order/header/*").start();
+        run.startElement("", "order", NO_ATTRIBUTES);
+        assertThat(run.isIgnorable("lines")).isFalse();
+        assertThat(run.isIgnorable("footer")).isTrue();
+        run.startElement("", "header", NO_ATTRIBUTES);
+        assertThat(run.isIgnorable("anything")).isFalse(); // Wildcard
+        run.startElement("", "id", NO_ATTRIBUTES);
+        assertThat(run.isIgnorable("anything")).isFalse(); // Whole string value of <id> is captured
+        assertThat(run.isCapturingText()).isTrue();
+    }
+
+    private static PathAutomaton.Attributes attributes(String localName, String value) {
+        return new PathAutomaton.Attributes() {
+            @Override
+            public int getAttributeCount() {
+                return 1;
+            }
+
+            @Override
+            public String getAttributeNamespace(int index) {
+                return "";
+            }
+
+            @Override
+            public String getAttributeLocalName(int index) {
+                return localName;
+            }
+
+            @Override
+            public String getAttributeValue(int index) {
+                return value;
+            }
+        };
+    }
+
+    private static List<String> valuesOf(PathAutomaton.Run run, int path) {
+        return run.getValues()[path].stream().map(CharSequence::toString).collect(toList());
+    }
+}
@@ -0,0 +1,69 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.XmlInput;
+import org.junit.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordReaderTest {
+
+    private static final NamespaceContext NO_NAMESPACES = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    };
+
+    private static List<String> records(XmlInput input, String path) {
+        List<String> records = new ArrayList<>();
+        try (RecordReader reader = new RecordReader(input, LocationPath.parse(path, NO_NAMESPACES).get())) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    @Test
+    public void shouldReturnRecordsAsTheyAreWritten() {
+        String xml = "<a><b x='1'>&lt;<![CDATA[<c/>]]><?pi?></b>text<b/><c><b>nested</b></c></a>";
+        assertThat(records(XmlInput.of(xml), "/a/b")).containsExactly("<b x='1'>&lt;<![CDATA[<c/>]]><?pi?></b>", "<b/>");
+    }
+
+    @Test
+    public void shouldDeclareNamespacesOfAncestorsOnRecord() {
+        String xml = "<a xmlns='urn:a' xmlns:p='urn:p' xmlns:q='urn:q'><b xmlns:p='urn:b'><c xmlns=''/></b></a>";
+        assertThat(records(XmlInput.of(xml), "/*/*/*")).containsExactly("<c xmlns:q=\"urn:q\" xmlns:p=\"urn:b\" xmlns=''/>");
+    }
+
+    @Test
+    public void shouldEscapeNamespacesDeclaredOnRecord() {
+        String xml = "<a xmlns:p=\"urn:&quot;&amp;&lt;\"><p:b/></a>";
+        assertThat(records(XmlInput.of(xml), "/a/*")).containsExactly("<p:b xmlns:p=\"urn:&quot;&amp;&lt;\"/>");
+    }
+
+    @Test
+    public void shouldReadRecordsFromStreamsBeyondWindow() {
+        StringBuilder xml = new StringBuilder("<a>");
+        for (int i = 0; i < 10_000; i++) {
+            xml.append("<b>").append(i).append("</b><skipped>").append(i).append("</skipped>");
+        }
+        byte[] bytes = xml.append("</a>").toString().getBytes(StandardCharsets.UTF_8);
+        List<String> records = records(XmlInput.of(new ByteArrayInputStream(bytes)), "/a/b");
+        assertThat(records).hasSize(10_000).startsWith("<b>0</b>").endsWith("<b>9999</b>");
+    }
+}
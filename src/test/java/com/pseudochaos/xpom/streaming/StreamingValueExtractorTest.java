@@ -0,0 +1,190 @@
+package com.pseudochaos.xpom.streaming;
+
+import com.pseudochaos.xpom.XPath;
+import com.pseudochaos.xpom.jaxp.JaxpValueExtractor;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnitParamsRunner.class)
+public class StreamingValueExtractorTest {
+
+    private static final String XML =
+            "<?xml version=\"1.0\"?>" +
+            "<order id=\"42\" xmlns:p=\"com.pseudochaos.price\">" +
+                "<header>" +
+                    "<customer>Alex</customer>" +
+                    "<empty/>" +
+                    "<note>first <b>bold</b> second<!-- comment --> third</note>" +
+                    "<cdata><![CDATA[<raw>]]> &amp; text</cdata>" +
+                "</header>" +
+                "<lines>" +
+                    "<line number=\"1\"><sku>A</sku><p:price p:currency=\"EUR\">10.5</p:price></line>" +
+                    "<line number=\"2\"><sku>B</sku><price>20</price></line>" +
+                    "<line number=\"3\"><sku>C</sku><p:price p:currency=\"USD\">30</p:price></line>" +
+                "</lines>" +
+                "<lines>" +
+                    "<line number=\"4\"><sku>D</sku></line>" +
+                "</lines>" +
+            "</order>";
+
+    private static final NamespaceContext CONTEXT = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return "p".equals(prefix) ? "com.pseudochaos.price" : XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    };
+
+    private final JaxpValueExtractor dom = new JaxpValueExtractor();
+
+    private Object streamableExpressions() {
+        return new Object[]{
+                "/order", "/order/@id", "/order/header/customer", "/order/header/customer/text()",
+                "/order/header/empty", "/order/header/absent", "/order/header/note", "/order/header/note/text()",
+                "/order/header/cdata", "/order/lines/line", "/order/lines/line/sku", "/order/lines/line[2]/sku",
+                "/order/lines[2]/line/sku", "/order/lines/line[5]/sku", "/order/lines/line/@number",
+                "/order/lines/line/@*", "/order/lines/*", "/order/*/line/sku", "/order/lines/line/p:price",
+                "/order/lines/line/p:*", "/order/lines/line/p:price/@p:currency", "/order/lines/line/price",
+                "/order/lines/line/*[2]", "/order/lines/line/sku/text()", "/another/root",
+        };
+    }
+
+    @Parameters(method = "streamableExpressions")
+    @Test
+    public void shouldExtractTheSameScalarAsDom(String expression) {
+        XPath xPath = new XPath(expression, CONTEXT);
+        StreamingValueExtractor streaming = new StreamingValueExtractor(singletonList(xPath), emptyList());
+        assertThat(streaming.isStreamable(xPath)).isTrue();
+        assertThat(streaming.extractScalar(streaming.parse(XML), xPath)).isEqualTo(dom.extractScalar(XML, xPath));
+    }
+
+    @Parameters(method = "streamableExpressions")
+    @Test
+    public void shouldExtractTheSameCollectionAsDom(String expression) {
+        XPath xPath = new XPath(expression, CONTEXT);
+        StreamingValueExtractor streaming = new StreamingValueExtractor(emptyList(), singletonList(xPath));
+        assertThat(streaming.isStreamable(xPath)).isTrue();
+        assertThat(streaming.extractCollection(streaming.parse(XML), xPath).map(Arrays::asList))
+                .isEqualTo(dom.extractCollection(XML, xPath).map(Arrays::asList));
+    }
+
+    private Object notStreamableExpressions() {
+        return new Object[]{
+                "count(/order/lines/line)", "//sku", "/order/lines/line[sku='B']/price", "/order/lines/line[last()]/sku",
+                "/order/lines/../@id", "/order/child::lines/line/sku", "order/lines",
+        };
+    }
+
+    @Parameters(method = "notStreamableExpressions")
+    @Test
+    public void shouldFallBackToDomForNotStreamableExpressions(String expression) {
+        XPath xPath = new XPath(expression, CONTEXT);
+        StreamingValueExtractor streaming = new StreamingValueExtractor(singletonList(xPath), emptyList());
+        assertThat(streaming.isStreamable(xPath)).isFalse();
+        assertThat(streaming.extractScalar(streaming.parse(XML), xPath)).isEqualTo(dom.extractScalar(XML, xPath));
+    }
+
+    @Test
+    public void shouldEvaluateSeveralPathsInOnePass() {
+        XPath customer = new XPath("/order/header/customer", CONTEXT);
+        XPath skus = new XPath("/order/lines/line/sku", CONTEXT);
+        StreamingValueExtractor streaming = new StreamingValueExtractor(singletonList(customer), singletonList(skus));
+        StreamingDocument document = streaming.parse(XML);
+        assertThat(streaming.extractScalar(document, customer)).isEqualTo(Optional.of("Alex"));
+        assertThat(streaming.extractCollection(document, skus).get()).containsExactly("A", "B", "C", "D");
+    }
+
+    @Test
+    public void shouldExtractTheSameValuesAsDomWhenAllPathsAreEvaluatedTogether() {
+        List<XPath> scalars = new ArrayList<>(), collections = new ArrayList<>();
+        for (Object expression : (Object[]) streamableExpressions()) {
+            scalars.add(new XPath((String) expression, CONTEXT));
+            collections.add(new XPath((String) expression, CONTEXT));
+        }
+        StreamingValueExtractor streaming = new StreamingValueExtractor(scalars, collections);
+        StreamingDocument document = streaming.parse(XML);
+        for (XPath xPath : scalars) {
+            assertThat(streaming.extractScalar(document, xPath)).as(xPath.asString()).isEqualTo(dom.extractScalar(XML, xPath));
+        }
+        for (XPath xPath : collections) {
+            assertThat(streaming.extractCollection(document, xPath).map(Arrays::asList)).as(xPath.asString())
+                    .isEqualTo(dom.extractCollection(XML, xPath).map(Arrays::asList));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenXmlIsMalformed() {
+        XPath customer = new XPath("/order/header/customer", CONTEXT);
+        new StreamingValueExtractor(singletonList(customer), emptyList()).parse("<order><header></order>");
+    }
+
+    private Object documentsWithTrickyMarkup() {
+        return new Object[]{
+                "<order><skipped a=\"1>2\" b='x/>'><!-- <x> --><![CDATA[</skipped>]]><?pi <x>?><x/></skipped><sku>A</sku></order>",
+                "<order><sku a=\"&lt;&#x41;&#66;&quot;\">&amp;&lt;&gt;&apos;&quot;&#233;&#x1F600;</sku></order>",
+                "<order><sku a=\"1\r\n2\t3\n4\">1\r\n2\r3\n</sku></order>",
+                "<?xml version=\"1.0\"?>\n<!-- prolog -->\n<order><sku a=\"A\">x</sku></order>\n<!-- epilog -->\n",
+                "<!DOCTYPE order [<!ENTITY customer \"Alex\">]><order><sku a=\"&customer;\">&customer;</sku></order>",
+                "<p:order xmlns:p=\"com.pseudochaos.price\" xmlns=\"default\"><p:sku xmlns:p=\"another\">A</p:sku><sku>B</sku></p:order>",
+        };
+    }
+
+    @Parameters(method = "documentsWithTrickyMarkup")
+    @Test
+    public void shouldReadTheSameValuesAsDomFromTrickyMarkup(String xml) {
+        List<XPath> xPaths = Arrays.asList(new XPath("/order/sku", CONTEXT), new XPath("/order/sku/@a", CONTEXT),
+                new XPath("/*/*", CONTEXT), new XPath("/p:order/p:sku", CONTEXT));
+        StreamingValueExtractor streaming = new StreamingValueExtractor(emptyList(), xPaths);
+        StreamingDocument document = streaming.parse(xml);
+        for (XPath xPath : xPaths) {
+            assertThat(streaming.extractCollection(document, xPath).map(Arrays::asList)).as(xPath.asString())
+                    .isEqualTo(dom.extractCollection(xml, xPath).map(Arrays::asList));
+        }
+    }
+
+    @Test
+    public void shouldSkipSubtreesWithMarkupLookingLikeTags() {
+        String xml = "\uFEFF<order><skipped a=\"1>2\" b='x/>'><!-- <x> --><![CDATA[</skipped>]]><?pi <x>?><x/>" +
+                "</skipped><sku>A</sku></order>";
+        XPath skus = new XPath("/order/sku", CONTEXT);
+        StreamingValueExtractor streaming = new StreamingValueExtractor(emptyList(), singletonList(skus));
+        assertThat(streaming.extractCollection(streaming.parse(xml), skus).get()).containsExactly("A");
+    }
+
+    private Object malformedDocuments() {
+        return new Object[]{
+                "", "text<order/>", "<order>", "<order><skipped><x></skipped>", "<order><sku>A</order>",
+                "<order><sku a=1>A</sku></order>", "<order><sku>&unknown;</sku></order>", "<order><q:sku/></order>",
+                "</order>", "<![CDATA[A]]><order/>", "<order><sku b='1' b='2'>A</sku></order>",
+                "<order xmlns:q='urn:a' xmlns:q='urn:b'/>", "<order><sku>A]]>B</sku></order>", "<order><sku>&#0;</sku></order>",
+                "<order><sku>&#xD800;</sku></order>", "<order><sku>\u0001</sku></order>", "<order><sku b='\u0001'/></order>",
+                "<1order/>", "<order><1sku/></order>", "<order><sku>\uD800A</sku></order>",
+        };
+    }
+
+    @Parameters(method = "malformedDocuments")
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenMalformedMarkupIsRead(String xml) {
+        XPath skus = new XPath("/order/sku", CONTEXT);
+        new StreamingValueExtractor(emptyList(), singletonList(skus)).parse(xml);
+    }
+}
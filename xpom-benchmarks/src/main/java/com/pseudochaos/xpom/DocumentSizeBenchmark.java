@@ -0,0 +1,55 @@
+package com.pseudochaos.xpom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping documents from 1 KB to 50 MB: only the header, which streaming extraction finds without reading the rest,
+ * and every record.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DocumentSizeBenchmark {
+
+    @Param({"1024", "65536", "1048576", "52428800"})
+    int length;
+
+    @Param({"DOM", "STREAMING"})
+    Extraction extraction;
+
+    private XPom<?> header;
+    private XPom<?> records;
+    private byte[] xml;
+
+    @Setup
+    public void createDocument() {
+        header = Mappers.create(Fixtures.Orders.class, extraction, Mapping.REFLECTIVE);
+        records = Mappers.create(Fixtures.AllOrders.class, extraction, Mapping.REFLECTIVE);
+        xml = Fixtures.orders(length);
+    }
+
+    @Benchmark
+    public Object header() {
+        return header.using(xml, 0, xml.length);
+    }
+
+    @Benchmark
+    public Object records() {
+        return records.using(xml, 0, xml.length);
+    }
+}
@@ -0,0 +1,85 @@
+package com.pseudochaos.xpom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a converted value to a field, as it's done for every field of every document: {@code Field.set}, as
+ * mappers did before, versus {@link FieldAccessor}. Fields are made accessible once, when the benchmark is set up,
+ * so only the writes are measured. Ints are written from a counter, so values past the cache of {@code Integer} are
+ * boxed the way converted values are.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldWriteBenchmark {
+
+    static class Target {
+        String text;
+        int number;
+    }
+
+    private final Target target = new Target();
+    private final String text = "value";
+    private int number = 1_000;
+
+    private Field textField;
+    private Field numberField;
+    private FieldAccessor textAccessor;
+    private FieldAccessor numberAccessor;
+    private MethodHandle numberSetter;
+
+    @Setup
+    public void resolveFields() throws NoSuchFieldException {
+        textField = Target.class.getDeclaredField("text");
+        numberField = Target.class.getDeclaredField("number");
+        textField.setAccessible(true);
+        numberField.setAccessible(true);
+        textAccessor = new FieldAccessor(textField);
+        numberAccessor = new FieldAccessor(numberField);
+        numberSetter = numberAccessor.getPrimitiveSetter();
+    }
+
+    @Benchmark
+    public void objectByFieldSet() throws IllegalAccessException {
+        textField.set(target, text);
+    }
+
+    @Benchmark
+    public void objectByAccessor() {
+        textAccessor.set(target, text);
+    }
+
+    @Benchmark
+    public void primitiveByFieldSet() throws IllegalAccessException {
+        numberField.set(target, number++);
+    }
+
+    @Benchmark
+    public void primitiveByAccessor() {
+        numberAccessor.set(target, number++);
+    }
+
+    /**
+     * The primitive setter takes the value unboxed, as generated mappers write converted primitives.
+     */
+    @Benchmark
+    public void primitiveByPrimitiveSetter() throws Throwable {
+        numberSetter.invokeExact((Object) target, number++);
+    }
+}
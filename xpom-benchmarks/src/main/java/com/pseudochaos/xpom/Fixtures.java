@@ -0,0 +1,176 @@
+package com.pseudochaos.xpom;
+
+import com.pseudochaos.xpom.annotation.Namespace;
+import com.pseudochaos.xpom.annotation.NamespaceContext;
+import com.pseudochaos.xpom.annotation.XPath;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotated classes and documents mapped by benchmarks, each stressing a part of the pipeline.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Many fields with one value each: dominated by XPath evaluation and conversion of small values.
+     */
+    public static class Scalars {
+        @XPath("/record/id") long id;
+        @XPath("/record/@version") int version;
+        @XPath("/record/name") String name;
+        @XPath("/record/description") String description;
+        @XPath("/record/price") double price;
+        @XPath("/record/discount") float discount;
+        @XPath("/record/quantity") int quantity;
+        @XPath("/record/weight") short weight;
+        @XPath("/record/flags") byte flags;
+        @XPath("/record/active") boolean active;
+        @XPath("/record/grade") char grade;
+        @XPath("/record/boxed/id") Long boxedId;
+        @XPath("/record/boxed/quantity") Integer boxedQuantity;
+        @XPath("/record/boxed/price") Double boxedPrice;
+        @XPath("/record/boxed/active") Boolean boxedActive;
+        @XPath("/record/missing") String missing;
+    }
+
+    public static String scalars() {
+        return "<record version=\"3\">" +
+                    "<id>9007199254740993</id>" +
+                    "<name>Benchmark record</name>" +
+                    "<description>A record with a value in every field but one</description>" +
+                    "<price>1234.5678</price>" +
+                    "<discount>0.15</discount>" +
+                    "<quantity>42</quantity>" +
+                    "<weight>1200</weight>" +
+                    "<flags>0x7f</flags>" +
+                    "<active>true</active>" +
+                    "<grade>A</grade>" +
+                    "<boxed><id>-17</id><quantity>#ff</quantity><price>-0.5</price><active>false</active></boxed>" +
+                "</record>";
+    }
+
+    /**
+     * Few fields with many values each: dominated by collecting values and converting them in bulk.
+     */
+    public static class Arrays {
+        @XPath("/series/point/@x") int[] xs;
+        @XPath("/series/point/@y") double[] ys;
+        @XPath("/series/point/label") String[] labels;
+        @XPath("/series/point/weight") List<Integer> weights;
+        @XPath("/series/point/label") List<String> labelList;
+    }
+
+    public static String arrays() {
+        StringBuilder xml = new StringBuilder("<series>");
+        for (int i = 0; i < 100; i++) {
+            xml.append("<point x=\"").append(i).append("\" y=\"").append(i * 0.25).append("\">")
+                    .append("<label>point-").append(i).append("</label>")
+                    .append("<weight>").append(i % 7).append("</weight>")
+                    .append("</point>");
+        }
+        return xml.append("</series>").toString();
+    }
+
+    /**
+     * Enum constants, as single values and as arrays.
+     */
+    public static class Enums {
+        @XPath("/schedule/unit") TimeUnit unit;
+        @XPath("/schedule/timeout/@unit") TimeUnit timeoutUnit;
+        @XPath("/schedule/steps/step") TimeUnit[] steps;
+        @XPath("/schedule/steps/step") List<TimeUnit> stepList;
+    }
+
+    public static String enums() {
+        StringBuilder xml = new StringBuilder("<schedule><unit>SECONDS</unit><timeout unit=\"MILLISECONDS\"/><steps>");
+        TimeUnit[] units = TimeUnit.values();
+        for (int i = 0; i < 50; i++) {
+            xml.append("<step>").append(units[i % units.length]).append("</step>");
+        }
+        return xml.append("</steps></schedule>").toString();
+    }
+
+    /**
+     * Elements and attributes in several namespaces, matched by prefixes of {@code @NamespaceContext}.
+     */
+    @NamespaceContext({
+            @Namespace(prefix = "o", uri = "urn:pseudochaos:order"),
+            @Namespace(prefix = "c", uri = "urn:pseudochaos:customer"),
+            @Namespace(prefix = "p", uri = "urn:pseudochaos:product")
+    })
+    public static class Namespaced {
+        @XPath("/o:order/@o:id") long id;
+        @XPath("/o:order/c:customer/c:name") String customer;
+        @XPath("/o:order/c:customer/c:address/c:city") String city;
+        @XPath("/o:order/o:lines/o:line/p:sku") String[] skus;
+        @XPath("/o:order/o:lines/o:line/o:quantity") int[] quantities;
+        @XPath("/o:order/o:total") double total;
+    }
+
+    public static String namespaced() {
+        StringBuilder xml = new StringBuilder(
+                "<o:order xmlns:o=\"urn:pseudochaos:order\" xmlns:c=\"urn:pseudochaos:customer\" " +
+                        "xmlns:p=\"urn:pseudochaos:product\" o:id=\"1001\">" +
+                "<c:customer><c:name>Alex</c:name><c:address><c:city>Lisbon</c:city></c:address></c:customer>" +
+                "<o:lines>");
+        for (int i = 0; i < 20; i++) {
+            xml.append("<o:line><p:sku>SKU-").append(i).append("</p:sku><o:quantity>").append(i + 1)
+                    .append("</o:quantity></o:line>");
+        }
+        return xml.append("</o:lines><o:total>210.5</o:total></o:order>").toString();
+    }
+
+    /**
+     * Header followed by repeated records, for documents of any size.
+     */
+    public static class Orders {
+        @XPath("/orders/header/id") String id;
+        @XPath("/orders/header/created") long created;
+    }
+
+    /**
+     * Same documents as {@link Orders}, but every record is mapped.
+     */
+    public static class AllOrders {
+        @XPath("/orders/header/id") String id;
+        @XPath("/orders/order/@id") int[] ids;
+        @XPath("/orders/order/total") double[] totals;
+    }
+
+    /**
+     * @return document of at least the given length in bytes
+     */
+    public static byte[] orders(int length) {
+        StringBuilder xml = new StringBuilder(length + 256)
+                .append("<orders><header><id>batch-1</id><created>1700000000000</created></header>");
+        for (int i = 0; xml.length() < length; i++) {
+            xml.append("<order id=\"").append(i).append("\"><customer>customer-").append(i % 1000)
+                    .append("</customer><total>").append(i % 10_000 / 100.0).append("</total></order>");
+        }
+        return xml.append("</orders>").toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    static Class<?> fixture(String name) {
+        switch (name) {
+            case "scalars": return Scalars.class;
+            case "arrays": return Arrays.class;
+            case "enums": return Enums.class;
+            case "namespaced": return Namespaced.class;
+            default: throw new IllegalArgumentException("No fixture " + name);
+        }
+    }
+
+    static String document(String name) {
+        switch (name) {
+            case "scalars": return scalars();
+            case "arrays": return arrays();
+            case "enums": return enums();
+            case "namespaced": return namespaced();
+            default: throw new IllegalArgumentException("No fixture " + name);
+        }
+    }
+}
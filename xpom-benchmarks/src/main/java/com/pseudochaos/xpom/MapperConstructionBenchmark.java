@@ -0,0 +1,49 @@
+package com.pseudochaos.xpom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a mapper, as it's done once per class by {@link XPomFactory}: reading annotations, resolving converters,
+ * compiling XPaths and generating code.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperConstructionBenchmark {
+
+    @Param({"scalars", "arrays", "enums", "namespaced"})
+    String fixture;
+
+    @Param({"DOM", "STREAMING"})
+    Extraction extraction;
+
+    @Param({"REFLECTIVE", "GENERATED"})
+    Mapping mapping;
+
+    private Class<?> type;
+
+    @Setup
+    public void resolveFixture() {
+        type = Fixtures.fixture(fixture);
+    }
+
+    @Benchmark
+    public Object create() {
+        return Mappers.create(type, extraction, mapping);
+    }
+}
@@ -0,0 +1,23 @@
+package com.pseudochaos.xpom;
+
+/**
+ * Creates mappers bypassing the cache of {@link XPomFactory}, so each benchmark gets a mapper of its own settings.
+ */
+final class Mappers {
+
+    private Mappers() {
+    }
+
+    static synchronized <T> XPom<T> create(Class<T> type, Extraction extraction, Mapping mapping) {
+        Extraction defaultExtraction = XPomFactory.getExtractionStrategy();
+        Mapping defaultMapping = XPomFactory.getMapping();
+        XPomFactory.setExtractionStrategy(extraction);
+        XPomFactory.setMapping(mapping);
+        try {
+            return new XPom<>(type);
+        } finally {
+            XPomFactory.setExtractionStrategy(defaultExtraction);
+            XPomFactory.setMapping(defaultMapping);
+        }
+    }
+}
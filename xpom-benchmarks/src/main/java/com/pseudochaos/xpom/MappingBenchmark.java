@@ -0,0 +1,51 @@
+package com.pseudochaos.xpom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping small documents with scalars, arrays and collections, enums and namespaces, by every extraction strategy
+ * and mapping mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"scalars", "arrays", "enums", "namespaced"})
+    String fixture;
+
+    @Param({"DOM", "STREAMING"})
+    Extraction extraction;
+
+    @Param({"REFLECTIVE", "GENERATED"})
+    Mapping mapping;
+
+    private XPom<?> mapper;
+    private String xml;
+
+    @Setup
+    public void createMapper() {
+        mapper = Mappers.create(Fixtures.fixture(fixture), extraction, mapping);
+        xml = Fixtures.document(fixture);
+    }
+
+    @Benchmark
+    public Object map() {
+        return mapper.using(xml);
+    }
+}
@@ -0,0 +1,149 @@
+package com.pseudochaos.xpom.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates a corpus of documents of the given shape along with the annotated class mapping them,
+ * {@code fixtures.Corpus}, which {@link LoadDriver} compiles and maps documents to:
+ * <pre>
+ * java -cp target/benchmarks.jar com.pseudochaos.xpom.load.CorpusGenerator --out corpus \
+ *      --documents 10 --records 100 --depth 2 --fan-out 4 --namespaces 2 --text-length 16 --seed 42
+ * </pre>
+ * Every record is a tree of elements whose leaves hold ints, longs, doubles, strings and booleans. The class maps
+ * the values of each leaf in all records to an array, and the values of the first record to scalar fields.
+ */
+public final class CorpusGenerator {
+
+    static final String FIXTURE = "fixtures.Corpus";
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final CorpusShape shape;
+    private final Random random;
+
+    CorpusGenerator(CorpusShape shape) {
+        this.shape = shape;
+        this.random = new Random(shape.seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = new Arguments(args);
+        CorpusShape shape = new CorpusShape(arguments);
+        Path out = Paths.get(arguments.get("out", "corpus"));
+        long length = new CorpusGenerator(shape).generate(out);
+        System.out.printf("Generated %d documents, %,d bytes in total, of %s into %s%n",
+                shape.documents, length, shape, out.toAbsolutePath());
+    }
+
+    /**
+     * @return total length of generated documents
+     */
+    long generate(Path out) throws IOException {
+        Files.createDirectories(out.resolve("fixtures"));
+        try (Writer writer = Files.newBufferedWriter(out.resolve("fixtures/Corpus.java"), StandardCharsets.UTF_8)) {
+            writer.write(fixture());
+        }
+        long length = 0;
+        for (int document = 0; document < shape.documents; document++) {
+            byte[] xml = document(document).getBytes(StandardCharsets.UTF_8);
+            Files.write(out.resolve(String.format("document-%05d.xml", document)), xml);
+            length += xml.length;
+        }
+        return length;
+    }
+
+    String document(int document) {
+        StringBuilder xml = new StringBuilder();
+        String prefix = shape.prefix(0);
+        xml.append('<').append(prefix).append("corpus");
+        for (int namespace = 0; namespace < shape.namespaces; namespace++) {
+            xml.append(" xmlns:n").append(namespace).append("=\"").append(CorpusShape.uri(namespace)).append('"');
+        }
+        xml.append('>');
+        for (int record = 0; record < shape.records; record++) {
+            xml.append('<').append(prefix).append("record id=\"").append(document * shape.records + record).append("\">");
+            appendChildren(xml, 1, 0);
+            xml.append("</").append(prefix).append("record>");
+        }
+        return xml.append("</").append(prefix).append("corpus>").toString();
+    }
+
+    private void appendChildren(StringBuilder xml, int level, int leaf) {
+        for (int child = 0; child < shape.fanOut; child++) {
+            String name = shape.prefix(level) + "e" + child;
+            xml.append('<').append(name).append('>');
+            if (level == shape.depth) {
+                appendValue(xml, leaf * shape.fanOut + child);
+            } else {
+                appendChildren(xml, level + 1, leaf * shape.fanOut + child);
+            }
+            xml.append("</").append(name).append('>');
+        }
+    }
+
+    private void appendValue(StringBuilder xml, int leaf) {
+        switch (CorpusShape.typeOf(leaf)) {
+            case INT:
+                xml.append(random.nextInt());
+                break;
+            case LONG:
+                xml.append(random.nextLong());
+                break;
+            case DOUBLE:
+                xml.append(random.nextDouble() * 1_000_000);
+                break;
+            case STRING:
+                for (int i = 0; i < shape.textLength; i++) {
+                    xml.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+                }
+                break;
+            case BOOLEAN:
+                xml.append(random.nextBoolean());
+                break;
+        }
+    }
+
+    String fixture() {
+        StringBuilder source = new StringBuilder()
+                .append("package fixtures;\n\n")
+                .append("import com.pseudochaos.xpom.annotation.Namespace;\n")
+                .append("import com.pseudochaos.xpom.annotation.NamespaceContext;\n")
+                .append("import com.pseudochaos.xpom.annotation.XPath;\n\n")
+                .append("/**\n * Generated by CorpusGenerator for ").append(shape).append("\n */\n");
+        if (shape.namespaces > 0) {
+            source.append("@NamespaceContext({\n");
+            for (int namespace = 0; namespace < shape.namespaces; namespace++) {
+                source.append("        @Namespace(prefix = \"n").append(namespace).append("\", uri = \"")
+                        .append(CorpusShape.uri(namespace)).append("\")")
+                        .append(namespace + 1 < shape.namespaces ? ",\n" : "\n");
+            }
+            source.append("})\n");
+        }
+        String record = "/" + shape.prefix(0) + "corpus/" + shape.prefix(0) + "record";
+        source.append("public class Corpus {\n")
+                .append("    @XPath(\"").append(record).append("/@id\") public int[] ids;\n");
+        for (int leaf = 0; leaf < shape.leaves(); leaf++) {
+            String path = leafPath(leaf);
+            String type = CorpusShape.typeOf(leaf).javaType;
+            source.append("    @XPath(\"").append(record).append(path).append("\") public ").append(type)
+                    .append("[] leaf").append(leaf).append(";\n")
+                    .append("    @XPath(\"").append(record).append("[1]").append(path).append("\") public ").append(type)
+                    .append(" first").append(leaf).append(";\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private String leafPath(int leaf) {
+        StringBuilder path = new StringBuilder();
+        for (int level = shape.depth; level >= 1; level--) {
+            path.insert(0, "/" + shape.prefix(level) + "e" + leaf % shape.fanOut);
+            leaf /= shape.fanOut;
+        }
+        return path.toString();
+    }
+}
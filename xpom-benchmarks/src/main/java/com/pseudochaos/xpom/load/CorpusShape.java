@@ -0,0 +1,73 @@
+package com.pseudochaos.xpom.load;
+
+/**
+ * Shape of generated documents: {@code records} repeated record elements, each a tree of {@code depth} levels
+ * with {@code fanOut} children per element, whose leaves hold values. Elements of each level are in one of
+ * {@code namespaces} namespaces, none if it's 0. String values are {@code textLength} chars long.
+ */
+final class CorpusShape {
+
+    static final int MAX_LEAVES = 256;
+
+    final int documents;
+    final int records;
+    final int depth;
+    final int fanOut;
+    final int namespaces;
+    final int textLength;
+    final long seed;
+
+    CorpusShape(Arguments arguments) {
+        this.documents = arguments.getInt("documents", 10);
+        this.records = arguments.getInt("records", 100);
+        this.depth = arguments.getInt("depth", 2);
+        this.fanOut = arguments.getInt("fan-out", 4);
+        this.namespaces = arguments.getInt("namespaces", 0);
+        this.textLength = arguments.getInt("text-length", 16);
+        this.seed = arguments.getLong("seed", 42);
+        if (documents < 1 || records < 1 || depth < 1 || fanOut < 1 || namespaces < 0 || textLength < 1) {
+            throw new IllegalArgumentException("Documents, records, depth, fan-out and text length must be positive");
+        }
+        if (Math.pow(fanOut, depth) > MAX_LEAVES) {
+            throw new IllegalArgumentException("A record can have at most " + MAX_LEAVES + " leaves, fan-out^depth");
+        }
+    }
+
+    int leaves() {
+        return (int) Math.pow(fanOut, depth);
+    }
+
+    /**
+     * @return prefix of elements of the level, an empty string if there are no namespaces
+     */
+    String prefix(int level) {
+        return namespaces == 0 ? "" : "n" + level % namespaces + ":";
+    }
+
+    static String uri(int namespace) {
+        return "urn:pseudochaos:corpus:" + namespace;
+    }
+
+    /**
+     * @return type of values of the leaf: the same for the same leaf in every record and document
+     */
+    static LeafType typeOf(int leaf) {
+        return LeafType.values()[leaf % LeafType.values().length];
+    }
+
+    enum LeafType {
+        INT("int"), LONG("long"), DOUBLE("double"), STRING("String"), BOOLEAN("boolean");
+
+        final String javaType;
+
+        LeafType(String javaType) {
+            this.javaType = javaType;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "documents=" + documents + ", records=" + records + ", depth=" + depth + ", fanOut=" + fanOut +
+                ", namespaces=" + namespaces + ", textLength=" + textLength + ", seed=" + seed;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pseudochaos.xpom.load;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stop-the-world collections ending within a period, as reported by GC notifications. Concurrent cycles of
+ * collectors like G1 and ZGC don't stop mapping threads, so they aren't counted.
+ */
+final class GcPauses {
+
+    private final long from;
+    private final long to;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener listener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            paused(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()));
+        }
+    };
+    private int count;
+    private long total;
+    private long max;
+
+    GcPauses(long from, long to) {
+        this.from = from;
+        this.to = to;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    private synchronized void paused(GarbageCollectionNotificationInfo info) {
+        long now = System.nanoTime();
+        if (now < from || now > to || info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+            return;
+        }
+        long duration = info.getGcInfo().getDuration();
+        count++;
+        total += duration;
+        max = Math.max(max, duration);
+    }
+
+    synchronized GcPauses stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Not registered
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d pauses, %d ms in total, %d ms at most", count, total, max);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pseudochaos.xpom.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of documents mapped by a thread, kept as they are for exact percentiles.
+ */
+final class Latencies {
+
+    private long[] values = new long[1 << 16];
+    private int count;
+    private long bytes;
+
+    void add(long nanos, int length) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = nanos;
+        bytes += length;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return latencies of all threads, sorted
+     */
+    static long[] merge(Latencies[] latencies) {
+        int count = 0;
+        for (Latencies thread : latencies) {
+            count += thread.count;
+        }
+        long[] merged = new long[count];
+        int offset = 0;
+        for (Latencies thread : latencies) {
+            System.arraycopy(thread.values, 0, merged, offset, thread.count);
+            offset += thread.count;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+}
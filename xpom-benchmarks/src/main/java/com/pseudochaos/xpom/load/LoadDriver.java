@@ -0,0 +1,154 @@
+package com.pseudochaos.xpom.load;
+
+import com.pseudochaos.xpom.Extraction;
+import com.pseudochaos.xpom.Mapping;
+import com.pseudochaos.xpom.XPom;
+import com.pseudochaos.xpom.XPomFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maps a corpus generated by {@link CorpusGenerator} through {@link XPomFactory} from many threads, at a target rate
+ * or as fast as possible, and reports latency percentiles, throughput and GC pauses:
+ * <pre>
+ * java -cp target/benchmarks.jar com.pseudochaos.xpom.load.LoadDriver --corpus corpus \
+ *      --threads 8 --rate 40000 --warmup 10 --duration 30 --extraction STREAMING --mapping GENERATED
+ * </pre>
+ * At a target rate each document has a scheduled start and its latency is measured from it, so a stalled mapper
+ * (e.g. by a GC pause) is charged for the documents which should have been mapped meanwhile. Without a rate, latency
+ * is the time of mapping a document. Needs a JDK, as the class of the corpus is compiled on start.
+ */
+public final class LoadDriver {
+
+    private final List<byte[]> documents;
+    private final XPom<?> mapper;
+    private final int threads;
+    private final long rate;
+
+    LoadDriver(List<byte[]> documents, XPom<?> mapper, int threads, long rate) {
+        this.documents = documents;
+        this.mapper = mapper;
+        this.threads = threads;
+        this.rate = rate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        Path corpus = Paths.get(arguments.get("corpus", "corpus"));
+        int threads = arguments.getInt("threads", Runtime.getRuntime().availableProcessors());
+        long rate = arguments.getLong("rate", 0);
+        long warmup = arguments.getLong("warmup", 10);
+        long duration = arguments.getLong("duration", 30);
+        XPomFactory.setExtractionStrategy(Extraction.valueOf(arguments.get("extraction", "STREAMING")));
+        XPomFactory.setMapping(Mapping.valueOf(arguments.get("mapping", "REFLECTIVE")));
+
+        List<byte[]> documents = read(corpus);
+        XPom<?> mapper = XPomFactory.create(compileFixture(corpus));
+        System.out.printf("Mapping %d documents of %s by %d threads at %s, %s mapping, %s extraction%n",
+                documents.size(), corpus.toAbsolutePath(), threads, rate == 0 ? "full speed" : rate + " documents/s",
+                mapper.getMapping(), XPomFactory.getExtractionStrategy());
+        Report report = new LoadDriver(documents, mapper, threads, rate).run(warmup, duration);
+        System.out.println(report);
+    }
+
+    private static List<byte[]> read(Path corpus) throws IOException {
+        List<byte[]> documents = new ArrayList<>();
+        try (Stream<Path> files = Files.list(corpus)) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".xml")).sorted().collect(Collectors.toList())) {
+                documents.add(Files.readAllBytes(file));
+            }
+        }
+        if (documents.isEmpty()) {
+            throw new IllegalArgumentException("No documents in " + corpus + ", generate them by CorpusGenerator");
+        }
+        return documents;
+    }
+
+    private static Class<?> compileFixture(Path corpus) throws IOException, ClassNotFoundException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler, run the driver by a JDK");
+        }
+        Path classes = Files.createTempDirectory("xpom-corpus");
+        int result = compiler.run(null, null, null, "-proc:none", "-classpath", System.getProperty("java.class.path"),
+                "-d", classes.toString(), corpus.resolve("fixtures/Corpus.java").toString());
+        if (result != 0) {
+            throw new IllegalStateException("Failed to compile the class of the corpus");
+        }
+        ClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, LoadDriver.class.getClassLoader());
+        return Class.forName(CorpusGenerator.FIXTURE, true, loader);
+    }
+
+    /**
+     * Maps documents for the warmup and then measures them for the duration, both in seconds.
+     */
+    Report run(long warmup, long duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measured = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measured + TimeUnit.SECONDS.toNanos(duration);
+        Report report = new Report(threads);
+        GcPauses pauses = new GcPauses(measured, end);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            int index = thread;
+            Thread worker = new Thread(() -> {
+                try {
+                    report.record(index, work(index, start, measured, end));
+                } catch (Throwable e) {
+                    report.failed(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "xpom-load-" + thread);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        report.complete(duration, pauses.stop());
+        return report;
+    }
+
+    private Latencies work(int thread, long start, long measured, long end) {
+        Latencies latencies = new Latencies();
+        // Threads share the rate, each maps every threads-th document of a schedule
+        long interval = rate == 0 ? 0 : TimeUnit.SECONDS.toNanos(threads) / rate;
+        long scheduled = start + (rate == 0 ? 0 : interval * thread / threads);
+        for (int i = thread; ; i += threads) {
+            long now = System.nanoTime();
+            if (rate != 0) {
+                if (scheduled > now) {
+                    LockSupport.parkNanos(scheduled - now);
+                    now = System.nanoTime();
+                }
+            } else {
+                scheduled = now;
+            }
+            if (now >= end) {
+                return latencies;
+            }
+            byte[] document = documents.get(i % documents.size());
+            if (mapper.using(document, 0, document.length) == null) {
+                throw new IllegalStateException("No instance mapped");
+            }
+            long finished = System.nanoTime();
+            if (scheduled >= measured) {
+                latencies.add(finished - scheduled, document.length);
+            }
+            scheduled += interval;
+        }
+    }
+}
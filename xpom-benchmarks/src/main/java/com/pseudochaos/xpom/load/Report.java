@@ -0,0 +1,62 @@
+package com.pseudochaos.xpom.load;
+
+/**
+ * Results of a load run.
+ */
+final class Report {
+
+    private final Latencies[] latencies;
+    private volatile Throwable failure;
+    private long[] sorted;
+    private long duration;
+    private GcPauses pauses;
+
+    Report(int threads) {
+        this.latencies = new Latencies[threads];
+    }
+
+    void record(int thread, Latencies latencies) {
+        this.latencies[thread] = latencies;
+    }
+
+    void failed(Throwable e) {
+        failure = e;
+    }
+
+    void complete(long duration, GcPauses pauses) {
+        if (failure != null) {
+            throw new IllegalStateException("Mapping failed", failure);
+        }
+        this.sorted = Latencies.merge(latencies);
+        this.duration = duration;
+        this.pauses = pauses;
+    }
+
+    double getThroughput() {
+        return (double) sorted.length / duration;
+    }
+
+    /**
+     * @return latency of the quantile in microseconds
+     */
+    double getPercentile(double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        long bytes = 0;
+        for (Latencies thread : latencies) {
+            bytes += thread.getBytes();
+        }
+        return String.format("Documents:  %,d in %d s%n", sorted.length, duration) +
+                String.format("Throughput: %,.0f documents/s, %,.1f MB/s%n", getThroughput(), bytes / 1e6 / duration) +
+                String.format("Latency:    p50 %,.1f us, p99 %,.1f us, p999 %,.1f us, max %,.1f us%n",
+                        getPercentile(0.5), getPercentile(0.99), getPercentile(0.999), getPercentile(1)) +
+                String.format("GC:         %s", pauses);
+    }
+}
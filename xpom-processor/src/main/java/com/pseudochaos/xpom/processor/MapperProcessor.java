@@ -0,0 +1,370 @@
+package com.pseudochaos.xpom.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a mapper for each class with {@code @XPath} fields at compile time: a subclass of
+ * {@code com.pseudochaos.xpom.CompiledMapper} assigning converted values to fields in a straight line, which
+ * {@code XPomFactory} prefers to the reflective mapper. Conversions are the same as the reflective mapper does.
+ * <p>
+ * A mapper isn't generated (and the class is mapped reflectively) if the generated code couldn't reach the class,
+ * its constructor or its fields (private, final or static members, inner classes, type parameters), or if a field
+ * has a type only the reflective mapper supports, like a nested object. The reason is reported as a note.
+ * <p>
+ * Annotations are matched by name, so the processor doesn't depend on xpom itself.
+ */
+@SupportedAnnotationTypes(MapperProcessor.XPATH)
+public class MapperProcessor extends AbstractProcessor {
+
+    static final String XPATH = "com.pseudochaos.xpom.annotation.XPath";
+    static final String CONVERTER = "com.pseudochaos.xpom.annotation.Converter";
+    static final String NAMESPACE_CONTEXT = "com.pseudochaos.xpom.annotation.NamespaceContext";
+    static final String SUFFIX = "_XPomMapper";
+
+    private static final Map<String, String> CONVERSIONS = new HashMap<>();
+    private static final Map<String, String> PRIMITIVE_CONVERSIONS = new HashMap<>();
+
+    static {
+        // The same conversions as HierarchicalConverterResolver does, %s is the raw value
+        CONVERSIONS.put("java.lang.Byte", "java.lang.Byte.decode(%s)");
+        CONVERSIONS.put("java.lang.Short", "java.lang.Short.decode(%s)");
+        CONVERSIONS.put("java.lang.Integer", "java.lang.Integer.decode(%s)");
+        CONVERSIONS.put("java.lang.Long", "java.lang.Long.decode(%s)");
+        CONVERSIONS.put("java.lang.Float", "java.lang.Float.valueOf(%s)");
+        CONVERSIONS.put("java.lang.Double", "java.lang.Double.valueOf(%s)");
+        CONVERSIONS.put("java.lang.Boolean", "java.lang.Boolean.parseBoolean(%s)");
+        CONVERSIONS.put("java.lang.Character", "%s.charAt(0)");
+        CONVERSIONS.put("java.lang.String", "%s");
+        // Primitive fields and arrays are populated without boxing
+        PRIMITIVE_CONVERSIONS.put("byte", "decodeByte(%s)");
+        PRIMITIVE_CONVERSIONS.put("short", "decodeShort(%s)");
+        PRIMITIVE_CONVERSIONS.put("int", "decodeInt(%s)");
+        PRIMITIVE_CONVERSIONS.put("long", "decodeLong(%s)");
+        PRIMITIVE_CONVERSIONS.put("float", "parseFloat(%s)");
+        PRIMITIVE_CONVERSIONS.put("double", "parseDouble(%s)");
+        PRIMITIVE_CONVERSIONS.put("boolean", "parseBoolean(%s)");
+        PRIMITIVE_CONVERSIONS.put("char", "%s.charAt(0)");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement xPath = processingEnv.getElementUtils().getTypeElement(XPATH);
+        if (xPath == null) {
+            return false;
+        }
+        Map<TypeElement, List<VariableElement>> classes = new LinkedHashMap<>();
+        for (VariableElement field : ElementFilter.fieldsIn(round.getElementsAnnotatedWith(xPath))) {
+            classes.computeIfAbsent((TypeElement) field.getEnclosingElement(), type -> new ArrayList<>()).add(field);
+        }
+        classes.forEach((type, fields) -> {
+            try {
+                String source = generate(type, fields);
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(mapperName(type), type);
+                try (Writer writer = file.openWriter()) {
+                    writer.write(source);
+                }
+            } catch (UnsupportedException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "XPom mapper isn't generated, the class is mapped reflectively: " + e.getMessage(), type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write XPom mapper: " + e, type);
+            }
+        });
+        return false; // Other processors may be interested in @XPath as well
+    }
+
+    private String generate(TypeElement type, List<VariableElement> fields) {
+        checkAccessible(type);
+        String typeName = type.getQualifiedName().toString();
+        String mapperName = mapperName(type);
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = mapperName.substring(mapperName.lastIndexOf('.') + 1);
+
+        StringBuilder members = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            generate(fields.get(i), i, members, body);
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Mapper of {@link ").append(typeName).append("} generated by xpom-processor, don't edit.\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("final class ").append(simpleName)
+                .append(" extends com.pseudochaos.xpom.CompiledMapper<").append(typeName).append("> {\n\n")
+                .append(members).append('\n')
+                .append("    ").append(simpleName).append("() {\n")
+                .append("        super(").append(typeName).append(".class").append(namespaces(type)).append(");\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected <D> ").append(typeName)
+                .append(" map(com.pseudochaos.xpom.ValueExtractor<D> extractor, D document) {\n")
+                .append("        ").append(typeName).append(" instance = new ").append(typeName).append("();\n")
+                .append(body)
+                .append("        return instance;\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private void generate(VariableElement field, int index, StringBuilder members, StringBuilder body) {
+        String name = field.getSimpleName().toString();
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+            throw new UnsupportedException("field " + name + " is private, final or static");
+        }
+        TypeMirror type = field.asType();
+        boolean collection = type.getKind() == TypeKind.ARRAY || isList(type);
+        String xPath = "x" + index;
+        String value = "v" + index;
+        members.append("    private final com.pseudochaos.xpom.XPath ").append(xPath).append(" = ")
+                .append(collection ? "collection(" : "scalar(").append(literal(xPathOf(field))).append(");\n");
+        Optional<TypeMirror> converter = converterOf(field);
+        // Primitives are parsed from the characters the document keeps, without creating strings of values
+        boolean text = !converter.isPresent() && (type.getKind().isPrimitive() ||
+                type.getKind() == TypeKind.ARRAY && ((ArrayType) type).getComponentType().getKind().isPrimitive());
+        String raw = text ? "CharSequence" : "String";
+        body.append("        java.util.Optional<").append(raw).append(collection ? "[]" : "").append("> ").append(value)
+                .append(" = extractor.").append(extractorOf(collection, text))
+                .append("(document, ").append(xPath).append(");\n")
+                .append("        if (").append(value).append(".isPresent()) {\n")
+                .append("            try {\n");
+
+        if (converter.isPresent()) {
+            String converterField = "c" + index;
+            members.append("    private final com.pseudochaos.xpom.Converter ").append(converterField)
+                    .append(" = new ").append(instantiable(converter.get())).append("();\n");
+            body.append("                Object converted = ").append(converterField).append(".convert(")
+                    .append(value).append(".get());\n")
+                    .append("                if (converted != null) {\n")
+                    .append("                    instance.").append(name).append(" = (").append(boxed(type)).append(") converted;\n")
+                    .append("                }\n");
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            String componentName = processingEnv.getTypeUtils().erasure(component).toString();
+            body.append("                ").append(raw).append("[] raw = ").append(value).append(".get();\n")
+                    .append("                ").append(componentName).append("[] array = new ").append(componentName).append("[raw.length];\n")
+                    .append("                for (int i = 0; i < raw.length; i++) {\n")
+                    .append("                    array[i] = ").append(conversion(component, "raw[i]", name)).append(";\n")
+                    .append("                }\n")
+                    .append("                instance.").append(name).append(" = array;\n");
+        } else if (collection) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            TypeMirror element = arguments.isEmpty() ? stringType() : arguments.get(0);
+            String elementName = processingEnv.getTypeUtils().erasure(element).toString();
+            body.append("                String[] raw = ").append(value).append(".get();\n")
+                    .append("                java.util.List<").append(elementName).append("> list = new java.util.ArrayList<>(raw.length);\n")
+                    .append("                for (String item : raw) {\n")
+                    .append("                    list.add(").append(conversion(element, "item", name)).append(");\n")
+                    .append("                }\n")
+                    .append("                instance.").append(name).append(" = list;\n");
+        } else {
+            body.append("                instance.").append(name).append(" = ")
+                    .append(conversion(type, value + ".get()", name)).append(";\n");
+        }
+
+        body.append("            } catch (Exception e) {\n")
+                .append("                conversionFailed(").append(literal(name)).append(", e);\n")
+                .append("            }\n")
+                .append("        } else {\n")
+                .append("            valueNotPresent(").append(literal(name)).append(", instance);\n")
+                .append("        }\n");
+    }
+
+    private static String extractorOf(boolean collection, boolean text) {
+        if (text) {
+            return collection ? "extractTexts" : "extractText";
+        }
+        return collection ? "extractCollection" : "extractScalar";
+    }
+
+    /**
+     * @return expression converting the raw string to the type
+     */
+    private String conversion(TypeMirror type, String raw, String field) {
+        if (type.getKind().isPrimitive()) {
+            return String.format(PRIMITIVE_CONVERSIONS.get(type.toString()), raw);
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            if (element.getKind() == ElementKind.ENUM) {
+                return "toEnum(" + element.getQualifiedName() + ".class, " + raw + ")";
+            }
+            String conversion = CONVERSIONS.get(element.getQualifiedName().toString());
+            if (conversion != null) {
+                return String.format(conversion, raw);
+            }
+        }
+        throw new UnsupportedException("field " + field + " of type " + type + " isn't supported by generated mappers");
+    }
+
+    private boolean isList(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.toString().equals("java.util.List")) {
+            return true;
+        }
+        TypeElement collection = processingEnv.getElementUtils().getTypeElement("java.util.Collection");
+        if (processingEnv.getTypeUtils().isAssignable(erasure, processingEnv.getTypeUtils().erasure(collection.asType()))) {
+            throw new UnsupportedException("collection " + type + " isn't supported by generated mappers, only List is");
+        }
+        return false;
+    }
+
+    private TypeMirror stringType() {
+        return processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * @throws UnsupportedException if the generated mapper, which is in the same package, can't create instances
+     */
+    private void checkAccessible(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedException("it isn't a concrete class");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new UnsupportedException("it has type parameters");
+        }
+        for (Element element = type; element.getKind().isClass(); element = element.getEnclosingElement()) {
+            TypeElement enclosing = (TypeElement) element;
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedException(enclosing + " is private");
+            }
+            if (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedException(enclosing + " is an inner class");
+            }
+            if (enclosing.getNestingKind() != NestingKind.TOP_LEVEL && enclosing.getNestingKind() != NestingKind.MEMBER) {
+                throw new UnsupportedException(enclosing + " is a local or anonymous class");
+            }
+        }
+        instantiable(type.asType());
+    }
+
+    /**
+     * @return name of the class, if it has a zero-argument constructor the generated mapper can call
+     */
+    private String instantiable(TypeMirror type) {
+        TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+        boolean constructor = ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+        if (!constructor) {
+            throw new UnsupportedException(element + " has no accessible zero-argument constructor");
+        }
+        if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedException(element + " is private");
+        }
+        return element.getQualifiedName().toString();
+    }
+
+    private String mapperName(TypeElement type) {
+        Deque<String> names = new ArrayDeque<>();
+        Element element = type;
+        for (; element.getKind().isClass() || element.getKind().isInterface(); element = element.getEnclosingElement()) {
+            names.addFirst(element.getSimpleName().toString());
+        }
+        String packageName = ((PackageElement) element).getQualifiedName().toString();
+        return (packageName.isEmpty() ? "" : packageName + ".") + String.join("_", names) + SUFFIX;
+    }
+
+    private static String xPathOf(VariableElement field) {
+        return (String) annotationValue(field, XPATH, "value").orElseThrow(IllegalStateException::new);
+    }
+
+    private static Optional<TypeMirror> converterOf(VariableElement field) {
+        return annotationValue(field, CONVERTER, "value").map(value -> (TypeMirror) value);
+    }
+
+    /**
+     * @return arguments of {@code super(...)}: prefixes and uris declared by {@code @NamespaceContext}
+     */
+    private static String namespaces(TypeElement type) {
+        StringBuilder result = new StringBuilder();
+        Optional<Object> namespaces = annotationValue(type, NAMESPACE_CONTEXT, "value");
+        if (namespaces.isPresent()) {
+            for (Object namespace : (List<?>) namespaces.get()) {
+                AnnotationMirror mirror = (AnnotationMirror) ((AnnotationValue) namespace).getValue();
+                String prefix = "";
+                String uri = "";
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("prefix")) {
+                        prefix = (String) entry.getValue().getValue();
+                    } else if (entry.getKey().getSimpleName().contentEquals("uri")) {
+                        uri = (String) entry.getValue().getValue();
+                    }
+                }
+                result.append(", ").append(literal(prefix)).append(", ").append(literal(uri));
+            }
+        }
+        return result.toString();
+    }
+
+    private static Optional<Object> annotationValue(Element element, String annotation, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals(name)) {
+                        return Optional.of(entry.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    static String literal(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': result.append("\\\""); break;
+                case '\\': result.append("\\\\"); break;
+                case '\n': result.append("\\n"); break;
+                case '\r': result.append("\\r"); break;
+                case '\t': result.append("\\t"); break;
+                default:
+                    if (c < ' ' || c > '~') {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private static final class UnsupportedException extends RuntimeException {
+        UnsupportedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.pseudochaos.xpom.processor;
+
+import com.pseudochaos.xpom.CompiledMapper;
+import com.pseudochaos.xpom.Mapping;
+import com.pseudochaos.xpom.NoValueException;
+import com.pseudochaos.xpom.XPom;
+import com.pseudochaos.xpom.XPomFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class MapperProcessorTest {
+
+    private static final String ORDER =
+            "package com.acme;\n" +
+            "import com.pseudochaos.xpom.annotation.*;\n" +
+            "import java.util.List;\n" +
+            "public class Order {\n" +
+            "    public enum Status { NEW, SHIPPED }\n" +
+            "    public static class Upper implements com.pseudochaos.xpom.Converter<String, String> {\n" +
+            "        public String convert(String value) { return value.toUpperCase(); }\n" +
+            "    }\n" +
+            "    @NamespaceContext(@Namespace(prefix = \"o\", uri = \"urn:orders\"))\n" +
+            "    public static class Line {\n" +
+            "        @XPath(\"/o:line/@sku\") public String sku;\n" +
+            "        @XPath(\"/o:line/o:quantity\") public int quantity;\n" +
+            "    }\n" +
+            "    @ExtractionStrategy(com.pseudochaos.xpom.Extraction.STREAMING)\n" +
+            "    public static class Streamed {\n" +
+            "        @XPath(\"/order/@id\") public int id;\n" +
+            "        @XPath(\"/order/status\") public Status status;\n" +
+            "    }\n" +
+            "    public static class Receipt {\n" +
+            "        @XPath(value = \"/receipt/number\", mandatory = true) public String number;\n" +
+            "    }\n" +
+            "    @XPath(\"/order/@id\") public long id;\n" +
+            "    @XPath(\"/order/status\") public Status status;\n" +
+            "    @XPath(\"/order/paid\") public Boolean paid;\n" +
+            "    @XPath(\"/order/code\") public char code;\n" +
+            "    @Converter(Upper.class) @XPath(\"/order/customer\") public String customer;\n" +
+            "    @XPath(\"/order/price\") public double[] prices;\n" +
+            "    @XPath(\"/order/tag\") public List<String> tags;\n" +
+            "    @XPath(\"/order/note\") public String note = \"none\";\n" +
+            "}\n";
+
+    private static final String INELIGIBLE =
+            "package com.acme;\n" +
+            "import com.pseudochaos.xpom.annotation.*;\n" +
+            "public class Ineligible {\n" +
+            "    public static class PrivateField {\n" +
+            "        @XPath(\"/a\") private String a;\n" +
+            "    }\n" +
+            "    public static class Nested {\n" +
+            "        @XPath(\"/a\") public Order order;\n" +
+            "    }\n" +
+            "    public static class SetField {\n" +
+            "        @XPath(\"/a\") public java.util.Set<String> a;\n" +
+            "    }\n" +
+            "    public class Inner {\n" +
+            "        @XPath(\"/a\") public String a;\n" +
+            "    }\n" +
+            "}\n";
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static ClassLoader loader;
+    private static List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+    @BeforeClass
+    public static void compile() throws IOException {
+        Path sources = folder.newFolder("sources").toPath();
+        Path classes = folder.newFolder("classes").toPath();
+        Path acme = Files.createDirectories(sources.resolve("com/acme"));
+        Files.write(acme.resolve("Order.java"), ORDER.getBytes(StandardCharsets.UTF_8));
+        Files.write(acme.resolve("Ineligible.java"), INELIGIBLE.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8)) {
+            String xpom = new File(CompiledMapper.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath();
+            List<String> options = new ArrayList<>(Arrays.asList("-classpath", xpom, "-d", classes.toString()));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, collector, options, null,
+                    files.getJavaFileObjects(acme.resolve("Order.java").toFile(), acme.resolve("Ineligible.java").toFile()));
+            task.setProcessors(Arrays.asList(new MapperProcessor()));
+            assertThat(task.call()).as(collector.getDiagnostics().toString()).isTrue();
+        }
+        diagnostics = collector.getDiagnostics();
+        loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, MapperProcessorTest.class.getClassLoader());
+    }
+
+    @Test
+    public void shouldGenerateMappersNamedAfterClasses() throws Exception {
+        assertThat(loader.loadClass("com.acme.Order_XPomMapper").getSuperclass()).isEqualTo(CompiledMapper.class);
+        assertThat(loader.loadClass("com.acme.Order_Line_XPomMapper").getSuperclass()).isEqualTo(CompiledMapper.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldMapByGeneratedMapper() throws Exception {
+        Class<?> order = loader.loadClass("com.acme.Order");
+        XPom<?> xPom = XPomFactory.create(order);
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.COMPILED);
+
+        Object mapped = xPom.using("<order id='0x10'><status>SHIPPED</status><paid>true</paid><code>X</code>" +
+                "<customer>acme</customer><price>1.5</price><price>2</price><tag>a</tag><tag>b</tag></order>");
+        assertThat(order.getField("id").get(mapped)).isEqualTo(16L);
+        assertThat(order.getField("status").get(mapped).toString()).isEqualTo("SHIPPED");
+        assertThat(order.getField("paid").get(mapped)).isEqualTo(true);
+        assertThat(order.getField("code").get(mapped)).isEqualTo('X');
+        assertThat(order.getField("customer").get(mapped)).isEqualTo("ACME");
+        assertThat((double[]) order.getField("prices").get(mapped)).containsExactly(1.5, 2.0);
+        assertThat((List<Object>) order.getField("tags").get(mapped)).containsExactly("a", "b");
+        assertThat(order.getField("note").get(mapped)).isEqualTo("none");
+    }
+
+    @Test
+    public void shouldDeclareNamespacesOfClass() throws Exception {
+        Class<?> line = loader.loadClass("com.acme.Order$Line");
+        XPom<?> xPom = XPomFactory.create(line);
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.COMPILED);
+
+        Object mapped = xPom.using("<o:line xmlns:o='urn:orders' sku='A-1'><o:quantity>3</o:quantity></o:line>");
+        assertThat(line.getField("sku").get(mapped)).isEqualTo("A-1");
+        assertThat(line.getField("quantity").get(mapped)).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldMapByGeneratedMapperWhileStreaming() throws Exception {
+        Class<?> streamed = loader.loadClass("com.acme.Order$Streamed");
+        XPom<?> xPom = XPomFactory.create(streamed);
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.COMPILED);
+
+        // Reading stops once both values are found, so the unclosed tail isn't parsed
+        Object mapped = xPom.using("<order id='7'><status>SHIPPED</status><unclosed>");
+        assertThat(streamed.getField("id").get(mapped)).isEqualTo(7);
+        assertThat(streamed.getField("status").get(mapped).toString()).isEqualTo("SHIPPED");
+    }
+
+    @Test
+    public void shouldHandleAbsentValueByFieldStrategy() throws Exception {
+        XPom<?> xPom = XPomFactory.create(loader.loadClass("com.acme.Order$Receipt"));
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.COMPILED);
+
+        Throwable thrown = catchThrowable(() -> xPom.using("<receipt/>"));
+        assertThat(thrown).isInstanceOf(NoValueException.class);
+    }
+
+    @Test
+    public void shouldRecordEventsOfFieldsWhileFlightRecorderRecordsThem() throws Exception {
+        Class<?> line = loader.loadClass("com.acme.Order$Line");
+        XPom<?> xPom = XPomFactory.create(line);
+        assertThat(xPom.getMapping()).isEqualTo(Mapping.COMPILED);
+
+        Path file = Files.createTempFile("xpom", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.pseudochaos.xpom.Evaluate").withThreshold(Duration.ZERO);
+            recording.enable("com.pseudochaos.xpom.Convert").withThreshold(Duration.ZERO);
+            recording.start();
+            Object mapped = xPom.using("<o:line xmlns:o='urn:orders' sku='A-1'><o:quantity>3</o:quantity></o:line>");
+            assertThat(line.getField("quantity").get(mapped)).isEqualTo(3);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.pseudochaos.xpom."))
+                    .filter(event -> event.getClass("mappedClass").getName().equals(line.getName()))
+                    .collect(toList());
+            for (String event : Arrays.asList("com.pseudochaos.xpom.Evaluate", "com.pseudochaos.xpom.Convert")) {
+                assertThat(events).filteredOn(e -> e.getEventType().getName().equals(event))
+                        .extracting(e -> e.getString("field")).as(event).containsOnly("sku", "quantity");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldSkipClassesGeneratedCodeCantMap() throws Exception {
+        for (String name : Arrays.asList("PrivateField", "Nested", "SetField", "Inner")) {
+            assertThat(loader.getResource("com/acme/Ineligible_" + name + "_XPomMapper.class")).as(name).isNull();
+        }
+        assertThat(diagnostics).filteredOn(d -> d.getKind() == Diagnostic.Kind.NOTE).hasSize(4);
+    }
+
+    @Test
+    public void shouldEscapeLiterals() {
+        assertThat(MapperProcessor.literal("a\"b\\c\né")).isEqualTo("\"a\\\"b\\\\c\\n\\u00e9\"");
+    }
+}